@@ -0,0 +1,159 @@
+/*
+ * MIT License
+ *
+ * Copyright 2024 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.klikli_dev.occultism.common.misc;
+
+import com.google.common.collect.BiMap;
+import com.google.common.collect.HashBiMap;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import net.minecraft.SharedConstants;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.server.Bootstrap;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Stack;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the slot view of {@link MapItemStackHandler}, an array indexed by slot with a primitive key to slot map and
+ * free list, against the HashBiMap and boxed Stack it replaced.
+ * The new side runs the handler itself, the legacy side runs the slot code of the handler before the change, see
+ * {@link LegacySlotView}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MapItemStackHandlerSlotBenchmark {
+
+    /**
+     * Item types in the storage, from a fresh actuator to one with several stabilizers.
+     */
+    @Param({"128", "1024"})
+    public int itemTypes;
+
+    protected List<ItemStackKey> keys;
+
+    protected LegacySlotView legacy;
+
+    protected MapItemStackHandler handler;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        SharedConstants.tryDetectVersion();
+        Bootstrap.bootStrap();
+
+        this.keys = BuiltInRegistries.ITEM.stream().skip(1).limit(this.itemTypes)
+                .map(item -> ItemStackKey.of(new ItemStack(item))).toList();
+
+        this.legacy = new LegacySlotView();
+        this.handler = new MapItemStackHandler(this.itemTypes, this.itemTypes * 64L);
+        for (var key : this.keys) {
+            this.legacy.keyToCountMap.put(key, 64);
+            this.legacy.addToSlots(key);
+            this.handler.insertItem(key.stack().copyWithCount(64), false);
+        }
+    }
+
+    /**
+     * Reads every slot, as slot based item handler users such as pipes do.
+     */
+    @Benchmark
+    public void legacyGetStackInSlot(Blackhole blackhole) {
+        for (int slot = 0; slot < this.legacy.nextSlotIndex; slot++) {
+            blackhole.consume(this.legacy.getStackInSlot(slot));
+        }
+    }
+
+    @Benchmark
+    public void getStackInSlot(Blackhole blackhole) {
+        for (int slot = 0; slot < this.handler.nextSlotIndex; slot++) {
+            blackhole.consume(this.handler.getStackInSlot(slot));
+        }
+    }
+
+    /**
+     * Frees the slot of every key and assigns it again, as a storage emptied and refilled item type by item type.
+     */
+    @Benchmark
+    public void legacyRemoveAndAddSlots() {
+        for (var key : this.keys) {
+            this.legacy.removeFromSlots(key);
+            this.legacy.addToSlots(key);
+        }
+    }
+
+    @Benchmark
+    public void removeAndAddSlots() {
+        for (var key : this.keys) {
+            this.handler.removeFromSlots(key);
+            this.handler.addToSlots(key);
+        }
+    }
+
+    /**
+     * The slot view of MapItemStackHandler before it was backed by primitive structures, copied from the handler as it
+     * was, including the lazy item variants cache its slot updates maintained.
+     */
+    public static class LegacySlotView {
+        protected Object2IntOpenHashMap<ItemStackKey> keyToCountMap = new Object2IntOpenHashMap<>();
+        protected Multimap<Item, ItemStackKey> itemToVariantsCache = HashMultimap.create();
+        protected BiMap<ItemStackKey, Integer> keyToSlot = HashBiMap.create();
+        protected Stack<Integer> emptySlots = new Stack<>();
+        protected int nextSlotIndex;
+
+        public ItemStack getStackInSlot(int slot) {
+            var key = this.keyToSlot.inverse().get(slot);
+            var count = this.keyToCountMap.getOrDefault(key, 0);
+            return key != null ? key.stack().copyWithCount(count) : ItemStack.EMPTY;
+        }
+
+        protected void addToSlots(ItemStackKey key) {
+            if (!this.emptySlots.empty()) {
+                var index = this.emptySlots.pop();
+                this.keyToSlot.put(key, index);
+            } else {
+                this.keyToSlot.put(key, this.nextSlotIndex++);
+            }
+
+            //if we already have a (lazy) cache for the item this key belongs to, add our key
+            if (this.itemToVariantsCache.containsKey(key.stack().getItem())) {
+                this.itemToVariantsCache.put(key.stack().getItem(), key);
+            }
+        }
+
+        protected void removeFromSlots(ItemStackKey key) {
+            var index = this.keyToSlot.get(key);
+            if (index != null) {
+                this.keyToSlot.remove(key);
+                this.emptySlots.push(index);
+            }
+
+            //If we removed a key entirely, we also have to remove it from our lazy cache.
+            this.itemToVariantsCache.remove(key.stack().getItem(), key);
+        }
+    }
+}
@@ -0,0 +1,367 @@
+/*
+ * MIT License
+ *
+ * Copyright 2024 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.klikli_dev.occultism.common.ritual;
+
+import com.mojang.serialization.Lifecycle;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.core.*;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.data.worldgen.BootstrapContext;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.sounds.SoundEvent;
+import net.minecraft.sounds.SoundSource;
+import net.minecraft.tags.BlockTags;
+import net.minecraft.util.profiling.InactiveProfiler;
+import net.minecraft.util.valueproviders.UniformInt;
+import net.minecraft.world.Difficulty;
+import net.minecraft.world.TickRateManager;
+import net.minecraft.world.damagesource.DamageType;
+import net.minecraft.world.damagesource.DamageTypes;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.flag.FeatureFlagSet;
+import net.minecraft.world.flag.FeatureFlags;
+import net.minecraft.world.item.alchemy.PotionBrewing;
+import net.minecraft.world.item.crafting.RecipeManager;
+import net.minecraft.world.level.GameRules;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.biome.Biome;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.ChunkSource;
+import net.minecraft.world.level.dimension.BuiltinDimensionTypes;
+import net.minecraft.world.level.dimension.DimensionType;
+import net.minecraft.world.level.entity.LevelEntityGetter;
+import net.minecraft.world.level.gameevent.GameEvent;
+import net.minecraft.world.level.material.Fluid;
+import net.minecraft.world.level.material.FluidState;
+import net.minecraft.world.level.saveddata.maps.MapId;
+import net.minecraft.world.level.saveddata.maps.MapItemSavedData;
+import net.minecraft.world.level.storage.WritableLevelData;
+import net.minecraft.world.phys.Vec3;
+import net.minecraft.world.scores.Scoreboard;
+import net.minecraft.world.ticks.BlackholeTickAccess;
+import net.minecraft.world.ticks.LevelTickAccess;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+
+/**
+ * A server side level that only keeps block states and block entities in memory, for benchmarks of code that needs a
+ * real {@link Level} but no chunks, entities or networking.
+ * Vanilla has to be bootstrapped before creating one.
+ */
+public class InMemoryLevel extends Level {
+
+    protected final Long2ObjectOpenHashMap<BlockState> blockStates = new Long2ObjectOpenHashMap<>();
+    protected final Long2ObjectOpenHashMap<BlockEntity> blockEntities = new Long2ObjectOpenHashMap<>();
+    protected long gameTime;
+
+    public InMemoryLevel() {
+        this(createRegistryAccess());
+    }
+
+    protected InMemoryLevel(RegistryAccess registryAccess) {
+        super(new LevelData(), Level.OVERWORLD, registryAccess,
+                registryAccess.registryOrThrow(Registries.DIMENSION_TYPE).getHolderOrThrow(BuiltinDimensionTypes.OVERWORLD),
+                () -> InactiveProfiler.INSTANCE, false, false, 0, 0);
+    }
+
+    /**
+     * The built-in registries, plus the data driven registries the level itself needs.
+     */
+    protected static RegistryAccess createRegistryAccess() {
+        MappedRegistry<DimensionType> dimensionTypes = new MappedRegistry<>(Registries.DIMENSION_TYPE, Lifecycle.stable());
+        dimensionTypes.register(BuiltinDimensionTypes.OVERWORLD, new DimensionType(OptionalLong.empty(), true, false, false, true,
+                1.0, true, false, -64, 384, 384, BlockTags.INFINIBURN_OVERWORLD, BuiltinDimensionTypes.OVERWORLD_EFFECTS, 0.0F,
+                new DimensionType.MonsterSettings(false, true, UniformInt.of(0, 7), 0)), RegistrationInfo.BUILT_IN);
+        dimensionTypes.freeze();
+
+        //the level creates its damage sources on construction
+        MappedRegistry<DamageType> damageTypes = new MappedRegistry<>(Registries.DAMAGE_TYPE, Lifecycle.stable());
+        DamageTypes.bootstrap(new BootstrapContext<>() {
+            @Override
+            public Holder.Reference<DamageType> register(ResourceKey<DamageType> key, DamageType value, Lifecycle lifecycle) {
+                return damageTypes.register(key, value, RegistrationInfo.BUILT_IN);
+            }
+
+            @Override
+            public <S> HolderGetter<S> lookup(ResourceKey<? extends Registry<? extends S>> registryKey) {
+                throw new UnsupportedOperationException("Damage types do not look up other registries.");
+            }
+        });
+        damageTypes.freeze();
+
+        List<Registry<?>> registries = new ArrayList<>(BuiltInRegistries.REGISTRY.stream().toList());
+        registries.add(dimensionTypes);
+        registries.add(damageTypes);
+        return new RegistryAccess.ImmutableRegistryAccess(registries).freeze();
+    }
+
+    public void setBlockState(BlockPos pos, BlockState state) {
+        this.blockStates.put(pos.asLong(), state);
+    }
+
+    public void setBlockEntity(BlockEntity blockEntity) {
+        this.blockEntities.put(blockEntity.getBlockPos().asLong(), blockEntity);
+        blockEntity.setLevel(this);
+    }
+
+    public void setGameTime(long gameTime) {
+        this.gameTime = gameTime;
+    }
+
+    @Override
+    public long getGameTime() {
+        return this.gameTime;
+    }
+
+    @Override
+    public BlockState getBlockState(BlockPos pos) {
+        return this.blockStates.getOrDefault(pos.asLong(), Blocks.AIR.defaultBlockState());
+    }
+
+    @Override
+    public FluidState getFluidState(BlockPos pos) {
+        return this.getBlockState(pos).getFluidState();
+    }
+
+    @Nullable
+    @Override
+    public BlockEntity getBlockEntity(BlockPos pos) {
+        return this.blockEntities.get(pos.asLong());
+    }
+
+    @Override
+    public boolean isLoaded(BlockPos pos) {
+        return !this.isOutsideBuildHeight(pos);
+    }
+
+    @Override
+    public void blockEntityChanged(BlockPos pos) {
+        //nothing to save
+    }
+
+    @Override
+    public void updateNeighbourForOutputSignal(BlockPos pos, Block block) {
+        //no neighbours that react to comparator output
+    }
+
+    @Override
+    public void sendBlockUpdated(BlockPos pos, BlockState oldState, BlockState newState, int flags) {
+        //no clients
+    }
+
+    @Override
+    public void playSeededSound(@Nullable Player player, double x, double y, double z, Holder<SoundEvent> sound, SoundSource source, float volume, float pitch, long seed) {
+    }
+
+    @Override
+    public void playSeededSound(@Nullable Player player, Entity entity, Holder<SoundEvent> sound, SoundSource source, float volume, float pitch, long seed) {
+    }
+
+    @Override
+    public void levelEvent(@Nullable Player player, int type, BlockPos pos, int data) {
+    }
+
+    @Override
+    public void gameEvent(Holder<GameEvent> gameEvent, Vec3 pos, GameEvent.Context context) {
+    }
+
+    @Override
+    public void destroyBlockProgress(int breakerId, BlockPos pos, int progress) {
+    }
+
+    @Override
+    public String gatherChunkSourceStats() {
+        return "in memory";
+    }
+
+    @Nullable
+    @Override
+    public Entity getEntity(int id) {
+        return null;
+    }
+
+    @Override
+    public List<ServerPlayer> players() {
+        return List.of();
+    }
+
+    @Override
+    protected LevelEntityGetter<Entity> getEntities() {
+        throw new UnsupportedOperationException("The in-memory level has no entities.");
+    }
+
+    @Override
+    public TickRateManager tickRateManager() {
+        throw new UnsupportedOperationException("The in-memory level does not tick.");
+    }
+
+    @Override
+    public LevelTickAccess<Block> getBlockTicks() {
+        return BlackholeTickAccess.emptyLevelList();
+    }
+
+    @Override
+    public LevelTickAccess<Fluid> getFluidTicks() {
+        return BlackholeTickAccess.emptyLevelList();
+    }
+
+    @Override
+    public ChunkSource getChunkSource() {
+        throw new UnsupportedOperationException("The in-memory level has no chunks.");
+    }
+
+    @Nullable
+    @Override
+    public MapItemSavedData getMapData(MapId mapId) {
+        return null;
+    }
+
+    @Override
+    public void setMapData(MapId mapId, MapItemSavedData mapData) {
+    }
+
+    @Override
+    public MapId getFreeMapId() {
+        throw new UnsupportedOperationException("The in-memory level has no maps.");
+    }
+
+    @Override
+    public Scoreboard getScoreboard() {
+        throw new UnsupportedOperationException("The in-memory level has no scoreboard.");
+    }
+
+    @Override
+    public RecipeManager getRecipeManager() {
+        throw new UnsupportedOperationException("The in-memory level has no recipe manager.");
+    }
+
+    @Override
+    public PotionBrewing potionBrewing() {
+        throw new UnsupportedOperationException("The in-memory level has no potion brewing.");
+    }
+
+    @Override
+    public float getShade(Direction direction, boolean shade) {
+        return 1.0F;
+    }
+
+    @Override
+    public Holder<Biome> getUncachedNoiseBiome(int x, int y, int z) {
+        throw new UnsupportedOperationException("The in-memory level has no biomes.");
+    }
+
+    @Override
+    public FeatureFlagSet enabledFeatures() {
+        return FeatureFlags.DEFAULT_FLAGS;
+    }
+
+    public float getDayTimeFraction() {
+        return 0.0F;
+    }
+
+    public float getDayTimePerTick() {
+        return -1.0F;
+    }
+
+    public void setDayTimeFraction(float dayTimeFraction) {
+    }
+
+    public void setDayTimePerTick(float dayTimePerTick) {
+    }
+
+    protected static class LevelData implements WritableLevelData {
+        protected final GameRules gameRules = new GameRules();
+        protected BlockPos spawnPos = BlockPos.ZERO;
+        protected float spawnAngle;
+        protected boolean raining;
+
+        @Override
+        public void setSpawn(BlockPos spawnPos, float spawnAngle) {
+            this.spawnPos = spawnPos.immutable();
+            this.spawnAngle = spawnAngle;
+        }
+
+        @Override
+        public BlockPos getSpawnPos() {
+            return this.spawnPos;
+        }
+
+        @Override
+        public float getSpawnAngle() {
+            return this.spawnAngle;
+        }
+
+        @Override
+        public long getGameTime() {
+            return 0;
+        }
+
+        @Override
+        public long getDayTime() {
+            return 0;
+        }
+
+        @Override
+        public boolean isThundering() {
+            return false;
+        }
+
+        @Override
+        public boolean isRaining() {
+            return this.raining;
+        }
+
+        @Override
+        public void setRaining(boolean raining) {
+            this.raining = raining;
+        }
+
+        @Override
+        public boolean isHardcore() {
+            return false;
+        }
+
+        @Override
+        public GameRules getGameRules() {
+            return this.gameRules;
+        }
+
+        @Override
+        public Difficulty getDifficulty() {
+            return Difficulty.NORMAL;
+        }
+
+        @Override
+        public boolean isDifficultyLocked() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * MIT License
+ *
+ * Copyright 2024 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.klikli_dev.occultism.common.ritual;
+
+import net.minecraft.SharedConstants;
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.Bootstrap;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.Rotation;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks checking pentacles against the blocks around a golden bowl, on an in-memory
+ * {@link PentacleDiagnosis.Snapshot} instead of a loaded level.
+ * The pentacles are generated from vanilla blocks, in size and count similar to the ritual pentacles.
+ * Identifying and validating rituals on real pentacles is covered by {@link RitualActivationBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PentacleValidationBenchmark {
+
+    /**
+     * Pentacles span up to 17x17 blocks around the golden bowl.
+     */
+    protected static final int RADIUS = 8;
+    protected static final int PENTACLE_COUNT = 19;
+    protected static final int BLOCKS_PER_PENTACLE = 60;
+    protected static final Block[] BLOCKS = {
+            Blocks.GOLD_BLOCK, Blocks.IRON_BLOCK, Blocks.SKELETON_SKULL, Blocks.CANDLE, Blocks.REDSTONE_WIRE,
+            Blocks.LAPIS_BLOCK, Blocks.EMERALD_BLOCK, Blocks.DIAMOND_BLOCK, Blocks.AMETHYST_CLUSTER, Blocks.OBSIDIAN
+    };
+
+    protected final BlockPos goldenBowlPosition = new BlockPos(0, 64, 0);
+    protected List<PentacleFingerprint> fingerprints;
+    protected PentacleDiagnosis.Snapshot complete;
+    protected PentacleDiagnosis.Snapshot incomplete;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        SharedConstants.tryDetectVersion();
+        Bootstrap.bootStrap();
+
+        var random = new Random(42);
+        List<List<PentacleFingerprint.Expected>> layouts = new ArrayList<>();
+        this.fingerprints = new ArrayList<>();
+        for (int i = 0; i < PENTACLE_COUNT; i++) {
+            //the golden bowl and some surrounding positions are the same for all pentacles, as the chalk rings are
+            List<PentacleFingerprint.Expected> layout = new ArrayList<>();
+            Set<BlockPos> used = new HashSet<>();
+            for (int j = 0; j < BLOCKS_PER_PENTACLE; j++) {
+                BlockPos offset = j < 8 ? new BlockPos(j - 4, 0, 0) :
+                        new BlockPos(random.nextInt(2 * RADIUS + 1) - RADIUS, random.nextInt(2), random.nextInt(2 * RADIUS + 1) - RADIUS);
+                if (!used.add(offset))
+                    continue;
+                Block block = j < 8 ? BLOCKS[0] : BLOCKS[random.nextInt(BLOCKS.length)];
+                layout.add(new PentacleFingerprint.Expected(offset, (level, pos, state) -> state.is(block), block, true));
+            }
+            layouts.add(layout);
+
+            List<List<PentacleFingerprint.Expected>> expectedByRotation = new ArrayList<>();
+            for (Rotation rotation : Rotation.values()) {
+                expectedByRotation.add(layout.stream()
+                        .map(e -> new PentacleFingerprint.Expected(e.offset().rotate(rotation), e.predicate(), e.block(), e.informative()))
+                        .toList());
+            }
+            this.fingerprints.add(new PentacleFingerprint(null, expectedByRotation));
+        }
+        PentacleFingerprint.selectSamples(this.fingerprints);
+
+        //the last pentacle is built in the world, so diagnosing has to go through all others first
+        var built = layouts.get(PENTACLE_COUNT - 1);
+        this.complete = new PentacleDiagnosis.Snapshot(-64, 384);
+        this.incomplete = new PentacleDiagnosis.Snapshot(-64, 384);
+        for (int i = 0; i < built.size(); i++) {
+            var expected = built.get(i);
+            this.complete.setBlockState(this.goldenBowlPosition.offset(expected.offset()), expected.block().defaultBlockState());
+            //a player forgot a few blocks
+            if (i % 10 != 0)
+                this.incomplete.setBlockState(this.goldenBowlPosition.offset(expected.offset()), expected.block().defaultBlockState());
+        }
+    }
+
+    @Benchmark
+    public PentacleDiagnosis.Result diagnoseComplete() {
+        return PentacleDiagnosis.diagnose(this.complete, this.goldenBowlPosition, this.fingerprints);
+    }
+
+    @Benchmark
+    public PentacleDiagnosis.Result diagnoseIncomplete() {
+        return PentacleDiagnosis.diagnose(this.incomplete, this.goldenBowlPosition, this.fingerprints);
+    }
+}
@@ -0,0 +1,393 @@
+/*
+ * MIT License
+ *
+ * Copyright 2024 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.klikli_dev.occultism.common.ritual;
+
+import com.electronwill.nightconfig.core.CommentedConfig;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.klikli_dev.modonomicon.api.multiblock.Multiblock;
+import com.klikli_dev.modonomicon.data.LoaderRegistry;
+import com.klikli_dev.modonomicon.multiblock.matcher.AnyMatcher;
+import com.klikli_dev.occultism.Occultism;
+import com.klikli_dev.occultism.common.blockentity.GoldenSacrificialBowlBlockEntity;
+import com.klikli_dev.occultism.common.blockentity.SacrificialBowlBlockEntity;
+import com.klikli_dev.occultism.common.misc.SacrificialBowlRegistry;
+import com.klikli_dev.occultism.crafting.recipe.RitualRecipe;
+import net.minecraft.SharedConstants;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.NonNullList;
+import net.minecraft.core.Registry;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.Bootstrap;
+import net.minecraft.world.item.DyeColor;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.crafting.Ingredient;
+import net.minecraft.world.item.crafting.RecipeHolder;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.Rotation;
+import net.minecraft.world.level.block.entity.BlockEntityType;
+import net.neoforged.fml.config.IConfigSpec;
+import org.openjdk.jmh.annotations.*;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks identifying the ritual started at a golden bowl, and validating a running ritual each tick, on an
+ * {@link InMemoryLevel} with a real pentacle and sacrificial bowls.
+ * <p>
+ * The pentacles and recipes are read from the generated data. Occultism blocks, items and tags are not registered
+ * without a running game, so they are replaced by vanilla blocks and items, one distinct stand-in per id.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RitualActivationBenchmark {
+
+    protected static final String PENTACLE_FOLDER = "data/occultism/modonomicon/multiblocks";
+    protected static final String RECIPE_FOLDER = "data/occultism/recipe/ritual";
+
+    protected final BlockPos goldenBowlPosition = new BlockPos(0, 64, 0);
+    protected InMemoryLevel level;
+    protected StandIns<Block> blockStandIns;
+    protected StandIns<Item> itemStandIns;
+    protected Map<ResourceLocation, Multiblock> pentacles;
+    protected List<RecipeHolder<RitualRecipe>> recipes;
+    protected RitualRecipeIndex index;
+    protected RecipeHolder<RitualRecipe> builtRecipe;
+    protected ItemStack activationItem;
+    protected BenchmarkGoldenSacrificialBowl goldenBowl;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException, URISyntaxException {
+        SharedConstants.tryDetectVersion();
+        Bootstrap.bootStrap();
+        LoaderRegistry.registerLoaders();
+        loadDefaultServerConfig();
+        this.level = new InMemoryLevel();
+
+        var pentacleJson = readJsonFolder(PENTACLE_FOLDER);
+        var recipeJson = readJsonFolder(RECIPE_FOLDER);
+        this.blockStandIns = new StandIns<>(BuiltInRegistries.BLOCK, List.of("wool", "concrete", "terracotta"), pentacleJson.values());
+        this.itemStandIns = new StandIns<>(BuiltInRegistries.ITEM, List.of("dye", "carpet", "banner", "bed", "candle", "stained_glass_pane", "concrete_powder", "glazed_terracotta"), recipeJson.values());
+
+        this.pentacles = new LinkedHashMap<>();
+        pentacleJson.forEach((name, json) -> this.pentacles.put(ResourceLocation.fromNamespaceAndPath(Occultism.MODID, name), this.loadPentacle(json)));
+        this.recipes = new ArrayList<>();
+        recipeJson.forEach((name, json) -> this.recipes.add(this.loadRecipe(name, json)));
+        this.index = new RitualRecipeIndex(null, this.recipes);
+
+        //the most common activation item has the most candidates, and the last of them is found last by a linear scan
+        Map<Item, List<RecipeHolder<RitualRecipe>>> byActivationItem = new LinkedHashMap<>();
+        for (var recipe : this.recipes) {
+            byActivationItem.computeIfAbsent(recipe.value().getActivationItem().getItems()[0].getItem(), item -> new ArrayList<>()).add(recipe);
+        }
+        var candidates = byActivationItem.values().stream().max(Comparator.comparingInt(List::size)).orElseThrow();
+        this.builtRecipe = candidates.get(candidates.size() - 1);
+        this.activationItem = this.builtRecipe.value().getActivationItem().getItems()[0].copy();
+        this.build(this.builtRecipe.value());
+
+        this.goldenBowl = new BenchmarkGoldenSacrificialBowl(this.goldenBowlPosition);
+        this.level.setBlockEntity(this.goldenBowl);
+        this.goldenBowl.currentRitualRecipe = this.builtRecipe;
+        this.goldenBowl.remainingAdditionalIngredients = new ArrayList<>(this.builtRecipe.value().getIngredients());
+        if (!this.goldenBowl.validate(this.activationItem, true))
+            throw new IllegalStateException("The ritual built for " + this.builtRecipe.id() + " is not valid.");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        SacrificialBowlRegistry.remove(this.level);
+    }
+
+    /**
+     * Ritual activation as done when the activation item is put into the golden bowl.
+     */
+    @Benchmark
+    @Nullable
+    public RecipeHolder<RitualRecipe> identify() {
+        return this.index.identify(this.level, this.goldenBowlPosition, this.activationItem);
+    }
+
+    /**
+     * Ritual activation as done before the recipe index, checking each recipe in turn.
+     */
+    @Benchmark
+    @Nullable
+    public RecipeHolder<RitualRecipe> identifyLinear() {
+        for (var recipe : this.recipes) {
+            if (recipe.value().getRitual().identify(this.level, this.goldenBowlPosition, this.activationItem))
+                return recipe;
+        }
+        return null;
+    }
+
+    /**
+     * The check a running ritual does each tick while nothing in its footprint changed.
+     */
+    @Benchmark
+    public boolean validateRunningRitual() {
+        return this.goldenBowl.validate(this.activationItem, false);
+    }
+
+    /**
+     * The check a running ritual does after a block in its footprint changed, or the revalidation interval passed.
+     */
+    @Benchmark
+    public boolean revalidateRunningRitual() {
+        return this.goldenBowl.validate(this.activationItem, true);
+    }
+
+    /**
+     * The ritual code reads the server config, which is only loaded in a running game, so its defaults are used.
+     */
+    protected static void loadDefaultServerConfig() {
+        var config = CommentedConfig.inMemory();
+        Occultism.SERVER_CONFIG.spec.correct(config);
+        Occultism.SERVER_CONFIG.spec.acceptConfig(new IConfigSpec.ILoadedConfig() {
+            @Override
+            public CommentedConfig config() {
+                return config;
+            }
+
+            @Override
+            public void save() {
+            }
+        });
+    }
+
+    /**
+     * Reads all json files in the given folder on the classpath, from the resource directory or the jar.
+     *
+     * @return the json objects by file name without extension, sorted by name.
+     */
+    protected static Map<String, JsonObject> readJsonFolder(String folder) throws IOException, URISyntaxException {
+        var url = RitualActivationBenchmark.class.getClassLoader().getResource(folder);
+        if (url == null)
+            throw new IllegalStateException("Missing " + folder + " on the classpath, run the data generators first.");
+
+        var uri = url.toURI();
+        if (uri.getScheme().equals("jar")) {
+            try (var fileSystem = FileSystems.newFileSystem(uri, Map.of())) {
+                return readJsonFolder(fileSystem.provider().getPath(uri));
+            }
+        }
+        return readJsonFolder(Path.of(uri));
+    }
+
+    protected static Map<String, JsonObject> readJsonFolder(Path folder) throws IOException {
+        Map<String, JsonObject> result = new TreeMap<>();
+        try (var files = Files.list(folder)) {
+            for (var file : files.toList()) {
+                var name = file.getFileName().toString();
+                if (name.endsWith(".json"))
+                    result.put(name.substring(0, name.length() - ".json".length()), JsonParser.parseString(Files.readString(file)).getAsJsonObject());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Loads a pentacle with all blocks and tags outside of vanilla replaced by stand-in blocks.
+     */
+    protected Multiblock loadPentacle(JsonObject json) {
+        var mapping = new JsonObject();
+        for (var entry : json.getAsJsonObject("mapping").entrySet()) {
+            var matcher = entry.getValue().getAsJsonObject();
+            var standIn = new JsonObject();
+            if (matcher.get("type").getAsString().equals("modonomicon:display")) {
+                //display only matchers accept any block, only the displayed block matters
+                standIn.addProperty("type", "modonomicon:display");
+                standIn.addProperty("display", "minecraft:stone");
+            } else {
+                var id = matcher.has("tag") ? matcher.get("tag").getAsString() : matcher.get("block").getAsString();
+                standIn.addProperty("type", "modonomicon:block");
+                standIn.addProperty("block", BuiltInRegistries.BLOCK.getKey(this.blockStandIns.get(id)).toString());
+            }
+            mapping.add(entry.getKey(), standIn);
+        }
+        json.add("mapping", mapping);
+
+        var type = ResourceLocation.parse(json.get("type").getAsString());
+        return LoaderRegistry.getMultiblockJsonLoader(type).fromJson(json, this.level.registryAccess());
+    }
+
+    /**
+     * Loads a ritual recipe with all items and tags outside of vanilla replaced by stand-in items.
+     * Only the parts used to identify and validate the ritual are loaded.
+     */
+    protected RecipeHolder<RitualRecipe> loadRecipe(String name, JsonObject json) {
+        NonNullList<Ingredient> ingredients = NonNullList.create();
+        if (json.has("ingredients")) {
+            for (var ingredient : json.getAsJsonArray("ingredients")) {
+                ingredients.add(this.loadIngredient(ingredient));
+            }
+        }
+
+        var pentacleId = ResourceLocation.parse(json.get("pentacle_id").getAsString());
+        var recipe = new BenchmarkRitualRecipe(this.pentacles.get(pentacleId), pentacleId,
+                ResourceLocation.parse(json.get("ritual_type").getAsString()), this.loadIngredient(json.get("activation_item")),
+                ingredients, json.has("duration") ? json.get("duration").getAsInt() : 0);
+        return new RecipeHolder<>(ResourceLocation.fromNamespaceAndPath(Occultism.MODID, "ritual/" + name), recipe);
+    }
+
+    protected Ingredient loadIngredient(JsonElement json) {
+        var ingredient = json.getAsJsonObject();
+        var id = ingredient.has("tag") ? "#" + ingredient.get("tag").getAsString() : ingredient.get("item").getAsString();
+        return Ingredient.of(this.itemStandIns.get(id));
+    }
+
+    /**
+     * Builds the pentacle of the given recipe around the golden bowl, and puts its ingredients on sacrificial bowls.
+     */
+    protected void build(RitualRecipe recipe) {
+        List<BlockPos> freePositions = new ArrayList<>();
+        for (var result : recipe.getPentacle().simulate(this.level, this.goldenBowlPosition, Rotation.NONE, false, false).getSecond()) {
+            var pos = result.getWorldPosition().immutable();
+            var matcher = result.getStateMatcher();
+            if (!matcher.getType().equals(AnyMatcher.TYPE)) {
+                this.level.setBlockState(pos, matcher.getDisplayedState(0));
+            } else if (pos.getY() == this.goldenBowlPosition.getY() &&
+                    Math.abs(pos.getX() - this.goldenBowlPosition.getX()) <= Ritual.SACRIFICIAL_BOWL_RANGE &&
+                    Math.abs(pos.getZ() - this.goldenBowlPosition.getZ()) <= Ritual.SACRIFICIAL_BOWL_RANGE) {
+                freePositions.add(pos);
+            }
+        }
+
+        var ingredients = recipe.getIngredients();
+        if (freePositions.size() < ingredients.size())
+            throw new IllegalStateException("Not enough free positions for sacrificial bowls in pentacle " + recipe.getPentacleId());
+
+        for (int i = 0; i < ingredients.size(); i++) {
+            var bowl = new SacrificialBowlBlockEntity(BlockEntityType.CHEST, freePositions.get(i), Blocks.AIR.defaultBlockState());
+            this.level.setBlockEntity(bowl);
+            SacrificialBowlRegistry.register(bowl);
+            bowl.itemStackHandler.setStackInSlot(0, ingredients.get(i).getItems()[0].copy());
+        }
+    }
+
+    /**
+     * Assigns each id outside of vanilla a distinct vanilla stand-in, skipping vanilla entries the data uses itself.
+     */
+    protected static class StandIns<T> {
+        protected final Registry<T> registry;
+        protected final Deque<T> unused = new ArrayDeque<>();
+        protected final Map<String, T> standIns = new HashMap<>();
+
+        public StandIns(Registry<T> registry, List<String> suffixes, Collection<JsonObject> data) {
+            this.registry = registry;
+
+            Set<String> used = new HashSet<>();
+            for (var json : data) {
+                collectStrings(json, used);
+            }
+            for (var suffix : suffixes) {
+                for (var color : DyeColor.values()) {
+                    var id = ResourceLocation.withDefaultNamespace(color.getName() + "_" + suffix);
+                    if (!used.contains(id.toString()))
+                        registry.getOptional(id).ifPresent(this.unused::add);
+                }
+            }
+        }
+
+        protected static void collectStrings(JsonElement json, Set<String> strings) {
+            if (json.isJsonObject()) {
+                json.getAsJsonObject().entrySet().forEach(entry -> collectStrings(entry.getValue(), strings));
+            } else if (json.isJsonArray()) {
+                json.getAsJsonArray().forEach(element -> collectStrings(element, strings));
+            } else if (json.isJsonPrimitive()) {
+                strings.add(json.getAsString());
+            }
+        }
+
+        /**
+         * @param id a registry id, or a tag id prefixed with #.
+         */
+        public T get(String id) {
+            if (id.startsWith(ResourceLocation.DEFAULT_NAMESPACE + ":"))
+                return this.registry.getOptional(ResourceLocation.parse(id)).orElseThrow(() -> new IllegalArgumentException("Unknown id " + id));
+
+            return this.standIns.computeIfAbsent(id, key -> {
+                if (this.unused.isEmpty())
+                    throw new IllegalStateException("No stand-in left for " + key);
+                return this.unused.poll();
+            });
+        }
+    }
+
+    /**
+     * A ritual recipe with a pentacle that is not registered with Modonomicon, and a plain ritual instead of the
+     * registered ritual type.
+     */
+    protected static class BenchmarkRitualRecipe extends RitualRecipe {
+        protected final Multiblock pentacle;
+        protected final Ritual ritual;
+
+        public BenchmarkRitualRecipe(Multiblock pentacle, ResourceLocation pentacleId, ResourceLocation ritualType,
+                                     Ingredient activationItem, NonNullList<Ingredient> ingredients, int duration) {
+            super(pentacleId, ritualType, ItemStack.EMPTY, ItemStack.EMPTY, null, null, null, activationItem, ingredients,
+                    duration, -1, 0, null, null, null, null);
+            this.pentacle = pentacle;
+            this.ritual = new Ritual(this) {
+            };
+        }
+
+        @Override
+        public Multiblock getPentacle() {
+            return this.pentacle;
+        }
+
+        @Override
+        public Ritual getRitual() {
+            return this.ritual;
+        }
+    }
+
+    /**
+     * Exposes the per tick validation of the running ritual.
+     */
+    protected static class BenchmarkGoldenSacrificialBowl extends GoldenSacrificialBowlBlockEntity {
+
+        public BenchmarkGoldenSacrificialBowl(BlockPos pos) {
+            super(BlockEntityType.CHEST, pos, Blocks.AIR.defaultBlockState());
+        }
+
+        /**
+         * @param full true to force a full validation as after a block change in the ritual footprint.
+         */
+        public boolean validate(ItemStack activationItem, boolean full) {
+            if (full)
+                this.ritualFootprint = null;
+            return this.isCurrentRitualValid(this.currentRitualRecipe, activationItem);
+        }
+    }
+}
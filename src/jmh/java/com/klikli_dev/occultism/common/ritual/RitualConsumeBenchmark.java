@@ -0,0 +1,106 @@
+/*
+ * MIT License
+ *
+ * Copyright 2024 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.klikli_dev.occultism.common.ritual;
+
+import net.minecraft.SharedConstants;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.server.Bootstrap;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.crafting.Ingredient;
+import net.neoforged.neoforge.items.ItemStackHandler;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks consuming ritual ingredients from sacrificial bowls: matching the remaining ingredients to the bowls and
+ * extracting the ones due. Uses plain bowl inventories, as the bowl block entities and the particle and sound effects
+ * of consumption need a running server.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RitualConsumeBenchmark {
+
+    @Param({"4", "8", "12"})
+    public int ingredientCount;
+
+    protected List<Item> registeredItems;
+    protected List<Ingredient> ingredients;
+    protected List<ItemStackHandler> bowls;
+    protected List<Ingredient> remaining;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        SharedConstants.tryDetectVersion();
+        Bootstrap.bootStrap();
+
+        //a few more bowls than ingredients, as in most pentacles
+        this.registeredItems = BuiltInRegistries.ITEM.stream().skip(1).limit(this.ingredientCount + 2).toList();
+        this.ingredients = new ArrayList<>();
+        //the first ingredient accepts every item, like a broad tag, so it must not take the items the others need
+        this.ingredients.add(Ingredient.of(this.registeredItems.toArray(Item[]::new)));
+        for (int i = 1; i < this.ingredientCount; i++) {
+            this.ingredients.add(Ingredient.of(this.registeredItems.get(i)));
+        }
+
+        this.bowls = new ArrayList<>();
+        for (int i = 0; i < this.registeredItems.size(); i++) {
+            this.bowls.add(new ItemStackHandler(1));
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void fillBowls() {
+        for (int i = 0; i < this.bowls.size(); i++) {
+            this.bowls.get(i).setStackInSlot(0, new ItemStack(this.registeredItems.get(i)));
+        }
+        this.remaining = new ArrayList<>(this.ingredients);
+    }
+
+    /**
+     * Consumes half of the ingredients in one ritual tick, as happens when the server catches up.
+     */
+    @Benchmark
+    public List<ItemStack> consumeHalf() {
+        List<ItemStack> consumed = new ArrayList<>();
+        int[] ingredientToBowl = Ritual.matchIngredientsToBowls(this.remaining, this.bowls);
+        for (int i = 0; i < this.ingredientCount / 2; i++) {
+            int bowl = ingredientToBowl[i];
+            if (bowl != -1)
+                consumed.add(Ritual.extractIngredient(this.bowls.get(bowl), this.remaining.get(i)));
+        }
+        return consumed;
+    }
+
+    /**
+     * Consumes a single ingredient, as happens on most ritual ticks that consume anything.
+     */
+    @Benchmark
+    public ItemStack consumeOne() {
+        int[] ingredientToBowl = Ritual.matchIngredientsToBowls(this.remaining, this.bowls);
+        return Ritual.extractIngredient(this.bowls.get(ingredientToBowl[0]), this.remaining.get(0));
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * MIT License
+ *
+ * Copyright 2024 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.klikli_dev.occultism.common.ritual;
+
+import net.minecraft.SharedConstants;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.server.Bootstrap;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.crafting.Ingredient;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the remembered ingredient matching a running ritual performs on every validation,
+ * against matching the ingredients from scratch as activation does.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RitualIngredientMatcherBenchmark {
+
+    @Param({"4", "8", "12"})
+    public int ingredientCount;
+
+    protected List<Ingredient> ingredients;
+    protected List<Ingredient> remainingIngredients;
+    protected List<ItemStack> items;
+    protected List<ItemStack> changedItems;
+    protected RitualIngredientMatcher matcher;
+    protected int tick;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        SharedConstants.tryDetectVersion();
+        Bootstrap.bootStrap();
+
+        List<Item> registeredItems = BuiltInRegistries.ITEM.stream().skip(1).limit(this.ingredientCount + 1).toList();
+        this.ingredients = new ArrayList<>();
+        this.items = new ArrayList<>();
+        for (int i = 0; i < this.ingredientCount; i++) {
+            //every ingredient accepts two items, like small tags do
+            this.ingredients.add(Ingredient.of(registeredItems.get(i), registeredItems.get(i + 1)));
+            this.items.add(new ItemStack(registeredItems.get(i)));
+        }
+        this.remainingIngredients = this.ingredients.subList(this.ingredientCount / 2, this.ingredientCount);
+
+        //a bowl was emptied and refilled with a different item
+        this.changedItems = new ArrayList<>(this.items);
+        this.changedItems.set(0, new ItemStack(registeredItems.get(this.ingredientCount)));
+
+        this.matcher = new RitualIngredientMatcher(this.ingredients);
+    }
+
+    @Benchmark
+    public int[] matchUncached() {
+        return RitualIngredientMatcher.match(this.ingredients, this.items);
+    }
+
+    @Benchmark
+    public boolean matchesUnchangedBowls() {
+        return this.matcher.matches(this.remainingIngredients, this.items);
+    }
+
+    @Benchmark
+    public boolean matchesChangingBowls() {
+        return this.matcher.matches(this.remainingIngredients, (this.tick++ & 1) == 0 ? this.items : this.changedItems);
+    }
+}
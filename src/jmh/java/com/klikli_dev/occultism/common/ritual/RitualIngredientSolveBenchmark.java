@@ -0,0 +1,84 @@
+/*
+ * MIT License
+ *
+ * Copyright 2024 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.klikli_dev.occultism.common.ritual;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the fail-fast ingredient to item matching that validates rituals.
+ * Works on precomputed acceptance sets, so no game bootstrap is needed.
+ * Consumption matches without failing fast, see {@link RitualConsumeBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RitualIngredientSolveBenchmark {
+
+    /**
+     * Ritual recipes use up to 12 additional ingredients.
+     */
+    @Param({"4", "8", "12"})
+    public int ingredientCount;
+
+    /**
+     * Chance that an ingredient also accepts the item of another ingredient, as tag ingredients do.
+     */
+    @Param({"0.0", "0.3"})
+    public double overlap;
+
+    protected BitSet[] accepted;
+    protected BitSet[] remaining;
+    protected int itemCount;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        var random = new Random(42);
+        //a few more bowls than ingredients, as in most pentacles
+        this.itemCount = this.ingredientCount + 2;
+        this.accepted = new BitSet[this.ingredientCount];
+        for (int i = 0; i < this.ingredientCount; i++) {
+            this.accepted[i] = new BitSet(this.itemCount);
+            this.accepted[i].set(i);
+            for (int j = 0; j < this.itemCount; j++) {
+                if (random.nextDouble() < this.overlap)
+                    this.accepted[i].set(j);
+            }
+        }
+        //halfway through the ritual only the second half of the ingredients is left
+        this.remaining = Arrays.copyOfRange(this.accepted, this.ingredientCount / 2, this.ingredientCount);
+    }
+
+    @Benchmark
+    public int[] matchAll() {
+        return RitualIngredientMatcher.solve(this.accepted, this.itemCount, true);
+    }
+
+    @Benchmark
+    public int[] matchRemaining() {
+        return RitualIngredientMatcher.solve(this.remaining, this.itemCount, true);
+    }
+}
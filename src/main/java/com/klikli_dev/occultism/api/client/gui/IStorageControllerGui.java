@@ -30,7 +30,31 @@ import java.util.List;
 
 public interface IStorageControllerGui {
     //region Getter / Setter
-    void setStacks(List<ItemStack> stacks);
+    /**
+     * Replaces all stacks with the given full snapshot.
+     *
+     * @param stacks  all stacks in the storage controller.
+     * @param version the storage version of the snapshot.
+     */
+    void setStacks(List<ItemStack> stacks, long version);
+
+    /**
+     * Applies a delta to the current stacks.
+     *
+     * @param changedStacks the stacks that were added or changed count, with their new count.
+     * @param removedStacks the stacks that were removed entirely.
+     * @param version       the storage version after applying the delta.
+     */
+    void updateStacks(List<ItemStack> changedStacks, List<ItemStack> removedStacks, long version);
+
+    /**
+     * Sets the currently displayed page, if the gui lets the server search and sort.
+     *
+     * @param stacks       the stacks on the page.
+     * @param totalMatches the total amount of stacks matching the search.
+     * @param offset       the index of the first stack on the page.
+     */
+    void setStorageViewPage(List<ItemStack> stacks, int totalMatches, int offset);
 
     ClientStorageCache getClientStorageCache();
 
@@ -25,9 +25,15 @@ package com.klikli_dev.occultism.api.common.blockentity;
 import com.klikli_dev.occultism.api.common.container.IItemStackComparator;
 import com.klikli_dev.occultism.api.common.data.GlobalBlockPos;
 import com.klikli_dev.occultism.api.common.data.MachineReference;
+import com.klikli_dev.occultism.api.common.data.SortDirection;
+import com.klikli_dev.occultism.api.common.data.SortType;
+import com.klikli_dev.occultism.common.misc.ItemStackKey;
+import com.klikli_dev.occultism.common.misc.StorageTransaction;
+import com.klikli_dev.occultism.common.misc.StorageViewIndex;
 import com.klikli_dev.occultism.network.messages.MessageUpdateStacks;
 import net.minecraft.world.item.ItemStack;
 
+import javax.annotation.Nullable;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -51,6 +57,16 @@ public interface IStorageController {
      */
     MessageUpdateStacks getMessageUpdateStacks();
 
+    /**
+     * Gets a message to bring a client on the given storage version up to date.
+     * This is a delta containing only changed entries if possible, or a full snapshot if the client is too far behind.
+     *
+     * @param clientVersion the storage version the client was last synced to, -1 if it has not been synced yet.
+     * @return the stack update message, or null if the client is already up to date.
+     */
+    @Nullable
+    MessageUpdateStacks getMessageUpdateStacks(long clientVersion);
+
     /**
      * @return the max slots available in this storage controller.
      */
@@ -124,6 +140,29 @@ public interface IStorageController {
      */
     int insertStack(ItemStack stack, boolean simulate);
 
+    /**
+     * Applies all insertions and extractions of the given transaction at once.
+     * The operations are validated together against the storage limits, and either all or none are applied.
+     * Prefer this over repeated calls to {@link #insertStack(ItemStack, boolean)} and {@link #getItemStack(Predicate, int, boolean)}
+     * when moving multiple items, as it needs no simulation pass and notifies about content changes only once.
+     *
+     * @param transaction the operations to apply.
+     * @param simulate    true for simulation
+     * @return true if the transaction was (or would be) applied.
+     */
+    boolean commit(StorageTransaction transaction, boolean simulate);
+
+    /**
+     * Gets the key of the most common item in the storage controller fitting the comparator,
+     * that still has at least one item left after the operations already in the given transaction.
+     *
+     * @param comparator the comparator to match against.
+     * @param pending    the transaction whose operations to take into account, may be null.
+     * @return the matching key, or null if nothing matches.
+     */
+    @Nullable
+    ItemStackKey getMostCommonKey(Predicate<ItemStack> comparator, @Nullable StorageTransaction pending);
+
     /**
      * Gets a stack with the size 1 of the most common item in the storage controller fitting the comparator.
      *
@@ -151,6 +190,16 @@ public interface IStorageController {
      */
     int getAvailableAmount(IItemStackComparator comparator);
 
+    /**
+     * Gets a page of the contents, filtered by the storage gui search syntax and sorted, without sending all stacks.
+     *
+     * @param search        the search text as entered in the storage gui.
+     * @param offset        the index of the first matching stack to return.
+     * @param count         the maximum amount of stacks to return.
+     * @return the requested page and the total amount of matching stacks.
+     */
+    StorageViewIndex.Page getStorageViewPage(String search, SortType sortType, SortDirection sortDirection, int offset, int count);
+
     /**
      * Called when the contents of the storage controller change.
      */
@@ -25,6 +25,7 @@ package com.klikli_dev.occultism.api.common.container;
 import com.klikli_dev.occultism.api.common.blockentity.IStorageController;
 import com.klikli_dev.occultism.api.common.data.GlobalBlockPos;
 import com.klikli_dev.occultism.client.gui.storage.ClientStorageCache;
+import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.SimpleContainer;
 import net.minecraft.world.inventory.CraftingContainer;
 
@@ -58,6 +59,15 @@ public interface IStorageControllerContainer {
      */
     void updateOrderSlot(boolean force);
 
+    /**
+     * Sends the storage controller contents to the given player.
+     * Sends only the changes since the last sync if possible, and nothing if the player is up to date.
+     *
+     * @param player       the player to send to.
+     * @param fullSnapshot true to force a full snapshot, e.g. when the gui is opened.
+     */
+    void syncStacks(ServerPlayer player, boolean fullSnapshot);
+
     void setClientStorageCache(ClientStorageCache cache);
 
     ClientStorageCache getClientStorageCache();
@@ -22,28 +22,231 @@
 
 package com.klikli_dev.occultism.client.gui.storage;
 
+import com.klikli_dev.occultism.common.misc.ItemStackKey;
 import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
 import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.item.crafting.Ingredient;
 
+import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
 
 public class ClientStorageCache {
     private final Int2ObjectOpenHashMap<List<ItemStack>> entriesByItemId = new Int2ObjectOpenHashMap<>();
+    /**
+     * Maps the item type of each entry to the entry itself, so deltas can be applied in place.
+     */
+    private final Object2ObjectOpenHashMap<ItemStackKey, ItemStack> entriesByKey = new Object2ObjectOpenHashMap<>();
+    /**
+     * The search record of each entry, by entry instance.
+     */
+    private final Reference2ObjectOpenHashMap<ItemStack, StorageSearchRecord> searchRecords = new Reference2ObjectOpenHashMap<>();
+    /**
+     * All entries whose name contains a given three character sequence.
+     * Allows name searches to only check entries that can match, instead of all.
+     */
+    private final Object2ObjectOpenHashMap<String, ReferenceOpenHashSet<StorageSearchRecord>> nameTrigrams = new Object2ObjectOpenHashMap<>();
+    /**
+     * Incremented whenever entries are added or removed, count changes do not affect search results.
+     */
+    private int structureVersion;
+    @Nullable
+    private String lastSearch;
+    private int lastSearchStructureVersion;
+    private List<ItemStack> lastSearchResult = List.of();
     private List<ItemStack> stacks = new ArrayList<>();
     private boolean entriesByItemIdNeedsUpdate = true;
+    /**
+     * The storage version of our contents, -1 if we have not received a snapshot yet.
+     */
+    private long version = -1;
+    /**
+     * True if we requested a full snapshot and have not received it yet.
+     */
+    private boolean awaitingSnapshot;
 
     public List<ItemStack> stacks() {
         return this.stacks;
     }
 
-    public void update(List<ItemStack> stacks) {
-        this.stacks = stacks;
+    public long version() {
+        return this.version;
+    }
+
+    /**
+     * Replaces the contents with a full snapshot.
+     */
+    public void update(List<ItemStack> stacks, long version) {
+        this.stacks = new ArrayList<>(stacks);
+        this.version = version;
+        this.awaitingSnapshot = false;
+
+        this.entriesByKey.clear();
+        this.searchRecords.clear();
+        this.nameTrigrams.clear();
+        for (var stack : stacks) {
+            this.entriesByKey.put(new ItemStackKey(stack), stack);
+            this.addSearchRecord(stack);
+        }
 
         this.entriesByItemIdNeedsUpdate = true;
+        this.structureVersion++;
+    }
+
+    /**
+     * @return true if a delta based on the given version can be applied to our contents.
+     */
+    public boolean canApplyDelta(long baseVersion) {
+        return this.version >= 0 && this.version == baseVersion;
+    }
+
+    /**
+     * Marks that a full snapshot has been requested.
+     *
+     * @return true if no snapshot was requested yet, false if we are already waiting for one.
+     */
+    public boolean markAwaitingSnapshot() {
+        if (this.awaitingSnapshot)
+            return false;
+        this.awaitingSnapshot = true;
+        return true;
+    }
+
+    /**
+     * Applies a delta in place. Only call if {@link #canApplyDelta(long)} returned true.
+     *
+     * @param changedStacks the stacks that were added or changed count, with their new count.
+     * @param removedStacks the stacks that were removed entirely.
+     * @param version       the version after applying the delta.
+     */
+    public void applyDelta(List<ItemStack> changedStacks, List<ItemStack> removedStacks, long version) {
+        boolean structureChanged = false;
+
+        for (var stack : changedStacks) {
+            var existing = this.entriesByKey.get(new ItemStackKey(stack));
+            if (existing != null) {
+                //count changes do not affect the item id lookup, as that holds the same stack instances.
+                existing.setCount(stack.getCount());
+            } else {
+                this.entriesByKey.put(new ItemStackKey(stack), stack);
+                this.stacks.add(stack);
+                this.addSearchRecord(stack);
+                structureChanged = true;
+            }
+        }
+
+        if (!removedStacks.isEmpty()) {
+            var toRemove = new ReferenceOpenHashSet<ItemStack>(removedStacks.size());
+            for (var stack : removedStacks) {
+                var existing = this.entriesByKey.remove(new ItemStackKey(stack));
+                if (existing != null) {
+                    toRemove.add(existing);
+                    this.removeSearchRecord(existing);
+                }
+            }
+            if (!toRemove.isEmpty()) {
+                this.stacks.removeIf(toRemove::contains);
+                structureChanged = true;
+            }
+        }
+
+        this.version = version;
+
+        if (structureChanged) {
+            this.entriesByItemIdNeedsUpdate = true;
+            this.structureVersion++;
+        }
+    }
+
+    /**
+     * Gets the pre-computed search and sort keys for the given entry.
+     */
+    public StorageSearchRecord getSearchRecord(ItemStack stack) {
+        var record = this.searchRecords.get(stack);
+        //stacks that are not our entries get a throwaway record
+        return record != null ? record : new StorageSearchRecord(stack);
+    }
+
+    /**
+     * Gets all entries matching the search text, using the storage gui search syntax.
+     * If the search text extends the previous search, only the previous results are checked.
+     *
+     * @return the matching entries. Must not be modified.
+     */
+    public List<ItemStack> search(String searchText) {
+        String search = searchText.toLowerCase(Locale.ROOT);
+        if (search.isEmpty())
+            return this.stacks;
+
+        Collection<ItemStack> candidates;
+        if (this.lastSearch != null && this.lastSearchStructureVersion == this.structureVersion && search.startsWith(this.lastSearch)) {
+            //anything matching the longer search also matched the previous one, as all search modes are "contains" checks
+            candidates = this.lastSearchResult;
+        } else {
+            candidates = this.getNameCandidates(search);
+        }
+
+        List<ItemStack> result = new ArrayList<>();
+        for (var stack : candidates) {
+            if (this.getSearchRecord(stack).matches(search))
+                result.add(stack);
+        }
+
+        this.lastSearch = search;
+        this.lastSearchStructureVersion = this.structureVersion;
+        this.lastSearchResult = result;
+        return result;
+    }
+
+    /**
+     * Narrows down plain name searches via the trigram index.
+     */
+    private Collection<ItemStack> getNameCandidates(String search) {
+        if (search.length() < 3 || search.startsWith("@") || search.startsWith("#") || search.startsWith("$"))
+            return this.stacks;
+
+        //every trigram of the search must be in the name, so the rarest one is the smallest candidate set
+        ReferenceOpenHashSet<StorageSearchRecord> smallest = null;
+        for (int i = 0; i + 3 <= search.length(); i++) {
+            var records = this.nameTrigrams.get(search.substring(i, i + 3));
+            if (records == null)
+                return List.of();
+            if (smallest == null || records.size() < smallest.size())
+                smallest = records;
+        }
+
+        List<ItemStack> candidates = new ArrayList<>(smallest.size());
+        for (var record : smallest) {
+            candidates.add(record.stack);
+        }
+        return candidates;
+    }
+
+    private void addSearchRecord(ItemStack stack) {
+        var record = new StorageSearchRecord(stack);
+        this.searchRecords.put(stack, record);
+        for (int i = 0; i + 3 <= record.name.length(); i++) {
+            this.nameTrigrams.computeIfAbsent(record.name.substring(i, i + 3), k -> new ReferenceOpenHashSet<>()).add(record);
+        }
+    }
+
+    private void removeSearchRecord(ItemStack stack) {
+        var record = this.searchRecords.remove(stack);
+        if (record == null)
+            return;
+
+        for (int i = 0; i + 3 <= record.name.length(); i++) {
+            var trigram = record.name.substring(i, i + 3);
+            var records = this.nameTrigrams.get(trigram);
+            if (records != null && records.remove(record) && records.isEmpty())
+                this.nameTrigrams.remove(trigram);
+        }
     }
 
     public List<ItemStack> getByIngredient(Ingredient ingredient) {
@@ -22,7 +22,6 @@
 
 package com.klikli_dev.occultism.client.gui.storage;
 
-import com.google.common.base.Joiner;
 import com.google.common.collect.Lists;
 import com.klikli_dev.occultism.Occultism;
 import com.klikli_dev.occultism.OccultismConstants;
@@ -60,9 +59,7 @@ import net.minecraft.resources.ResourceLocation;
 import net.minecraft.world.Container;
 import net.minecraft.world.ContainerListener;
 import net.minecraft.world.entity.player.Inventory;
-import net.minecraft.world.item.Item;
 import net.minecraft.world.item.ItemStack;
-import net.minecraft.world.item.TooltipFlag;
 import net.minecraft.world.level.Level;
 import net.neoforged.neoforge.client.event.ScreenEvent;
 import org.apache.commons.lang3.StringUtils;
@@ -71,7 +68,7 @@ import java.awt.*;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Locale;
 
 public abstract class StorageControllerGuiBase<T extends StorageControllerContainerBase> extends AbstractContainerScreen<T> implements IStorageControllerGui, IStorageControllerGuiContainer, ContainerListener {
 
@@ -117,6 +114,21 @@ public abstract class StorageControllerGuiBase<T extends StorageControllerContai
     private List<ItemStack> cachedStacksToDisplay;
     private String cachedSearchString;
 
+    /**
+     * If true, the server searches and sorts, and we only receive the displayed page.
+     */
+    protected boolean serverSideView;
+    protected List<ItemStack> viewStacks = new ArrayList<>();
+    protected int viewTotalMatches;
+    /**
+     * True if the displayed page needs to be requested from the server.
+     */
+    protected boolean viewDirty = true;
+    /**
+     * True if a new page was received and the slots need to be rebuilt.
+     */
+    protected boolean viewChanged;
+
     public StorageControllerGuiBase(T container, Inventory playerInventory, Component name) {
         super(container, playerInventory, name);
         this.storageControllerContainer = container;
@@ -141,6 +153,8 @@ public abstract class StorageControllerGuiBase<T extends StorageControllerContai
 
         this.resetDisplayCaches();
 
+        this.serverSideView = Occultism.CLIENT_CONFIG.misc.storageServerSideView.get();
+
         Networking.sendToServer(new MessageRequestStacks());
     }
 
@@ -209,9 +223,27 @@ public abstract class StorageControllerGuiBase<T extends StorageControllerContai
     }
 
     @Override
-    public void setStacks(List<ItemStack> stacks) {
-        this.clientStorageCache.update(stacks);
+    public void setStacks(List<ItemStack> stacks, long version) {
+        this.clientStorageCache.update(stacks, version);
+        this.resetDisplayCaches();
+        this.viewDirty = true;
+    }
+
+    @Override
+    public void updateStacks(List<ItemStack> changedStacks, List<ItemStack> removedStacks, long version) {
+        this.clientStorageCache.applyDelta(changedStacks, removedStacks, version);
         this.resetDisplayCaches();
+        this.viewDirty = true;
+    }
+
+    @Override
+    public void setStorageViewPage(List<ItemStack> stacks, int totalMatches, int offset) {
+        if (offset != this.getViewOffset())
+            return; //outdated response, the player scrolled on in the meantime and the current page is already requested.
+
+        this.viewStacks = stacks;
+        this.viewTotalMatches = totalMatches;
+        this.viewChanged = true;
     }
 
     @Override
@@ -277,6 +309,8 @@ public abstract class StorageControllerGuiBase<T extends StorageControllerContai
         } else if (OccultismJeiIntegration.get().isLoaded() && JeiSettings.isJeiSearchSynced()) {
             this.searchBar.setValue(OccultismJeiIntegration.get().getFilterText());
         }
+        //typing, deleting, pasting and clearing all change the search, so the server side view needs to follow
+        this.searchBar.setResponder(text -> this.viewDirty = true);
 
         int storageSpaceInfoLabelLeft = 186;
         int storageSpaceInfoLabelTop = 115;
@@ -297,6 +331,21 @@ public abstract class StorageControllerGuiBase<T extends StorageControllerContai
                 .addLine(I18n.get(TRANSLATION_KEY_BASE + ".space_info_label_types", String.format("%.0f", (double) this.usedItemTypes / (double) this.maxItemTypes * 100)), false);
         this.addRenderableWidget(this.storageTypesLabel);
         this.initButtons();
+
+        //search, sort or mode may have changed
+        this.viewDirty = true;
+    }
+
+    @Override
+    protected void containerTick() {
+        super.containerTick();
+
+        //coalesce all changes within a tick into one request
+        if (this.serverSideView && this.viewDirty) {
+            this.viewDirty = false;
+            Networking.sendToServer(new MessageRequestStorageView(this.searchBar.getValue(), this.getSortType(),
+                    this.getSortDirection(), this.getViewOffset(), this.rows * this.columns));
+        }
     }
 
     @Override
@@ -461,7 +510,8 @@ public abstract class StorageControllerGuiBase<T extends StorageControllerContai
     @Override
     public boolean charTyped(char typedChar, int keyCode) {
         if (this.searchBar.isFocused() && this.searchBar.charTyped(typedChar, keyCode)) {
-            Networking.sendToServer(new MessageRequestStacks());
+            if (!this.serverSideView)
+                Networking.sendToServer(new MessageRequestStacks());
             if (OccultismEmiIntegration.get().isLoaded() && JeiSettings.isJeiSearchSynced()) {
                 OccultismEmiIntegration.get().setFilterText(this.searchBar.getValue());
             } else if (OccultismJeiIntegration.get().isLoaded() && JeiSettings.isJeiSearchSynced()) {
@@ -581,6 +631,11 @@ public abstract class StorageControllerGuiBase<T extends StorageControllerContai
     }
 
     protected void drawItems(GuiGraphics guiGraphics, float partialTicks, int mouseX, int mouseY) {
+        if (this.serverSideView) {
+            this.drawServerViewItems(guiGraphics, mouseX, mouseY);
+            return;
+        }
+
         List<ItemStack> stacksToDisplay = this.applySearchToItems();
 
         var changedPage = this.previousPage != this.currentPage;
@@ -601,6 +656,31 @@ public abstract class StorageControllerGuiBase<T extends StorageControllerContai
         this.drawItemSlots(guiGraphics, mouseX, mouseY);
     }
 
+    /**
+     * Draws the page received from the server, which is already searched and sorted.
+     */
+    protected void drawServerViewItems(GuiGraphics guiGraphics, int mouseX, int mouseY) {
+        if (this.previousPage != this.currentPage) {
+            this.previousPage = this.currentPage;
+            this.viewDirty = true;
+        }
+
+        if (this.viewChanged) {
+            this.viewChanged = false;
+            this.buildPage(this.viewTotalMatches);
+            this.buildItemSlots(this.viewStacks, 0);
+        }
+
+        this.drawItemSlots(guiGraphics, mouseX, mouseY);
+    }
+
+    /**
+     * @return the index of the first stack displayed on the current page.
+     */
+    protected int getViewOffset() {
+        return (this.currentPage - 1) * this.columns;
+    }
+
     protected void drawMachines(GuiGraphics guiGraphics, float partialTicks, int mouseX, int mouseY) {
         List<MachineReference> machinesToDisplay = this.applySearchToMachines();
         this.sortMachines(machinesToDisplay);
@@ -717,12 +797,19 @@ public abstract class StorageControllerGuiBase<T extends StorageControllerContai
     }
 
     protected void buildItemSlots(List<ItemStack> stacksToDisplay) {
+        this.buildItemSlots(stacksToDisplay, this.getViewOffset());
+    }
+
+    /**
+     * @param startIndex the index in stacksToDisplay of the first stack on the current page.
+     */
+    protected void buildItemSlots(List<ItemStack> stacksToDisplay, int startIndex) {
 
         int itemAreaLeft = 8 + ORDER_AREA_OFFSET;
         int itemAreaTop = 24;
 
         this.itemSlots = new ArrayList<>();
-        int index = (this.currentPage - 1) * (this.columns);
+        int index = startIndex;
         for (int row = 0; row < this.rows; row++) {
             if (index >= stacksToDisplay.size()) {
                 break;
@@ -742,8 +829,12 @@ public abstract class StorageControllerGuiBase<T extends StorageControllerContai
     }
 
     protected void buildPage(List<?> objectsToDisplay) {
-        this.totalPages = objectsToDisplay.size() / this.columns;
-        if (objectsToDisplay.size() % this.columns != 0) {
+        this.buildPage(objectsToDisplay.size());
+    }
+
+    protected void buildPage(int objectsToDisplayCount) {
+        this.totalPages = objectsToDisplayCount / this.columns;
+        if (objectsToDisplayCount % this.columns != 0) {
             this.totalPages++;
         }
         this.totalPages -= (this.rows - 1);
@@ -762,19 +853,21 @@ public abstract class StorageControllerGuiBase<T extends StorageControllerContai
         stacksToDisplay.sort(new Comparator<ItemStack>() {
 
             final int direction = StorageControllerGuiBase.this.getSortDirection().isDown() ? -1 : 1;
+            final ClientStorageCache cache = StorageControllerGuiBase.this.getClientStorageCache();
 
             @Override
             public int compare(ItemStack a, ItemStack b) {
                 switch (StorageControllerGuiBase.this.getSortType()) {
                     case AMOUNT:
                         return Integer.compare(b.getCount(), a.getCount()) * this.direction;
+                    //names are cached in the search records, so we don't resolve them for every comparison
                     case NAME:
-                        return a.getDisplayName().getString()
-                                .compareToIgnoreCase(b.getDisplayName().getString()) *
+                        return this.cache.getSearchRecord(a).name
+                                .compareTo(this.cache.getSearchRecord(b).name) *
                                 this.direction;
                     case MOD:
-                        return TextUtil.getModNameForGameObject(a.getItem())
-                                .compareToIgnoreCase(TextUtil.getModNameForGameObject(b.getItem())) *
+                        return this.cache.getSearchRecord(a).modName
+                                .compareTo(this.cache.getSearchRecord(b).modName) *
                                 this.direction;
                 }
                 return 0;
@@ -796,11 +889,8 @@ public abstract class StorageControllerGuiBase<T extends StorageControllerContai
             if (this.cachedStacksToDisplay != null && this.cachedSearchString != null && this.cachedSearchString.equals(searchText))
                 return this.cachedStacksToDisplay;
 
-            List<ItemStack> stacksToDisplay = new ArrayList<>();
-            for (ItemStack stack : this.getClientStorageCache().stacks()) {
-                if (this.itemMatchesSearch(stack))
-                    stacksToDisplay.add(stack);
-            }
+            //copy, as the result is sorted in place
+            List<ItemStack> stacksToDisplay = new ArrayList<>(this.getClientStorageCache().search(searchText));
 
             this.cachedStacksToDisplay = stacksToDisplay;
             this.cachedSearchString = searchText;
@@ -826,27 +916,7 @@ public abstract class StorageControllerGuiBase<T extends StorageControllerContai
     }
 
     protected boolean itemMatchesSearch(ItemStack stack) {
-        String searchText = this.searchBar.getValue();
-        if (searchText.startsWith("@")) {
-            String name = TextUtil.getModNameForGameObject(stack.getItem());
-            return name.toLowerCase().contains(searchText.toLowerCase().substring(1));
-        } else if (searchText.startsWith("#")) {
-            List<String> tooltip = stack.getTooltipLines(Item.TooltipContext.of(this.minecraft.level), this.minecraft.player, TooltipFlag.Default.NORMAL).stream()
-                    .map(Component::getString).collect(
-                            Collectors.toList());
-            String tooltipString = Joiner.on(' ').join(tooltip).toLowerCase().trim();
-            return tooltipString.toLowerCase().contains(searchText.toLowerCase().substring(1));
-        } else if (searchText.startsWith("$")) {
-            StringBuilder tagStringBuilder = new StringBuilder();
-            stack.getTags().forEach(
-                    tag -> tagStringBuilder.append(tag.location()).append(" ")
-            );
-            return tagStringBuilder.toString().toLowerCase().contains(searchText.toLowerCase().substring(1));
-        } else {
-            //Note: If search stops working, forge may have re-implemented .getUnformattedComponentText() for translated text components
-            return stack.getDisplayName().getString().toLowerCase()
-                    .contains(searchText.toLowerCase());
-        }
+        return this.getClientStorageCache().getSearchRecord(stack).matches(this.searchBar.getValue().toLowerCase(Locale.ROOT));
     }
 
     protected boolean machineMatchesSearch(MachineReference machine) {
@@ -0,0 +1,97 @@
+/*
+ * MIT License
+ *
+ * Copyright 2024 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.klikli_dev.occultism.client.gui.storage;
+
+import com.google.common.base.Joiner;
+import com.klikli_dev.occultism.util.TextUtil;
+import net.minecraft.client.Minecraft;
+import net.minecraft.network.chat.Component;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.TooltipFlag;
+
+import javax.annotation.Nullable;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Pre-computed search and sort keys of one stack in the {@link ClientStorageCache}.
+ * Built once when the stack is added, the count of the stack does not affect any of the keys.
+ */
+public class StorageSearchRecord {
+
+    public final ItemStack stack;
+    /**
+     * Lower case display name, used for plain search and name sorting.
+     */
+    public final String name;
+    /**
+     * Lower case mod name, used for @ search and mod sorting.
+     */
+    public final String modName;
+    /**
+     * Lower case tag ids separated by spaces, used for $ search.
+     */
+    public final String tags;
+    /**
+     * Lower case tooltip text, used for # search. Built on first use as it is expensive.
+     */
+    @Nullable
+    protected String tooltip;
+
+    public StorageSearchRecord(ItemStack stack) {
+        this.stack = stack;
+        this.name = stack.getDisplayName().getString().toLowerCase(Locale.ROOT);
+        String modName = TextUtil.getModNameForGameObject(stack.getItem());
+        this.modName = modName != null ? modName.toLowerCase(Locale.ROOT) : "";
+
+        StringBuilder tagStringBuilder = new StringBuilder();
+        stack.getTags().forEach(tag -> tagStringBuilder.append(tag.location()).append(" "));
+        this.tags = tagStringBuilder.toString().toLowerCase(Locale.ROOT);
+    }
+
+    public String tooltip() {
+        if (this.tooltip == null) {
+            var minecraft = Minecraft.getInstance();
+            var lines = this.stack.getTooltipLines(Item.TooltipContext.of(minecraft.level), minecraft.player, TooltipFlag.Default.NORMAL)
+                    .stream().map(Component::getString).collect(Collectors.toList());
+            this.tooltip = Joiner.on(' ').join(lines).toLowerCase(Locale.ROOT).trim();
+        }
+        return this.tooltip;
+    }
+
+    /**
+     * Matches the search syntax of the storage gui: @ for mod name, # for tooltip, $ for tags, otherwise the item name.
+     *
+     * @param search the lower case search text.
+     */
+    public boolean matches(String search) {
+        if (search.startsWith("@"))
+            return this.modName.contains(search.substring(1));
+        if (search.startsWith("#"))
+            return this.tooltip().contains(search.substring(1));
+        if (search.startsWith("$"))
+            return this.tags.contains(search.substring(1));
+        return this.name.contains(search);
+    }
+}
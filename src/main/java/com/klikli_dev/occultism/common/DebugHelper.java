@@ -24,4 +24,5 @@ package com.klikli_dev.occultism.common;
 
 public class DebugHelper {
     public boolean debugAI;
+    public boolean profileRituals;
 }
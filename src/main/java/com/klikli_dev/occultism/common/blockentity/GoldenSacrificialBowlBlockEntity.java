@@ -22,19 +22,20 @@
 
 package com.klikli_dev.occultism.common.blockentity;
 
-import com.klikli_dev.modonomicon.api.ModonomiconAPI;
 import com.klikli_dev.modonomicon.api.multiblock.Multiblock;
-import com.klikli_dev.modonomicon.api.multiblock.Multiblock.SimulateResult;
 import com.klikli_dev.occultism.Occultism;
 import com.klikli_dev.occultism.common.item.DummyTooltipItem;
 import com.klikli_dev.occultism.common.item.spirit.BookOfBindingItem;
+import com.klikli_dev.occultism.common.ritual.PentacleDiagnosis;
 import com.klikli_dev.occultism.common.ritual.Ritual;
+import com.klikli_dev.occultism.common.ritual.RitualEventDispatcher;
+import com.klikli_dev.occultism.common.ritual.RitualProfiler;
+import com.klikli_dev.occultism.common.ritual.RitualRecipeIndex;
 import com.klikli_dev.occultism.crafting.recipe.RitualRecipe;
 import com.klikli_dev.occultism.registry.OccultismBlockEntities;
 import com.klikli_dev.occultism.registry.OccultismParticles;
 import com.klikli_dev.occultism.registry.OccultismRecipes;
 import com.klikli_dev.occultism.util.EntityUtil;
-import com.mojang.datafixers.util.Pair;
 import net.minecraft.Util;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
@@ -57,23 +58,38 @@ import net.minecraft.world.item.crafting.Ingredient;
 import net.minecraft.world.item.crafting.RecipeHolder;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.Block;
-import net.minecraft.world.level.block.Rotation;
+import net.minecraft.world.level.block.entity.BlockEntityType;
 import net.minecraft.world.level.block.state.BlockState;
-import net.neoforged.neoforge.common.NeoForge;
+import net.minecraft.world.level.levelgen.structure.BoundingBox;
+import net.neoforged.neoforge.event.level.BlockEvent;
 import net.neoforged.neoforge.event.entity.living.LivingDeathEvent;
 import net.neoforged.neoforge.event.entity.player.PlayerInteractEvent;
-import net.neoforged.neoforge.event.entity.player.PlayerInteractEvent.RightClickItem;
+import net.neoforged.neoforge.capabilities.Capabilities;
 import net.neoforged.neoforge.items.IItemHandler;
+import net.neoforged.neoforge.items.ItemHandlerHelper;
 import net.neoforged.neoforge.items.ItemStackHandler;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
 import java.util.Map.Entry;
-import java.util.function.Consumer;
 
 public class GoldenSacrificialBowlBlockEntity extends SacrificialBowlBlockEntity {
 
+    /**
+     * Interval in which a running ritual is fully re-validated even if no block change was detected in its footprint,
+     * to catch changes that do not notify neighbors.
+     */
+    public static final int RITUAL_REVALIDATION_INTERVAL_TICKS = 100;
+    /**
+     * Interval in which a ritual waiting for a sacrifice or item use is validated and updates its redstone signal.
+     */
+    public static final int WAITING_RITUAL_TICK_INTERVAL = 20;
+    /**
+     * Maximum amount of activation items that can be queued for consecutive cycles of a running ritual.
+     */
+    public static final int MAX_BATCH_SIZE = 16;
+
     public RecipeHolder<RitualRecipe> currentRitualRecipe;
     public ResourceLocation currentRitualRecipeId;
     public UUID castingPlayerId;
@@ -83,16 +99,35 @@ public class GoldenSacrificialBowlBlockEntity extends SacrificialBowlBlockEntity
     public boolean sacrificeProvided;
     public boolean itemUseProvided;
     public int currentTime;
-
-    public Consumer<RightClickItem> rightClickItemListener;
-    public Consumer<LivingDeathEvent> livingDeathEventListener;
+    /**
+     * Activation items queued for consecutive cycles of the current ritual.
+     */
+    public List<ItemStack> batchQueue = new ArrayList<>();
+    /**
+     * Results of the finished cycles of the current batch, emitted together when the batch ends.
+     */
+    public List<ItemStack> batchResults = new ArrayList<>();
+
+    /**
+     * The area the current ritual depends on, set after a full validation and cleared by block changes inside of it.
+     * While set, the pentacle is known to be valid and the sacrificial bowls in range are known.
+     */
+    @Nullable
+    protected BoundingBox ritualFootprint;
+    protected List<SacrificialBowlBlockEntity> ritualSacrificialBowls = List.of();
+    protected long lastRitualValidationTime;
+    /**
+     * Set when a sacrifice or item use is provided, so the next tick handles the change immediately.
+     */
+    protected boolean ritualStateChanged;
 
 
     public GoldenSacrificialBowlBlockEntity(BlockPos worldPos, BlockState state) {
-        super(OccultismBlockEntities.GOLDEN_SACRIFICIAL_BOWL.get(), worldPos, state);
+        this(OccultismBlockEntities.GOLDEN_SACRIFICIAL_BOWL.get(), worldPos, state);
+    }
 
-        this.rightClickItemListener = this::onPlayerRightClickItem;
-        this.livingDeathEventListener = this::onLivingDeath;
+    public GoldenSacrificialBowlBlockEntity(BlockEntityType<?> BlockEntityTypeIn, BlockPos worldPos, BlockState state) {
+        super(BlockEntityTypeIn, worldPos, state);
 
         this.itemStackHandler = new ItemStackHandler(1) {
 
@@ -115,11 +150,10 @@ public class GoldenSacrificialBowlBlockEntity extends SacrificialBowlBlockEntity
                     return handleDummyInsert(slot, stack, simulate);
 
                 if (GoldenSacrificialBowlBlockEntity.this.getCurrentRitualRecipe() != null)
-                    return stack;
+                    return GoldenSacrificialBowlBlockEntity.this.queueBatchItem(stack, simulate);
 
-                var ritualRecipe = GoldenSacrificialBowlBlockEntity.this.level.getRecipeManager().getAllRecipesFor(OccultismRecipes.RITUAL_TYPE.get()).stream().filter(
-                        r -> r.value().matches(GoldenSacrificialBowlBlockEntity.this.level, GoldenSacrificialBowlBlockEntity.this.getBlockPos(), stack)
-                ).findFirst().orElse(null);
+                var ritualRecipe = RitualRecipeIndex.get(GoldenSacrificialBowlBlockEntity.this.level)
+                        .identify(GoldenSacrificialBowlBlockEntity.this.level, GoldenSacrificialBowlBlockEntity.this.getBlockPos(), stack);
 
                 if (ritualRecipe == null)
                     return stack;
@@ -155,21 +189,9 @@ public class GoldenSacrificialBowlBlockEntity extends SacrificialBowlBlockEntity
     }
 
     // If we find pentacle that almost matches block in the world, then print help
-    private static boolean helpWithPentacle(Level level, BlockPos pos, Player player) {
-        Map<BlockPos, Block> pentacleDiff = null;
-        Map<BlockPos, Block> bestPentacleDiff = null;
-
-        var pentacleMultiblocks = level.getRecipeManager().getAllRecipesFor(OccultismRecipes.RITUAL_TYPE.get())
-                .stream().map(r -> r.value().getPentacleId()).distinct().map(ModonomiconAPI.get()::getMultiblock).toList();
-
-        Multiblock bestMatch = null;
-        for (var pentacle : pentacleMultiblocks) {
-            pentacleDiff = getDifference(pentacle, level, pos);
-            if (bestPentacleDiff == null || bestPentacleDiff.size() > pentacleDiff.size()) {
-                bestPentacleDiff = pentacleDiff;
-                bestMatch = pentacle;
-            }
-        }
+    private static boolean helpWithPentacle(PentacleDiagnosis.Result diagnosis, Player player) {
+        Map<BlockPos, Block> bestPentacleDiff = diagnosis.bestDifference();
+        Multiblock bestMatch = diagnosis.bestMatch();
 
         if (bestPentacleDiff != null && !bestPentacleDiff.isEmpty() && bestPentacleDiff.size() < 4) {
             //tell player which pentacle he was probably trying to build
@@ -201,22 +223,16 @@ public class GoldenSacrificialBowlBlockEntity extends SacrificialBowlBlockEntity
     }
 
     // If we find ritual with ingredients that almost matches bowls, then print help
-    private static boolean helpWithRitual(Level level, BlockPos pos, ServerPlayer player, ItemStack activationItem) {
+    private static boolean helpWithRitual(Level level, BlockPos pos, ServerPlayer player, ItemStack activationItem, @Nullable Multiblock pentacle) {
         List<Ingredient> ritualDiff = null;
         List<Ingredient> bestRitualDiff = null;
         RitualRecipe bestRitual = null;
 
-        var pentacleMultiblocks = level.getRecipeManager().getAllRecipesFor(OccultismRecipes.RITUAL_TYPE.get())
-                .stream().map(r -> r.value().getPentacleId()).distinct().map(ModonomiconAPI.get()::getMultiblock);
-
-        var pentacle = pentacleMultiblocks.filter(p -> p.validate(level, pos) != null).findFirst();
-
-        if (pentacle.isEmpty())
+        if (pentacle == null)
             return false;
 
-
         for (var recipe : level.getRecipeManager().getAllRecipesFor(OccultismRecipes.RITUAL_TYPE.get())) {
-            if (recipe.value().getPentacle() != pentacle.orElseThrow())
+            if (recipe.value().getPentacle() != pentacle)
                 continue;
 
             ritualDiff = new ArrayList<>(recipe.value().getIngredients());
@@ -268,38 +284,13 @@ public class GoldenSacrificialBowlBlockEntity extends SacrificialBowlBlockEntity
         return text;
     }
 
-    public static Map<BlockPos, Block> getDifference(Multiblock multiblock, Level level, BlockPos pos) {
-        Map<BlockPos, Block> minDifference = new HashMap<>();
-        int minDiffSize = Integer.MAX_VALUE;
-
-        Map<BlockPos, Block> difference;
-        for (Rotation rot : Rotation.values()) {
-            difference = new HashMap<>();
-            Pair<BlockPos, Collection<SimulateResult>> sim = multiblock.simulate(level, pos, rot, false, false);
-
-            for (SimulateResult result : sim.getSecond()) {
-                if (!result.test(level, rot)) {
-                    difference.put(result.getWorldPosition(), result.getStateMatcher().getDisplayedState(0).getBlock());
-                }
-            }
-
-            if (difference.size() < minDiffSize) {
-                minDifference = difference;
-                minDiffSize = difference.size();
-            }
-        }
-
-        return minDifference;
-    }
-
     public RecipeHolder<RitualRecipe> getCurrentRitualRecipe() {
         if (this.currentRitualRecipeId != null) {
             if (this.level != null) {
                 var recipe = this.level.getRecipeManager().byKey(this.currentRitualRecipeId);
                 recipe.map(r -> (RecipeHolder<RitualRecipe>) r).ifPresent(r -> this.currentRitualRecipe = r);
 
-                NeoForge.EVENT_BUS.addListener(this.rightClickItemListener);
-                NeoForge.EVENT_BUS.addListener(this.livingDeathEventListener);
+                this.registerRitualEvents();
 
                 this.currentRitualRecipeId = null;
             }
@@ -324,79 +315,140 @@ public class GoldenSacrificialBowlBlockEntity extends SacrificialBowlBlockEntity
     public void tick() {
         RecipeHolder<RitualRecipe> recipe = this.getCurrentRitualRecipe();
         if (!this.level.isClientSide && recipe != null) {
-            this.restoreCastingPlayer();
+            long profileStart = RitualProfiler.begin();
+            this.tickRitual(recipe);
+            RitualProfiler.endTick(this.level, this.getBlockPos(), recipe.id(), profileStart);
+        }
+    }
 
-            if (this.remainingAdditionalIngredients == null) {
-                this.restoreRemainingAdditionalIngredients();
-                if (this.remainingAdditionalIngredients == null) {
-                    Occultism.LOGGER
-                            .warn("Could not restore remainingAdditionalIngredients during tick - level seems to be null. Will attempt again next tick.");
-                    return;
-                }
-            }
+    protected void tickRitual(RecipeHolder<RitualRecipe> recipe) {
+        this.restoreCastingPlayer();
 
-            IItemHandler handler = this.itemStackHandler;
-            if (!recipe.value().getRitual().isValid(this.level, this.getBlockPos(), this, this.castingPlayer,
-                    handler.getStackInSlot(0), this.remainingAdditionalIngredients)) {
-                //ritual is no longer valid, so interrupt
-                this.stopRitual(false);
+        if (this.remainingAdditionalIngredients == null) {
+            this.restoreRemainingAdditionalIngredients();
+            if (this.remainingAdditionalIngredients == null) {
+                Occultism.LOGGER
+                        .warn("Could not restore remainingAdditionalIngredients during tick - level seems to be null. Will attempt again next tick.");
                 return;
             }
+        }
+
+        IItemHandler handler = this.itemStackHandler;
+        long gameTime = this.level.getGameTime();
+
+        if (this.ritualStateChanged) {
+            //the redstone signal depends on the provided sacrifice and item use
+            this.ritualStateChanged = false;
+            this.level.updateNeighborsAt(this.getBlockPos(), this.getBlockState().getBlock());
+        }
 
-            //if we do not have a sacrifice yet, we cannot advance time
-            if (!this.sacrificeFulfilled() || !this.itemUseFulfilled()) {
-                if(this.level.getGameTime() % 20 == 0)
-                    this.level.updateNeighborsAt(this.getBlockPos(), this.getBlockState().getBlock());
-
-                if (this.level.random.nextInt(16) == 0) {
-                    ((ServerLevel) this.level)
-                            .sendParticles(OccultismParticles.RITUAL_WAITING.get(),
-                                    this.getBlockPos().getX() + this.level.random.nextGaussian(),
-                                    this.getBlockPos().getY() + 0.5, this.getBlockPos().getZ() + this.level.random.nextGaussian(),
-                                    3,
-                                    0.0, 0.0, 0.0,
-                                    0.0);
-                    ((ServerLevel) this.level)
-                            .sendParticles(OccultismParticles.RITUAL_WAITING.get(),
-                                    this.getBlockPos().getX() + this.level.random.nextGaussian(),
-                                    this.getBlockPos().getY() + 0.5, this.getBlockPos().getZ() + this.level.random.nextGaussian(),
-                                    3,
-                                    0.0, 0.0, 0.0,
-                                    0.0);
+        //if we do not have a sacrifice yet, we cannot advance time
+        if (this.getRitualState() == RitualState.WAITING) {
+            //waiting rituals only need to be checked in a slow interval, sacrifices and item uses wake them up
+            if (gameTime % WAITING_RITUAL_TICK_INTERVAL == 0) {
+                if (!this.isCurrentRitualValid(recipe, handler.getStackInSlot(0))) {
+                    //ritual is no longer valid, so interrupt
+                    this.stopRitual(false);
+                    return;
                 }
-                return;
+                this.level.updateNeighborsAt(this.getBlockPos(), this.getBlockState().getBlock());
             }
 
-            //spawn particles in random intervals
             if (this.level.random.nextInt(16) == 0) {
                 ((ServerLevel) this.level)
-                        .sendParticles(ParticleTypes.PORTAL, this.getBlockPos().getX() + 0.5 + this.level.random.nextGaussian() / 3,
-                                this.getBlockPos().getY() + 0.5, this.getBlockPos().getZ() + 0.5 + this.level.random.nextGaussian() / 3, 5,
+                        .sendParticles(OccultismParticles.RITUAL_WAITING.get(),
+                                this.getBlockPos().getX() + this.level.random.nextGaussian(),
+                                this.getBlockPos().getY() + 0.5, this.getBlockPos().getZ() + this.level.random.nextGaussian(),
+                                3,
+                                0.0, 0.0, 0.0,
+                                0.0);
+                ((ServerLevel) this.level)
+                        .sendParticles(OccultismParticles.RITUAL_WAITING.get(),
+                                this.getBlockPos().getX() + this.level.random.nextGaussian(),
+                                this.getBlockPos().getY() + 0.5, this.getBlockPos().getZ() + this.level.random.nextGaussian(),
+                                3,
                                 0.0, 0.0, 0.0,
                                 0.0);
             }
+            return;
+        }
 
-            //Advance ritual time every second, based on the standard 20 tps, but taking into account duration multiplier
-            if (this.level.getGameTime() % ((int) (20 * Occultism.SERVER_CONFIG.rituals.ritualDurationMultiplier.get())) == 0)
-                this.currentTime++;
+        //spawn particles in random intervals
+        if (this.level.random.nextInt(16) == 0) {
+            ((ServerLevel) this.level)
+                    .sendParticles(ParticleTypes.PORTAL, this.getBlockPos().getX() + 0.5 + this.level.random.nextGaussian() / 3,
+                            this.getBlockPos().getY() + 0.5, this.getBlockPos().getZ() + 0.5 + this.level.random.nextGaussian() / 3, 5,
+                            0.0, 0.0, 0.0,
+                            0.0);
+        }
 
-            recipe
-                    .value().getRitual()
-                    .update(this.level, this.getBlockPos(), this, this.castingPlayer, handler.getStackInSlot(0),
-                            this.currentTime);
+        //Advance ritual time every second, based on the standard 20 tps, but taking into account duration multiplier
+        //validation and consumption only need to run on these ticks, as ingredients are due by ritual time.
+        boolean timeAdvances = gameTime % ((int) (20 * Occultism.SERVER_CONFIG.rituals.ritualDurationMultiplier.get())) == 0;
+        if (timeAdvances) {
+            if (!this.isCurrentRitualValid(recipe, handler.getStackInSlot(0))) {
+                //ritual is no longer valid, so interrupt
+                this.stopRitual(false);
+                return;
+            }
+
+            this.currentTime++;
+        }
 
-            if (!recipe
+        //rituals may rely on being updated every tick, e.g. for effects, so this is not limited to time advancing ticks.
+        recipe
+                .value().getRitual()
+                .update(this.level, this.getBlockPos(), this, this.castingPlayer, handler.getStackInSlot(0),
+                        this.currentTime);
+
+        if (!timeAdvances)
+            return;
+
+        if (this.getRitualState() == RitualState.CONSUMING) {
+            long profileStart = RitualProfiler.begin();
+            boolean consumed = recipe
                     .value().getRitual()
                     .consumeAdditionalIngredients(this.level, this.getBlockPos(), this.remainingAdditionalIngredients,
-                            this.currentTime, this.consumedIngredients)) {
+                            this.currentTime, this.consumedIngredients);
+            RitualProfiler.end(RitualProfiler.Section.CONSUME_INGREDIENTS, recipe.id(), profileStart);
+            if (!consumed) {
                 //if ingredients cannot be found, interrupt
                 this.stopRitual(false);
                 return;
             }
+        }
+
+        if (recipe.value().getDuration() >= 0 && this.currentTime >= recipe.value().getDuration())
+            this.stopRitual(true);
+    }
+
+    /**
+     * Checks if the running ritual is still valid.
+     * The full validation including the pentacle only runs if a block in the ritual footprint changed, or the
+     * revalidation interval passed. Otherwise only the items on the known sacrificial bowls are checked.
+     */
+    protected boolean isCurrentRitualValid(RecipeHolder<RitualRecipe> recipe, ItemStack activationItem) {
+        var ritual = recipe.value().getRitual();
+        long time = this.level.getGameTime();
+        if (this.ritualFootprint == null || time - this.lastRitualValidationTime >= RITUAL_REVALIDATION_INTERVAL_TICKS) {
+            long profileStart = RitualProfiler.begin();
+            boolean valid = ritual.isValid(this.level, this.getBlockPos(), this, this.castingPlayer, activationItem, this.remainingAdditionalIngredients);
+            RitualProfiler.end(RitualProfiler.Section.VALIDATE, recipe.id(), profileStart);
+            if (!valid) {
+                this.ritualFootprint = null;
+                return false;
+            }
 
-            if (recipe.value().getDuration() >= 0 && this.currentTime >= recipe.value().getDuration())
-                this.stopRitual(true);
+            this.ritualFootprint = ritual.getFootprint(this.getBlockPos());
+            profileStart = RitualProfiler.begin();
+            this.ritualSacrificialBowls = ritual.getSacrificialBowls(this.level, this.getBlockPos());
+            RitualProfiler.end(RitualProfiler.Section.FIND_BOWLS, recipe.id(), profileStart);
+            this.lastRitualValidationTime = time;
+            return true;
         }
+
+        return recipe.value().getActivationItem().test(activationItem) &&
+                ritual.matchesAdditionalIngredients(this.remainingAdditionalIngredients, ritual.getItemsOnSacrificialBowls(this.ritualSacrificialBowls));
     }
 
     public void restoreCastingPlayer() {
@@ -427,9 +479,7 @@ public class GoldenSacrificialBowlBlockEntity extends SacrificialBowlBlockEntity
             if (this.getCurrentRitualRecipe() == null) {
                 //Identify the ritual in the ritual registry.
 
-                var ritualRecipe = this.level.getRecipeManager().getAllRecipesFor(OccultismRecipes.RITUAL_TYPE.get()).stream().filter(
-                        r -> r.value().matches(level, pos, activationItem)
-                ).findFirst().orElse(null);
+                var ritualRecipe = RitualRecipeIndex.get(level).identify(level, pos, activationItem);
 
                 if (ritualRecipe != null) {
                     if (ritualRecipe.value().getRitual().isValid(level, pos, this, player, activationItem,
@@ -450,13 +500,23 @@ public class GoldenSacrificialBowlBlockEntity extends SacrificialBowlBlockEntity
                                 Component.translatable(String.format("ritual.%s.book_not_bound", Occultism.MODID)),
                                 false);
                     } else {
-                        if (!helpWithPentacle(level, pos, player)) {
-                            if (!helpWithRitual(level, pos, serverPlayer, activationItem)) {
-                                player.displayClientMessage(
-                                        Component.translatable(String.format("ritual.%s.does_not_exist", Occultism.MODID)),
-                                        false);
+                        //comparing against all pentacles is expensive, so it runs in the background and we answer once it is done
+                        var activationItemCopy = activationItem.copy();
+                        PentacleDiagnosis.diagnoseAsync((ServerLevel) level, pos).thenAcceptAsync(diagnosis -> {
+                            if (serverPlayer.hasDisconnected())
+                                return;
+
+                            if (!helpWithPentacle(diagnosis, player)) {
+                                if (!helpWithRitual(level, pos, serverPlayer, activationItemCopy, diagnosis.getValidPentacle())) {
+                                    player.displayClientMessage(
+                                            Component.translatable(String.format("ritual.%s.does_not_exist", Occultism.MODID)),
+                                            false);
+                                }
                             }
-                        }
+                        }, level.getServer()).exceptionally(e -> {
+                            Occultism.LOGGER.error("Failed to diagnose pentacle at {}", pos, e);
+                            return null;
+                        });
                     }
                     return false;
                 }
@@ -478,13 +538,15 @@ public class GoldenSacrificialBowlBlockEntity extends SacrificialBowlBlockEntity
             this.consumedIngredients.clear();
             this.remainingAdditionalIngredients = new ArrayList<>(this.currentRitualRecipe.value().getIngredients());
 
-            if(!this.currentRitualRecipe.value().getRitual().start(this.level, this.getBlockPos(), this, player, this.itemStackHandler.getStackInSlot(0))) {
+            long profileStart = RitualProfiler.begin();
+            boolean started = this.currentRitualRecipe.value().getRitual().start(this.level, this.getBlockPos(), this, player, this.itemStackHandler.getStackInSlot(0));
+            RitualProfiler.end(RitualProfiler.Section.START, ritualRecipe.id(), profileStart);
+            if(!started) {
                 this.stopRitual(false, false); //do not show message as start will already do that
                 return false;
             }
 
-            NeoForge.EVENT_BUS.addListener(this.rightClickItemListener);
-            NeoForge.EVENT_BUS.addListener(this.livingDeathEventListener);
+            this.registerRitualEvents();
 
             this.setChanged();
             this.markNetworkDirty();
@@ -505,7 +567,11 @@ public class GoldenSacrificialBowlBlockEntity extends SacrificialBowlBlockEntity
                 IItemHandler handler = this.itemStackHandler;
                 if (finished) {
                     ItemStack activationItem = handler.getStackInSlot(0);
+                    long profileStart = RitualProfiler.begin();
                     recipe.value().getRitual().finish(this.level, this.getBlockPos(), this, this.castingPlayer, activationItem);
+                    RitualProfiler.end(RitualProfiler.Section.FINISH, recipe.id(), profileStart);
+                    if (this.continueBatch(recipe))
+                        return;
                 } else {
                     recipe.value().getRitual().interrupt(this.level, this.getBlockPos(), this, this.castingPlayer,
                             handler.getStackInSlot(0), showInterruptedMessage);
@@ -523,9 +589,16 @@ public class GoldenSacrificialBowlBlockEntity extends SacrificialBowlBlockEntity
             if (this.remainingAdditionalIngredients != null)
                 this.remainingAdditionalIngredients.clear();
             this.consumedIngredients.clear();
+            //queued activation items of an interrupted batch are returned
+            for (ItemStack stack : this.batchQueue)
+                Containers.dropItemStack(this.level, this.getBlockPos().getX(), this.getBlockPos().getY(), this.getBlockPos().getZ(), stack);
+            this.batchQueue.clear();
+            if (recipe != null)
+                this.emitBatchResults(recipe.value().getRitual());
 
-            NeoForge.EVENT_BUS.unregister(this.rightClickItemListener);
-            NeoForge.EVENT_BUS.unregister(this.livingDeathEventListener);
+            RitualEventDispatcher.unregister(this);
+            this.ritualFootprint = null;
+            this.ritualSacrificialBowls = List.of();
 
             this.setChanged();
             this.markNetworkDirty();
@@ -534,6 +607,106 @@ public class GoldenSacrificialBowlBlockEntity extends SacrificialBowlBlockEntity
         }
     }
 
+    /**
+     * Queues an activation item inserted while a ritual that supports batches is running.
+     *
+     * @return the remainder of the stack that could not be queued.
+     */
+    protected ItemStack queueBatchItem(ItemStack stack, boolean simulate) {
+        var recipe = this.getCurrentRitualRecipe();
+        if (this.level.isClientSide || stack.isEmpty() || this.batchQueue.size() >= MAX_BATCH_SIZE ||
+                !recipe.value().getRitual().supportsBatching() || !recipe.value().getActivationItem().test(stack))
+            return stack;
+
+        if (!simulate) {
+            this.batchQueue.add(stack.copyWithCount(1));
+            this.setChanged();
+        }
+        return stack.copyWithCount(stack.getCount() - 1);
+    }
+
+    /**
+     * Buffers a ritual result if the current ritual is part of a batch, so the results of all cycles are emitted
+     * together once the batch ends.
+     *
+     * @return true if the result was buffered, false if it should be emitted right away.
+     */
+    public boolean bufferBatchResult(ItemStack stack) {
+        if (this.batchQueue.isEmpty() && this.batchResults.isEmpty())
+            return false;
+
+        for (ItemStack buffered : this.batchResults) {
+            if (stack.isEmpty())
+                break;
+            if (ItemStack.isSameItemSameComponents(buffered, stack)) {
+                int moved = Math.min(stack.getCount(), buffered.getMaxStackSize() - buffered.getCount());
+                buffered.grow(moved);
+                stack.shrink(moved);
+            }
+        }
+        if (!stack.isEmpty())
+            this.batchResults.add(stack.copy());
+        this.setChanged();
+        return true;
+    }
+
+    /**
+     * Emits the buffered results of a batch into adjacent inventories, and drops what does not fit.
+     * Sacrificial bowls are skipped, as results on them would block the ingredients of the next ritual.
+     */
+    protected void emitBatchResults(Ritual ritual) {
+        if (this.batchResults.isEmpty())
+            return;
+
+        var results = this.batchResults;
+        this.batchResults = new ArrayList<>();
+        for (ItemStack result : results) {
+            for (Direction direction : Direction.values()) {
+                if (result.isEmpty())
+                    break;
+                var neighbor = this.getBlockPos().relative(direction);
+                if (this.level.getBlockEntity(neighbor) instanceof SacrificialBowlBlockEntity)
+                    continue;
+                var handler = this.level.getCapability(Capabilities.ItemHandler.BLOCK, neighbor, direction.getOpposite());
+                if (handler != null)
+                    result = ItemHandlerHelper.insertItemStacked(handler, result, false);
+            }
+            if (!result.isEmpty())
+                ritual.dropResult(this.level, this.getBlockPos(), this, this.castingPlayer, result);
+        }
+        this.setChanged();
+    }
+
+    /**
+     * Starts the next cycle of a batch with the next queued activation item.
+     * The ritual is not identified again and keeps its pentacle validation and event registration,
+     * ingredients are consumed from the sacrificial bowls as usual.
+     *
+     * @return true if the next cycle started, false if the ritual should stop.
+     */
+    protected boolean continueBatch(RecipeHolder<RitualRecipe> recipe) {
+        if (this.batchQueue.isEmpty() || !this.itemStackHandler.getStackInSlot(0).isEmpty())
+            return false;
+
+        this.itemStackHandler.setStackInSlot(0, this.batchQueue.remove(0));
+        this.currentTime = 0;
+        this.consumedIngredients.clear();
+        this.remainingAdditionalIngredients = new ArrayList<>(recipe.value().getIngredients());
+
+        long profileStart = RitualProfiler.begin();
+        boolean started = recipe.value().getRitual().start(this.level, this.getBlockPos(), this, this.castingPlayer, this.itemStackHandler.getStackInSlot(0));
+        RitualProfiler.end(RitualProfiler.Section.START, recipe.id(), profileStart);
+        if (!started) {
+            Containers.dropItemStack(this.level, this.getBlockPos().getX(), this.getBlockPos().getY(), this.getBlockPos().getZ(),
+                    this.itemStackHandler.extractItem(0, 1, false));
+            return false;
+        }
+
+        this.setChanged();
+        this.markNetworkDirty();
+        return true;
+    }
+
     public boolean sacrificeFulfilled() {
         return !this.getCurrentRitualRecipe().value().requiresSacrifice() || this.sacrificeProvided;
     }
@@ -544,10 +717,25 @@ public class GoldenSacrificialBowlBlockEntity extends SacrificialBowlBlockEntity
 
     public void notifySacrifice(LivingEntity entityLivingBase) {
         this.sacrificeProvided = true;
+        this.ritualStateChanged = true;
     }
 
     public void notifyItemUse(PlayerInteractEvent.RightClickItem event) {
         this.itemUseProvided = true;
+        this.ritualStateChanged = true;
+    }
+
+    /**
+     * @return the state of the current ritual, or null if there is none.
+     */
+    @Nullable
+    public RitualState getRitualState() {
+        if (this.getCurrentRitualRecipe() == null)
+            return null;
+        if (!this.sacrificeFulfilled() || !this.itemUseFulfilled())
+            return RitualState.WAITING;
+        return this.remainingAdditionalIngredients != null && this.remainingAdditionalIngredients.isEmpty() ?
+                RitualState.PROGRESSING : RitualState.CONSUMING;
     }
 
     public void onPlayerRightClickItem(PlayerInteractEvent.RightClickItem event) {
@@ -576,6 +764,36 @@ public class GoldenSacrificialBowlBlockEntity extends SacrificialBowlBlockEntity
         }
     }
 
+    /**
+     * Registers the running ritual for the sacrifice, item use and block change events it waits for.
+     */
+    protected void registerRitualEvents() {
+        if (this.level.isClientSide || this.currentRitualRecipe == null)
+            return;
+
+        var ritual = this.currentRitualRecipe.value().getRitual();
+        int footprintRange = Ritual.SACRIFICIAL_BOWL_RANGE;
+        if (this.currentRitualRecipe.value().getPentacle() != null) {
+            var footprint = ritual.getFootprint(this.getBlockPos());
+            footprintRange = Math.max(footprint.getXSpan(), footprint.getZSpan()) / 2;
+        }
+        RitualEventDispatcher.register(this, footprintRange);
+    }
+
+    @Override
+    public void setRemoved() {
+        super.setRemoved();
+        //also called on chunk unload, the ritual registers again once the bowl is loaded and restores it
+        if (this.level != null && !this.level.isClientSide)
+            RitualEventDispatcher.unregister(this);
+    }
+
+    public void onNeighborNotify(BlockEvent.NeighborNotifyEvent event) {
+        //any block change in the footprint may break the pentacle or add/remove a sacrificial bowl
+        if (this.ritualFootprint != null && this.ritualFootprint.isInside(event.getPos()))
+            this.ritualFootprint = null;
+    }
+
     protected void restoreRemainingAdditionalIngredients() {
         if (this.level == null) {
             //this sets the signal that loading didn't go right -> will reattempt during tick()
@@ -606,6 +824,20 @@ public class GoldenSacrificialBowlBlockEntity extends SacrificialBowlBlockEntity
             }
             this.restoreRemainingAdditionalIngredients();
         }
+        this.batchQueue.clear();
+        if (compound.contains("batchQueue")) {
+            ListTag list = compound.getList("batchQueue", Tag.TAG_COMPOUND);
+            for (int i = 0; i < list.size(); i++) {
+                this.batchQueue.add(ItemStack.parseOptional(provider, list.getCompound(i)));
+            }
+        }
+        this.batchResults.clear();
+        if (compound.contains("batchResults")) {
+            ListTag list = compound.getList("batchResults", Tag.TAG_COMPOUND);
+            for (int i = 0; i < list.size(); i++) {
+                this.batchResults.add(ItemStack.parseOptional(provider, list.getCompound(i)));
+            }
+        }
         if (compound.contains("sacrificeProvided")) {
             this.sacrificeProvided = compound.getBoolean("sacrificeProvided");
         }
@@ -626,6 +858,20 @@ public class GoldenSacrificialBowlBlockEntity extends SacrificialBowlBlockEntity
             }
             compound.putBoolean("sacrificeProvided", this.sacrificeProvided);
             compound.putBoolean("requiredItemUsed", this.itemUseProvided);
+            if (!this.batchQueue.isEmpty()) {
+                ListTag list = new ListTag();
+                for (ItemStack stack : this.batchQueue) {
+                    list.add(stack.saveOptional(provider));
+                }
+                compound.put("batchQueue", list);
+            }
+            if (!this.batchResults.isEmpty()) {
+                ListTag list = new ListTag();
+                for (ItemStack stack : this.batchResults) {
+                    list.add(stack.saveOptional(provider));
+                }
+                compound.put("batchResults", list);
+            }
         }
         super.saveAdditional(compound, provider);
     }
@@ -656,4 +902,19 @@ public class GoldenSacrificialBowlBlockEntity extends SacrificialBowlBlockEntity
         compound.putInt("currentTime", this.currentTime);
         return super.saveNetwork(compound, provider);
     }
+
+    public enum RitualState {
+        /**
+         * Waiting for a sacrifice or item use, time does not advance.
+         */
+        WAITING,
+        /**
+         * Advancing ritual time and consuming additional ingredients as they become due.
+         */
+        CONSUMING,
+        /**
+         * Advancing ritual time after all additional ingredients are consumed.
+         */
+        PROGRESSING
+    }
 }
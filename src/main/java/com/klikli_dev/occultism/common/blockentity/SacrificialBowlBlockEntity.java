@@ -22,6 +22,7 @@
 
 package com.klikli_dev.occultism.common.blockentity;
 
+import com.klikli_dev.occultism.common.misc.SacrificialBowlRegistry;
 import com.klikli_dev.occultism.registry.OccultismBlockEntities;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.HolderLookup;
@@ -63,6 +64,20 @@ public class SacrificialBowlBlockEntity extends NetworkedBlockEntity {
     }
 
 
+    @Override
+    public void onLoad() {
+        super.onLoad();
+        if (this.level != null && !this.level.isClientSide)
+            SacrificialBowlRegistry.register(this);
+    }
+
+    @Override
+    public void setRemoved() {
+        super.setRemoved();
+        if (this.level != null && !this.level.isClientSide)
+            SacrificialBowlRegistry.unregister(this);
+    }
+
     @Override
     public void loadNetwork(CompoundTag compound, HolderLookup.Provider provider) {
         this.itemStackHandler.deserializeNBT(provider, compound.getCompound("inventory"));
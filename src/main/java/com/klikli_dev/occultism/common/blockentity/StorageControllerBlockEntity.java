@@ -38,7 +38,13 @@ import com.klikli_dev.occultism.common.entity.job.ManageMachineJob;
 import com.klikli_dev.occultism.common.entity.spirit.SpiritEntity;
 import com.klikli_dev.occultism.common.misc.DepositOrder;
 import com.klikli_dev.occultism.common.misc.ItemStackComparator;
+import com.klikli_dev.occultism.common.misc.ItemStackKey;
+import com.klikli_dev.occultism.common.misc.ItemTagComparator;
+import com.klikli_dev.occultism.common.misc.MapItemStackHandler;
 import com.klikli_dev.occultism.common.misc.StorageControllerMapItemStackHandler;
+import com.klikli_dev.occultism.common.misc.StorageNetwork;
+import com.klikli_dev.occultism.common.misc.StorageTransaction;
+import com.klikli_dev.occultism.common.misc.StorageViewIndex;
 import com.klikli_dev.occultism.network.messages.MessageUpdateStacks;
 import com.klikli_dev.occultism.registry.OccultismBlockEntities;
 import com.klikli_dev.occultism.registry.OccultismBlocks;
@@ -46,6 +52,8 @@ import com.klikli_dev.occultism.registry.OccultismDataComponents;
 import com.klikli_dev.occultism.registry.OccultismItems;
 import com.klikli_dev.occultism.util.EntityUtil;
 import com.klikli_dev.occultism.util.Math3DUtil;
+import it.unimi.dsi.fastutil.objects.Object2LongLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
 import net.minecraft.core.HolderLookup;
@@ -84,6 +92,10 @@ import java.util.stream.Stream;
 public class StorageControllerBlockEntity extends NetworkedBlockEntity implements MenuProvider, IStorageController, IStorageAccessor, IStorageControllerProxy, GeoBlockEntity {
 
     public static final int MAX_STABILIZER_DISTANCE = 5;
+    /**
+     * How often newly stored item types are encoded in the background ahead of the next save.
+     */
+    protected static final int ENCODE_INTERVAL_TICKS = 20;
 
     protected static final List<DeferredBlock<? extends Block>> BLOCK_BLACKLIST = Stream.of(
             OccultismBlocks.STORAGE_CONTROLLER).collect(Collectors.toList());
@@ -106,6 +118,16 @@ public class StorageControllerBlockEntity extends NetworkedBlockEntity implement
     protected boolean stabilizersInitialized = false;
     protected GlobalBlockPos globalPos;
     protected MessageUpdateStacks cachedMessageUpdateStacks;
+    /**
+     * The network of connected controllers this controller belongs to, discovered lazily.
+     */
+    @Nullable
+    protected StorageNetwork network;
+    /**
+     * Sorted index for paginated storage guis, created on first use.
+     */
+    @Nullable
+    protected StorageViewIndex viewIndex;
 
     public StorageControllerBlockEntity(BlockPos worldPos, BlockState state) {
         super(OccultismBlockEntities.STORAGE_CONTROLLER.get(), worldPos, state);
@@ -117,7 +139,50 @@ public class StorageControllerBlockEntity extends NetworkedBlockEntity implement
                 this.stabilizersInitialized = true;
                 this.updateStabilizers();
             }
+
+            //encode newly stored item types in the background, so saving the chunk only has to join the result
+            if (this.level.getGameTime() % ENCODE_INTERVAL_TICKS == 0) {
+                this.itemStackHandler.encodeDirtyAsync(this.level.registryAccess());
+            }
+        }
+    }
+
+    /**
+     * Gets the network this controller is part of, discovering it if needed.
+     * Item queries and operations on this controller act on the whole network.
+     */
+    public StorageNetwork getNetwork() {
+        if (this.network == null || !this.network.isValid()) {
+            var network = StorageNetwork.discover(this);
+            for (var member : network.members()) {
+                if (member.network != null && member.network != network)
+                    member.network.invalidate();
+                member.network = network;
+            }
         }
+        return this.network;
+    }
+
+    @Override
+    public void onLoad() {
+        super.onLoad();
+
+        if (!this.level.isClientSide && StorageNetwork.isEnabledInConfig()) {
+            //neighboring controllers need to pick us up in their network
+            for (Direction direction : Direction.values()) {
+                BlockPos neighborPos = this.getBlockPos().relative(direction);
+                if (this.level.isLoaded(neighborPos) && this.level.getBlockEntity(neighborPos) instanceof StorageControllerBlockEntity neighbor && neighbor.network != null)
+                    neighbor.network.invalidate();
+            }
+        }
+    }
+
+    @Override
+    public void setRemoved() {
+        super.setRemoved();
+
+        if (this.network != null)
+            this.network.invalidate();
     }
 
     public void updateStabilizers() {
@@ -183,18 +248,96 @@ public class StorageControllerBlockEntity extends NetworkedBlockEntity implement
         this.linkedMachines.entrySet().removeIf(entry -> !entry.getValue().isValidFor(this.level));
     }
 
-    private List<Predicate<ItemStack>> getComparatorsSortedByAmount(Predicate<ItemStack> comparator) {
-        var handler = this.itemStackHandler;
-        var map = new HashMap<Item, Integer>();
-        for (int i = 0; i < handler.getSlots(); i++) {
-            var getStackInSlot = handler.getStackInSlot(i);
-            if (comparator.test(getStackInSlot)) {
-                var oldCount = map.getOrDefault(getStackInSlot.getItem(), 0);
-                map.put(getStackInSlot.getItem(), oldCount + getStackInSlot.getCount());
+    /**
+     * Gets the item types that can match the given comparator, based on the item index of the handler.
+     *
+     * @return the candidate items, or null if the comparator cannot be resolved via the index and all contents need to be checked.
+     */
+    @Nullable
+    private static Collection<Item> getCandidateItems(MapItemStackHandler handler, Predicate<ItemStack> comparator) {
+        if (comparator instanceof ItemStackComparator itemStackComparator)
+            return List.of(itemStackComparator.getFilterStack().getItem());
+        if (comparator instanceof ItemTagComparator itemTagComparator)
+            return handler.getItems(itemTagComparator.getTag());
+        return null;
+    }
+
+    /**
+     * Gets the first key in the network that matches the comparator, using the item index where possible.
+     */
+    @Nullable
+    private ItemStackKey findMatchingKey(Predicate<ItemStack> comparator) {
+        for (var shard : this.getNetwork().members()) {
+            var handler = shard.itemStackHandler;
+            var candidateItems = getCandidateItems(handler, comparator);
+            if (candidateItems != null) {
+                for (var item : candidateItems) {
+                    for (var key : handler.getVariants(item)) {
+                        if (comparator.test(key.stack()))
+                            return key;
+                    }
+                }
+                continue;
+            }
+
+            //unknown comparator, so we check all keys. Keys are count 1 stacks, so this does not allocate.
+            for (var key : handler.keyToCountMap().keySet()) {
+                if (comparator.test(key.stack()))
+                    return key;
             }
         }
-        return map.entrySet().stream().sorted((a, b) -> b.getValue().compareTo(a.getValue()))
-                .map(entry -> (Predicate<ItemStack>) stack -> stack.getItem() == entry.getKey()).toList();
+        return null;
+    }
+
+    private List<Item> getItemsSortedByAmount(Predicate<ItemStack> comparator) {
+        var map = new Object2LongOpenHashMap<Item>();
+
+        for (var shard : this.getNetwork().members()) {
+            var handler = shard.itemStackHandler;
+            var candidateItems = getCandidateItems(handler, comparator);
+            if (candidateItems != null) {
+                for (var item : candidateItems) {
+                    for (var key : handler.getVariants(item)) {
+                        if (comparator.test(key.stack()))
+                            map.addTo(item, handler.get(key));
+                    }
+                }
+            } else {
+                for (var entry : handler.keyToCountMap().object2IntEntrySet()) {
+                    if (comparator.test(entry.getKey().stack()))
+                        map.addTo(entry.getKey().stack().getItem(), entry.getIntValue());
+                }
+            }
+        }
+
+        var items = new ArrayList<>(map.keySet());
+        items.sort((a, b) -> Long.compare(map.getLong(b), map.getLong(a)));
+        return items;
+    }
+
+    /**
+     * Extracts the key from the shards of the network that hold it, up to the given amount.
+     */
+    private ItemStack extract(ItemStackKey key, int amount, boolean simulate) {
+        var network = this.getNetwork();
+        if (!network.isNetworked())
+            return this.itemStackHandler.extractItem(key, amount, simulate);
+
+        ItemStack result = ItemStack.EMPTY;
+        for (var shard : network.members()) {
+            if (shard.itemStackHandler.get(key) <= 0)
+                continue;
+
+            var extracted = shard.itemStackHandler.extractItem(key, amount - result.getCount(), simulate);
+            if (result.isEmpty())
+                result = extracted;
+            else
+                result.grow(extracted.getCount());
+
+            if (result.getCount() >= amount)
+                break;
+        }
+        return result;
     }
 
     private <E extends GeoBlockEntity> PlayState predicate(AnimationState<E> event) {
@@ -292,10 +435,14 @@ public class StorageControllerBlockEntity extends NetworkedBlockEntity implement
 
     @Override
     public List<ItemStack> getStacks() {
+        var network = this.getNetwork();
+        if (network.isNetworked())
+            return this.getNetworkStacks(network);
 
         List<ItemStack> result = new ArrayList<>(this.itemStackHandler.getSlots());
-        for (var entry : this.itemStackHandler.keyToCountMap().object2IntEntrySet()) {
-            result.add(entry.getKey().stack().copyWithCount(entry.getIntValue()));
+        for (var key : this.itemStackHandler.keyToCountMap().keySet()) {
+            //views are shared with the handler, the sync message only reads them
+            result.add(this.itemStackHandler.getView(key));
         }
 
         this.usedItemTypes = this.itemStackHandler.keyToCountMap().size();
@@ -303,19 +450,92 @@ public class StorageControllerBlockEntity extends NetworkedBlockEntity implement
         return result;
     }
 
+    /**
+     * Gets the merged contents of all shards. Keys held by multiple shards are combined into one stack.
+     */
+    protected List<ItemStack> getNetworkStacks(StorageNetwork network) {
+        var merged = new Object2LongLinkedOpenHashMap<ItemStackKey>();
+        long usedTotalItemCount = 0;
+        for (var shard : network.members()) {
+            for (var entry : shard.itemStackHandler.keyToCountMap().object2IntEntrySet()) {
+                merged.addTo(entry.getKey(), entry.getIntValue());
+            }
+            usedTotalItemCount += shard.itemStackHandler.totalItemCount();
+        }
+
+        List<ItemStack> result = new ArrayList<>(merged.size());
+        for (var entry : merged.object2LongEntrySet()) {
+            result.add(entry.getKey().stack().copyWithCount((int) Math.min(entry.getLongValue(), Integer.MAX_VALUE)));
+        }
+
+        this.usedItemTypes = merged.size();
+        this.usedTotalItemCount = usedTotalItemCount;
+        return result;
+    }
+
+    /**
+     * @return the maximum total item count of the network this controller is part of.
+     */
+    public long getMaxTotalItemCount() {
+        long maxTotalItemCount = 0;
+        for (var shard : this.getNetwork().members()) {
+            maxTotalItemCount += shard.maxTotalItemCount;
+        }
+        return maxTotalItemCount;
+    }
+
     @Override
     public MessageUpdateStacks getMessageUpdateStacks() {
-        if (this.cachedMessageUpdateStacks == null) {
+        //in a network other shards may have changed, which is reflected in the network version.
+        long version = this.getNetwork().version();
+        if (this.cachedMessageUpdateStacks == null || this.cachedMessageUpdateStacks.getVersion() != version) {
             List<ItemStack> stacks = this.getStacks();
-            this.cachedMessageUpdateStacks = new MessageUpdateStacks(stacks, this.maxItemTypes, this.usedItemTypes,
-                    this.maxTotalItemCount, this.usedTotalItemCount, this.level.registryAccess());
+            this.cachedMessageUpdateStacks = new MessageUpdateStacks(stacks, version,
+                    this.getMaxItemTypes(), this.usedItemTypes, this.getMaxTotalItemCount(), this.usedTotalItemCount, this.level.registryAccess());
         }
         return this.cachedMessageUpdateStacks;
     }
 
+    @Override
+    @Nullable
+    public MessageUpdateStacks getMessageUpdateStacks(long clientVersion) {
+        var network = this.getNetwork();
+        long version = network.version();
+        if (clientVersion == version)
+            return null;
+
+        //the shards track their changes separately, the network combines them into one delta
+        var changedKeys = network.changedSince(clientVersion);
+        if (changedKeys == null)
+            return this.getMessageUpdateStacks();
+
+        this.usedItemTypes = network.getUsedItemTypes();
+        this.usedTotalItemCount = network.getUsedTotalItemCount();
+        //if most entries changed the snapshot is not much larger, and it is cached for other players.
+        if (changedKeys.size() >= this.usedItemTypes)
+            return this.getMessageUpdateStacks();
+
+        List<ItemStack> changedStacks = new ArrayList<>();
+        List<ItemStack> removedStacks = new ArrayList<>();
+        for (var key : changedKeys) {
+            long count = network.get(key);
+            if (count > 0)
+                changedStacks.add(key.stack().copyWithCount((int) Math.min(count, Integer.MAX_VALUE)));
+            else
+                removedStacks.add(key.stack());
+        }
+
+        return new MessageUpdateStacks(changedStacks, removedStacks, clientVersion, version,
+                this.getMaxItemTypes(), this.usedItemTypes, this.getMaxTotalItemCount(), this.usedTotalItemCount, this.level.registryAccess());
+    }
+
     @Override
     public int getMaxItemTypes() {
-        return this.maxItemTypes;
+        int maxItemTypes = 0;
+        for (var shard : this.getNetwork().members()) {
+            maxItemTypes += shard.maxItemTypes;
+        }
+        return maxItemTypes;
     }
 
     @Override
@@ -326,6 +546,7 @@ public class StorageControllerBlockEntity extends NetworkedBlockEntity implement
         this.itemStackHandler.maxTotalItemCount(this.maxTotalItemCount);
         //force resync
         this.cachedMessageUpdateStacks = null;
+        this.itemStackHandler.changeLog().markDirty();
         this.markNetworkDirty();
     }
 
@@ -399,102 +620,144 @@ public class StorageControllerBlockEntity extends NetworkedBlockEntity implement
         if (this.isBlacklisted(stack))
             return stack.getCount();
 
-        if (this.itemStackHandler.insertItem(stack, true).getCount() < stack.getCount()) {
-            stack = this.itemStackHandler.insertItem(stack, simulate);
+        var network = this.getNetwork();
+        if (!network.isNetworked()) {
+            //the handler validates before inserting, so no simulation pass is needed.
+            return this.itemStackHandler.insertItem(stack, simulate).getCount();
         }
 
-        return stack.getCount();
+        ItemStack remaining = stack;
+        for (var shard : network.getShardsForInsert(ItemStackKey.of(stack))) {
+            remaining = shard.itemStackHandler.insertItem(remaining, simulate);
+            if (remaining.isEmpty())
+                break;
+        }
+        return remaining.getCount();
     }
 
     @Override
-    public ItemStack getOneOfMostCommonItem(Predicate<ItemStack> comparator, boolean simulate) {
-        if (comparator == null) {
-            return ItemStack.EMPTY;
+    public boolean commit(StorageTransaction transaction, boolean simulate) {
+        for (var entry : transaction.deltas().object2IntEntrySet()) {
+            if (entry.getIntValue() > 0 && this.isBlacklisted(entry.getKey().stack()))
+                return false;
         }
 
-        var comparators = this.getComparatorsSortedByAmount(comparator);
-
-        //we start with the comparator representing the most common item, and if we don't find anything we move on.
-        //Note: unless something weird happens we should always find something.
-        for (var currentComparator : comparators) {
-            for (int slot = 0; slot < this.itemStackHandler.getSlots(); slot++) {
-
-                //first we force a simulation to check if the stack fits
-                ItemStack stack = this.itemStackHandler.extractItem(slot, 1, true);
-                if (stack.isEmpty()) {
-                    continue;
-                }
-
-                if (currentComparator.test(stack)) {
-                    //now we do the actual operation (note: can still be a simulation, if caller wants to simulate=
-                    return this.itemStackHandler.extractItem(slot, 1, simulate);
+        var network = this.getNetwork();
+        if (!network.isNetworked())
+            return this.itemStackHandler.commit(transaction, simulate);
+
+        //split the transaction into one per shard: extractions go to the shards holding the key,
+        //insertions are spread over the shards in insert order, like insertStack does.
+        Map<StorageControllerBlockEntity, StorageTransaction> shardTransactions = new LinkedHashMap<>();
+        for (var entry : transaction.deltas().object2IntEntrySet()) {
+            var key = entry.getKey();
+            int delta = entry.getIntValue();
+            if (delta < 0) {
+                int remaining = -delta;
+                for (var shard : network.members()) {
+                    int taken = Math.min(remaining, shard.itemStackHandler.get(key));
+                    if (taken > 0) {
+                        shardTransactions.computeIfAbsent(shard, s -> new StorageTransaction()).extract(key, taken);
+                        remaining -= taken;
+                    }
                 }
+                if (remaining > 0)
+                    return false;
+            }
+        }
+        //insertions after extractions, so space freed by the transaction can be used
+        for (var entry : transaction.deltas().object2IntEntrySet()) {
+            var key = entry.getKey();
+            int remaining = entry.getIntValue();
+            if (remaining <= 0)
+                continue;
 
-                //this slot does not match so we move on in the loop.
+            for (var shard : network.getShardsForInsert(key)) {
+                var shardTransaction = shardTransactions.computeIfAbsent(shard, s -> new StorageTransaction());
+                int inserted = Math.min(remaining, shard.itemStackHandler.getInsertableAmount(key, shardTransaction));
+                shardTransaction.insert(key, inserted);
+                remaining -= inserted;
+                if (remaining == 0)
+                    break;
             }
+            if (remaining > 0)
+                return false;
+        }
+
+        //validate all shards first, so the network transaction is still all or nothing.
+        for (var entry : shardTransactions.entrySet()) {
+            if (!entry.getKey().itemStackHandler.commit(entry.getValue(), true))
+                return false;
         }
 
-        //nothing found
-        return ItemStack.EMPTY;
+        if (!simulate) {
+            for (var entry : shardTransactions.entrySet()) {
+                entry.getKey().itemStackHandler.commit(entry.getValue(), false);
+            }
+        }
+        return true;
     }
 
     @Override
-    public ItemStack getItemStack(Predicate<ItemStack> comparator, int requestedSize, boolean simulate) {
-        if (requestedSize <= 0 || comparator == null) {
-            return ItemStack.EMPTY;
+    @Nullable
+    public ItemStackKey getMostCommonKey(Predicate<ItemStack> comparator, @Nullable StorageTransaction pending) {
+        if (comparator == null) {
+            return null;
         }
 
-        //Shortcut for exact matches
-        if (comparator instanceof ItemStackComparator itemStackComparator && itemStackComparator.getMatchNbt()) {
-            return this.itemStackHandler.extractItem(itemStackComparator.getFilterStack(), requestedSize, simulate);
+        var items = this.getItemsSortedByAmount(comparator);
+
+        var network = this.getNetwork();
+        //we start with the most common item, and if we don't find anything we move on.
+        for (var item : items) {
+            for (var shard : network.members()) {
+                for (var key : shard.itemStackHandler.getVariants(item)) {
+                    long available = network.get(key) + (pending != null ? pending.get(key) : 0);
+                    if (available > 0 && comparator.test(key.stack())) {
+                        return key;
+                    }
+                }
+            }
         }
 
-        ItemStack firstMatchedStack = ItemStack.EMPTY;
-        int remaining = requestedSize;
-        for (int slot = 0; slot < this.itemStackHandler.getSlots(); slot++) {
-
-            //first we force a simulation
-            ItemStack stack = this.itemStackHandler.extractItem(slot, remaining, true);
-            if (stack.isEmpty()) {
-                continue;
-            }
+        return null;
+    }
 
-            //if we have not found anything yet we can just store the result or move on
-            if (firstMatchedStack.isEmpty()) {
+    @Override
+    public ItemStack getOneOfMostCommonItem(Predicate<ItemStack> comparator, boolean simulate) {
+        if (comparator == null) {
+            return ItemStack.EMPTY;
+        }
 
-                if (!comparator.test(stack)) {
-                    //this slot does not match so we move on
-                    continue;
-                }
-                //just take entire stack -> we're in sim mode
-                firstMatchedStack = stack.copy();
-            } else {
-                //we already found something, so we need to make sure the stacks match up, if not we move on.
-                if (!ItemStack.isSameItemSameComponents(firstMatchedStack, stack)) {
-                    continue;
-                }
-            }
+        var key = this.getMostCommonKey(comparator, null);
+        if (key == null) {
+            //nothing found
+            return ItemStack.EMPTY;
+        }
 
-            //get how many we have to extract in this round, cannot be more than we need nor more than is in this slot.
-            int toExtract = Math.min(stack.getCount(), remaining);
+        //now we do the actual operation (note: can still be a simulation, if caller wants to simulate)
+        return this.extract(key, 1, simulate);
+    }
 
-            //now we can leave simulation up to the caller
-            ItemStack extractedStack = this.itemStackHandler.extractItem(slot, toExtract, simulate);
-            remaining -= extractedStack.getCount();
+    @Override
+    public ItemStack getItemStack(Predicate<ItemStack> comparator, int requestedSize, boolean simulate) {
+        if (requestedSize <= 0 || comparator == null) {
+            return ItemStack.EMPTY;
+        }
 
-            //if we got all we need we can exit here.
-            if (remaining <= 0) {
-                break;
-            }
+        //Shortcut for exact matches
+        if (comparator instanceof ItemStackComparator itemStackComparator && itemStackComparator.getMatchNbt()) {
+            return this.extract(ItemStackKey.of(itemStackComparator.getFilterStack()), requestedSize, simulate);
         }
 
-        //set the exact output count and return.
-        int extractCount = requestedSize - remaining;
-        if (!firstMatchedStack.isEmpty() && extractCount > 0) {
-            firstMatchedStack.setCount(extractCount);
+        //Each item type + components combination is stored under exactly one key, so the first matching key holds everything we can return.
+        var key = this.findMatchingKey(comparator);
+        if (key == null) {
+            return ItemStack.EMPTY;
         }
 
-        return firstMatchedStack;
+        //extraction is capped to the available amount, simulation is up to the caller
+        return this.extract(key, requestedSize, simulate);
     }
 
     public int getAvailableAmount(IItemStackComparator comparator) {
@@ -502,20 +765,38 @@ public class StorageControllerBlockEntity extends NetworkedBlockEntity implement
             return 0;
         }
 
+        var network = this.getNetwork();
+
         //Shortcut for exact matches
         if (comparator instanceof ItemStackComparator itemStackComparator && itemStackComparator.getMatchNbt()) {
-            return this.itemStackHandler.get(itemStackComparator.getFilterStack());
+            return (int) Math.min(network.get(ItemStackKey.of(itemStackComparator.getFilterStack())), Integer.MAX_VALUE);
         }
 
-        int totalCount = 0;
+        long totalCount = 0;
 
-        int size = this.itemStackHandler.getSlots();
-        for (int slot = 0; slot < size; slot++) {
-            ItemStack stack = this.itemStackHandler.getStackInSlot(slot);
-            if (comparator.matches(stack))
-                totalCount += stack.getCount();
+        for (var shard : network.members()) {
+            var handler = shard.itemStackHandler;
+            var candidateItems = getCandidateItems(handler, comparator);
+            if (candidateItems != null) {
+                //all variants of the candidate items match for the indexed comparator types
+                for (var item : candidateItems) {
+                    totalCount += handler.get(item);
+                }
+            } else {
+                for (var entry : handler.keyToCountMap().object2IntEntrySet()) {
+                    if (comparator.matches(entry.getKey().stack()))
+                        totalCount += entry.getIntValue();
+                }
+            }
         }
-        return totalCount;
+        return (int) Math.min(totalCount, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public StorageViewIndex.Page getStorageViewPage(String search, SortType sortType, SortDirection sortDirection, int offset, int count) {
+        if (this.viewIndex == null)
+            this.viewIndex = new StorageViewIndex();
+        return this.viewIndex.query(this, search, sortType, sortDirection, offset, count);
     }
 
     @Override
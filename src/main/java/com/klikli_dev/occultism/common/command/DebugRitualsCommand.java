@@ -0,0 +1,89 @@
+/*
+ * MIT License
+ *
+ * Copyright 2024 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.klikli_dev.occultism.common.command;
+
+import com.klikli_dev.occultism.Occultism;
+import com.klikli_dev.occultism.common.ritual.RitualProfiler;
+import com.mojang.brigadier.Command;
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.builder.ArgumentBuilder;
+import com.mojang.brigadier.context.CommandContext;
+import com.mojang.brigadier.exceptions.CommandSyntaxException;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.network.chat.Component;
+
+public class DebugRitualsCommand implements Command<CommandSourceStack> {
+
+    private static final DebugRitualsCommand CMD = new DebugRitualsCommand();
+    private static final int TOP_COUNT = 5;
+
+    //region Static Methods
+    public static ArgumentBuilder<CommandSourceStack, ?> register(CommandDispatcher<CommandSourceStack> dispatcher) {
+        return Commands.literal("rituals")
+                .requires(cs -> cs.hasPermission(1))
+                .executes(CMD)
+                .then(Commands.literal("profile").executes(DebugRitualsCommand::toggleProfiling))
+                .then(Commands.literal("reset").executes(DebugRitualsCommand::reset));
+    }
+
+    private static int toggleProfiling(CommandContext<CommandSourceStack> context) {
+        Occultism.DEBUG.profileRituals = !Occultism.DEBUG.profileRituals;
+        context.getSource().sendSuccess(() -> Component.literal("Ritual profiling enabled: " + Occultism.DEBUG.profileRituals), false);
+        return 0;
+    }
+
+    private static int reset(CommandContext<CommandSourceStack> context) {
+        RitualProfiler.reset();
+        context.getSource().sendSuccess(() -> Component.literal("Ritual profiling data reset"), false);
+        return 0;
+    }
+
+    private static String format(RitualProfiler.Stats stats) {
+        return String.format("%d calls, total %.2f ms, avg %.1f µs, p99 < %.1f µs",
+                stats.count, stats.totalNanos / 1_000_000.0, stats.getAverageNanos() / 1000.0, stats.getPercentileNanos(0.99) / 1000.0);
+    }
+
+    @Override
+    public int run(CommandContext<CommandSourceStack> context) throws CommandSyntaxException {
+        var source = context.getSource();
+        if (!Occultism.DEBUG.profileRituals)
+            source.sendSuccess(() -> Component.literal("Ritual profiling is disabled, enable it with /occultism debug rituals profile"), false);
+
+        source.sendSuccess(() -> Component.literal("Most expensive rituals:"), false);
+        for (var entry : RitualProfiler.getTopRecipes(TOP_COUNT)) {
+            source.sendSuccess(() -> Component.literal(entry.getKey().toString()), false);
+            for (var section : entry.getValue().entrySet()) {
+                source.sendSuccess(() -> Component.literal("  " + section.getKey().name().toLowerCase() + ": " + format(section.getValue())), false);
+            }
+        }
+
+        source.sendSuccess(() -> Component.literal("Most expensive golden bowls:"), false);
+        for (var entry : RitualProfiler.getTopBowls(TOP_COUNT)) {
+            var pos = entry.getKey().pos();
+            source.sendSuccess(() -> Component.literal(String.format("%s %d %d %d (%s): %s",
+                    entry.getKey().dimension().location(), pos.getX(), pos.getY(), pos.getZ(), entry.getValue().recipe, format(entry.getValue().tick))), false);
+        }
+        return 0;
+    }
+    //endregion Static Methods
+}
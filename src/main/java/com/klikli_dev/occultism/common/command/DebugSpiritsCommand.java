@@ -0,0 +1,71 @@
+/*
+ * MIT License
+ *
+ * Copyright 2024 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.klikli_dev.occultism.common.command;
+
+import com.klikli_dev.occultism.Occultism;
+import com.klikli_dev.occultism.common.entity.ai.SpiritAIScheduler;
+import com.mojang.brigadier.Command;
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.builder.ArgumentBuilder;
+import com.mojang.brigadier.context.CommandContext;
+import com.mojang.brigadier.exceptions.CommandSyntaxException;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.network.chat.Component;
+
+public class DebugSpiritsCommand implements Command<CommandSourceStack> {
+
+    private static final DebugSpiritsCommand CMD = new DebugSpiritsCommand();
+
+    //region Static Methods
+    public static ArgumentBuilder<CommandSourceStack, ?> register(CommandDispatcher<CommandSourceStack> dispatcher) {
+        return Commands.literal("spirits")
+                .requires(cs -> cs.hasPermission(1))
+                .executes(CMD)
+                .then(Commands.literal("reset").executes(DebugSpiritsCommand::reset));
+    }
+
+    private static int reset(CommandContext<CommandSourceStack> context) {
+        SpiritAIScheduler.getSchedulers().values().forEach(SpiritAIScheduler::reset);
+        context.getSource().sendSuccess(() -> Component.literal("Spirit AI scheduler stats reset"), false);
+        return 0;
+    }
+
+    @Override
+    public int run(CommandContext<CommandSourceStack> context) throws CommandSyntaxException {
+        var source = context.getSource();
+        source.sendSuccess(() -> Component.literal("Spirit AI budget per tick: " + Occultism.SERVER_CONFIG.spiritJobs.spiritAiTickBudgetMicros.get() + " µs"), false);
+        for (var entry : SpiritAIScheduler.getSchedulers().entrySet()) {
+            var scheduler = entry.getValue();
+            source.sendSuccess(() -> Component.literal(String.format("%s: %d ticks over budget, slowest tick %.1f µs",
+                    entry.getKey().dimension().location(), scheduler.ticksOverBudget, scheduler.maxTickNanos / 1000.0)), false);
+            for (var type : SpiritAIScheduler.WorkType.values()) {
+                var stats = scheduler.getStats(type);
+                source.sendSuccess(() -> Component.literal(String.format("  %s: %d runs, %d deferred, total %.2f ms, avg %.1f µs",
+                        type.name().toLowerCase(), stats.runs, stats.deferred, stats.totalNanos / 1_000_000.0,
+                        stats.runs == 0 ? 0 : stats.totalNanos / 1000.0 / stats.runs)), false);
+            }
+        }
+        return 0;
+    }
+    //endregion Static Methods
+}
@@ -132,7 +132,7 @@ public class StableWormholeContainer extends StorageControllerContainerBase {
 
         //send stack updates on a slow tick while interacting
         if (!level.isClientSide && level.getGameTime() % 40 == 0) {
-            Networking.sendTo((ServerPlayer) player, this.storageController.getMessageUpdateStacks());
+            this.syncStacks((ServerPlayer) player, false);
             Networking.sendTo((ServerPlayer) player,
                     new MessageUpdateLinkedMachines(this.storageController.getLinkedMachines()));
         }
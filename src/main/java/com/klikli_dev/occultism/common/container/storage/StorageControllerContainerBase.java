@@ -29,10 +29,15 @@ import com.klikli_dev.occultism.api.common.data.GlobalBlockPos;
 import com.klikli_dev.occultism.client.gui.storage.ClientStorageCache;
 import com.klikli_dev.occultism.client.gui.storage.StorageControllerGuiBase;
 import com.klikli_dev.occultism.common.misc.ItemStackComparator;
+import com.klikli_dev.occultism.common.misc.ItemStackKey;
 import com.klikli_dev.occultism.common.misc.StorageControllerCraftingInventory;
 import com.klikli_dev.occultism.common.misc.StorageControllerSlot;
+import com.klikli_dev.occultism.common.misc.StorageTransaction;
 import com.klikli_dev.occultism.network.Networking;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
 import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
 import net.minecraft.ChatFormatting;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.NonNullList;
@@ -47,6 +52,7 @@ import net.minecraft.world.inventory.*;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.item.crafting.*;
 import net.minecraft.world.level.block.entity.BlockEntity;
+import net.neoforged.neoforge.items.IItemHandler;
 import net.neoforged.neoforge.items.ItemHandlerHelper;
 import net.neoforged.neoforge.items.wrapper.PlayerMainInvWrapper;
 
@@ -68,6 +74,10 @@ public abstract class StorageControllerContainerBase extends AbstractContainerMe
     protected SimpleContainer orderInventory;
     protected RecipeHolder<CraftingRecipe> currentRecipe;
     protected ClientStorageCache clientStorageCache;
+    /**
+     * The storage version the client was last synced to, -1 if it has not received a snapshot yet. Server side only.
+     */
+    protected long lastSyncedStacksVersion = -1;
     /**
      * used to lock recipe while crafting
      */
@@ -105,6 +115,21 @@ public abstract class StorageControllerContainerBase extends AbstractContainerMe
         this.clientStorageCache = cache;
     }
 
+    @Override
+    public void syncStacks(ServerPlayer player, boolean fullSnapshot) {
+        IStorageController storageController = this.getStorageController();
+        if (storageController == null)
+            return;
+
+        var message = fullSnapshot ? storageController.getMessageUpdateStacks() :
+                storageController.getMessageUpdateStacks(this.lastSyncedStacksVersion);
+        if (message == null)
+            return;
+
+        this.lastSyncedStacksVersion = message.getVersion();
+        Networking.sendTo(player, message);
+    }
+
     @Override
     public GlobalBlockPos getStorageControllerGlobalBlockPos() {
         return GlobalBlockPos.from(
@@ -161,7 +186,7 @@ public abstract class StorageControllerContainerBase extends AbstractContainerMe
                 this.broadcastChanges();
 
                 //get updated stacks from storage controller and send to client
-                Networking.sendTo((ServerPlayer) player, storageController.getMessageUpdateStacks());
+                this.syncStacks((ServerPlayer) player, false);
 
                 if (!remainingItemStack.isEmpty()) {
                     slot.onTake(player, slotStack);
@@ -250,6 +275,134 @@ public abstract class StorageControllerContainerBase extends AbstractContainerMe
         }
     }
 
+    /**
+     * Checks if the current recipe can be crafted in one batch, that is it leaves nothing behind in the matrix and has no
+     * damageable ingredients. Such recipes consume exactly one of each ingredient per craft.
+     */
+    protected boolean canBulkCraft() {
+        var recipe = this.currentRecipe.value();
+        //special recipes may compute their result from the exact ingredients, e.g. map cloning or fireworks
+        if (recipe.isSpecial())
+            return false;
+
+        for (ItemStack remainder : recipe.getRemainingItems(CraftingInput.of(this.matrix.getWidth(), this.matrix.getHeight(), this.matrix.getItems()))) {
+            if (!remainder.isEmpty())
+                return false;
+        }
+
+        for (int i = 0; i < this.matrix.getContainerSize(); i++) {
+            ItemStack stack = this.matrix.getItem(i);
+            if (!stack.isEmpty() && (stack.isDamageableItem() || !stack.getItem().getCraftingRemainingItem(stack).isEmpty()))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Crafts the current recipe as often as the matrix and the exact matching items in storage allow, up to one stack
+     * of the result. The result is assembled once only and the storage ingredients are extracted in one transaction.
+     * Empty matrix slots are left for {@link #refillMatrix(IStorageController, List)}.
+     *
+     * @param result the assembled result of one craft.
+     * @return the amount of result items crafted. The caller is responsible for giving them to the player.
+     */
+    protected int bulkCraft(IStorageController storageController, ItemStack result) {
+        //the results are handed over in one go, so never craft more than fits into the player inventory
+        int maxCrafts = this.getFreeSpace(new PlayerMainInvWrapper(this.playerInventory), result) / result.getCount();
+        if (maxCrafts <= 0)
+            return 0;
+
+        Map<ItemStackKey, IntList> slotsByKey = new Object2ObjectOpenHashMap<>();
+        for (int i = 0; i < this.matrix.getContainerSize(); i++) {
+            ItemStack stack = this.matrix.getItem(i);
+            if (!stack.isEmpty())
+                slotsByKey.computeIfAbsent(ItemStackKey.of(stack), k -> new IntArrayList()).add(i);
+        }
+
+        //every craft takes one item from each slot, so find the largest amount of crafts we can cover per ingredient
+        int crafts = Math.min(maxCrafts, result.getMaxStackSize() / result.getCount());
+        for (var entry : slotsByKey.entrySet()) {
+            int available = storageController.getAvailableAmount(new ItemStackComparator(entry.getKey().stack(), true));
+            while (crafts > 0 && this.getMissingForCrafts(entry.getValue(), crafts) > available)
+                crafts--;
+        }
+        if (crafts <= 0)
+            return 0;
+
+        StorageTransaction transaction = new StorageTransaction();
+        for (var entry : slotsByKey.entrySet()) {
+            transaction.extract(entry.getKey(), this.getMissingForCrafts(entry.getValue(), crafts));
+        }
+        if (!transaction.isEmpty() && !storageController.commit(transaction, false))
+            return 0;
+
+        for (var slots : slotsByKey.values()) {
+            for (int i = 0; i < slots.size(); i++) {
+                ItemStack stack = this.matrix.getItem(slots.getInt(i));
+                stack.shrink(Math.min(crafts, stack.getCount()));
+            }
+        }
+
+        return crafts * result.getCount();
+    }
+
+    /**
+     * @return the amount of the given stack that can be inserted into the handler.
+     */
+    protected int getFreeSpace(IItemHandler handler, ItemStack stack) {
+        ItemStack probe = stack.copyWithCount(stack.getMaxStackSize());
+        int free = 0;
+        for (int i = 0; i < handler.getSlots(); i++) {
+            free += probe.getCount() - handler.insertItem(i, probe, true).getCount();
+        }
+        return free;
+    }
+
+    /**
+     * @return the amount of items that need to come from storage to craft the given amount with the given matrix slots.
+     */
+    protected int getMissingForCrafts(IntList slots, int crafts) {
+        int missing = 0;
+        for (int i = 0; i < slots.size(); i++) {
+            missing += Math.max(0, crafts - this.matrix.getItem(slots.getInt(i)).getCount());
+        }
+        return missing;
+    }
+
+    /**
+     * Refills empty matrix slots with one of the most common stored item matching the original recipe stack.
+     */
+    protected void refillMatrix(IStorageController storageController, List<ItemStack> recipeCopy) {
+        //collect all refills for empty slots into one transaction so the storage only updates once per craft
+        StorageTransaction refill = new StorageTransaction();
+        ItemStackKey[] refillKeys = new ItemStackKey[this.matrix.getContainerSize()];
+        for (int i = 0; i < this.matrix.getContainerSize(); i++) {
+            ItemStack stackInSlot = this.matrix.getItem(i);
+            //if the stack is empty, refill from storage and then continue looping
+            if (stackInSlot.isEmpty()) {
+                ItemStack recipeStack = recipeCopy.get(i);
+
+                ItemStackComparator comparator = !recipeStack.isEmpty() ? new ItemStackComparator(
+                        recipeStack) : null;
+
+                ItemStackKey key = storageController.getMostCommonKey(comparator, refill);
+                if (key != null) {
+                    refill.extract(key, 1);
+                    refillKeys[i] = key;
+                }
+            }
+        }
+
+        if (!refill.isEmpty() && storageController.commit(refill, false)) {
+            for (int i = 0; i < refillKeys.length; i++) {
+                if (refillKeys[i] != null) {
+                    this.matrix.setItem(i, refillKeys[i].stack().copy());
+                }
+            }
+        }
+        this.slotsChanged(this.matrix);
+    }
+
     protected void craftShift(Player player, IStorageController storageController) {
         if (this.matrix == null) {
             return;
@@ -279,6 +432,16 @@ public abstract class StorageControllerContainerBase extends AbstractContainerMe
         int resultStackSize = result.getCount();
         List<ItemStack> resultList = new ArrayList<>();
         int crafted = 0;
+
+        //simple recipes are crafted in one batch, anything the batch could not craft falls through to the exact loop below
+        if (storageController != null && this.canBulkCraft()) {
+            crafted = this.bulkCraft(storageController, result);
+            if (crafted > 0) {
+                resultList.add(result.copyWithCount(crafted));
+                this.refillMatrix(storageController, recipeCopy);
+            }
+        }
+
         while (crafted + resultStackSize <= result.getMaxStackSize()) {
             //AFAIK this should not happen unless an outside mod intervenes with the inventory during crafting
             //but, in modpacks it definitely does happen, see https://github.com/klikli-dev/occultism/issues/212
@@ -372,20 +535,8 @@ public abstract class StorageControllerContainerBase extends AbstractContainerMe
             //endregion onTake replacement for crafting
 
             crafted += resultStackSize;
-            for (int i = 0; i < this.matrix.getContainerSize(); i++) {
-                ItemStack stackInSlot = this.matrix.getItem(i);
-                //if the stack is empty, refill from storage and then continue looping
-                if (stackInSlot.isEmpty()) {
-                    ItemStack recipeStack = recipeCopy.get(i);
-
-                    ItemStackComparator comparator = !recipeStack.isEmpty() ? new ItemStackComparator(
-                            recipeStack) : null;
 
-                    ItemStack requestedItem = this.getStorageController().getOneOfMostCommonItem(comparator, false);
-                    this.matrix.setItem(i, requestedItem);
-                }
-            }
-            this.slotsChanged(this.matrix);
+            this.refillMatrix(storageController, recipeCopy);
         }
 
         //now actually give to the players
@@ -403,7 +554,7 @@ public abstract class StorageControllerContainerBase extends AbstractContainerMe
 
         //update crafting matrix to handle container items / items that survive crafting
         this.slotsChanged(this.matrix);
-        Networking.sendTo((ServerPlayer) player, this.getStorageController().getMessageUpdateStacks());
+        this.syncStacks((ServerPlayer) player, false);
 
     }
 
@@ -160,10 +160,10 @@ public class StorageRemoteContainer extends StorageControllerContainerBase {
         IStorageController storageController = this.getStorageController();
 
         //stillValid is constantly called, so we use it to send
-        //stack updates every 40 ticks.
+        //stack updates (only changes since the last sync) every 40 ticks.
         if (storageController != null && !entityPlayer.level().isClientSide &&
                 entityPlayer.level().getGameTime() % 40 == 0) {
-            Networking.sendTo((ServerPlayer) this.player, this.getStorageController().getMessageUpdateStacks());
+            this.syncStacks((ServerPlayer) this.player, false);
             Networking.sendTo((ServerPlayer) this.player,
                     new MessageUpdateLinkedMachines(this.getStorageController().getLinkedMachines()));
         }
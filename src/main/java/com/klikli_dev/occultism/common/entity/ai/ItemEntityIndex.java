@@ -0,0 +1,198 @@
+/*
+ * MIT License
+ *
+ * Copyright 2024 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.klikli_dev.occultism.common.entity.ai;
+
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.entity.LivingEntity;
+import net.minecraft.world.entity.item.ItemEntity;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.crafting.Ingredient;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.phys.AABB;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index of the item entities of a server level by chunk section and item, shared by all spirits and familiars looking
+ * for items. A section is queried from the level once per tick at most, no matter how many spirits look at it.
+ * Line of sight checks between spirits and items are remembered for a short while.
+ * Other entity queries, such as the bat familiar looking for bats to eat, do not scan for items and do not use it.
+ * <p>
+ * Only used on the server thread.
+ */
+public class ItemEntityIndex {
+
+    public static final int LINE_OF_SIGHT_TTL_TICKS = 10;
+    public static final int MAX_LINE_OF_SIGHT_ENTRIES = 4096;
+    public static final int MAX_ITEM_SETS = 256;
+
+    private static final Map<Level, ItemEntityIndex> indices = new Reference2ObjectOpenHashMap<>();
+
+    protected final Level level;
+    protected final Long2ObjectOpenHashMap<Map<Item, List<ItemEntity>>> sections = new Long2ObjectOpenHashMap<>();
+    /**
+     * Packed expiry time and result by packed spirit and item entity id.
+     */
+    protected final Long2LongOpenHashMap lineOfSight = new Long2LongOpenHashMap();
+    protected final Map<List<Ingredient>, Set<Item>> itemSets = new Reference2ObjectOpenHashMap<>();
+    protected long sectionsTick = Long.MIN_VALUE;
+
+    public ItemEntityIndex(Level level) {
+        this.level = level;
+    }
+
+    public static ItemEntityIndex get(Level level) {
+        return indices.computeIfAbsent(level, ItemEntityIndex::new);
+    }
+
+    public static void remove(Level level) {
+        indices.remove(level);
+    }
+
+    /**
+     * Forgets the items resolved from ingredients, e.g. if tags changed.
+     */
+    public static void invalidateItemSets() {
+        for (var index : indices.values()) {
+            index.itemSets.clear();
+        }
+    }
+
+    /**
+     * Gets the items accepted by the given ingredients, to pre-filter item queries.
+     *
+     * @param ingredients the ingredients, usually from SpiritJob#getItemsToPickUp.
+     * @return the accepted items, or null if the ingredients cannot be resolved to items up front.
+     */
+    @Nullable
+    public Set<Item> getItemSet(List<Ingredient> ingredients) {
+        //an empty list means the job filters items in other ways
+        if (ingredients.isEmpty())
+            return null;
+
+        if (this.itemSets.containsKey(ingredients))
+            return this.itemSets.get(ingredients);
+
+        //item lists belong to jobs, so forget all of them once too many jobs came and went
+        if (this.itemSets.size() >= MAX_ITEM_SETS)
+            this.itemSets.clear();
+
+        Set<Item> items = new ReferenceOpenHashSet<>();
+        for (var ingredient : ingredients) {
+            if (!ingredient.isSimple()) {
+                items = null;
+                break;
+            }
+            for (var stack : ingredient.getItems()) {
+                items.add(stack.getItem());
+            }
+        }
+        this.itemSets.put(ingredients, items);
+        return items;
+    }
+
+    /**
+     * Gets the living item entities touching the given box.
+     *
+     * @param box   the box to search.
+     * @param items only return entities of these items, or null to return all.
+     */
+    public List<ItemEntity> getItems(AABB box, @Nullable Set<Item> items) {
+        long tick = this.level.getGameTime();
+        if (this.sectionsTick != tick) {
+            this.sections.clear();
+            this.sectionsTick = tick;
+        }
+
+        List<ItemEntity> result = new ArrayList<>();
+        //item entities are assigned to the section of their position, which may be just outside of the box
+        int minX = SectionPos.posToSectionCoord(box.minX - 1), maxX = SectionPos.posToSectionCoord(box.maxX + 1);
+        int minY = SectionPos.posToSectionCoord(box.minY - 1), maxY = SectionPos.posToSectionCoord(box.maxY + 1);
+        int minZ = SectionPos.posToSectionCoord(box.minZ - 1), maxZ = SectionPos.posToSectionCoord(box.maxZ + 1);
+        for (int x = minX; x <= maxX; x++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                for (int y = minY; y <= maxY; y++) {
+                    var section = this.getSection(x, y, z);
+                    if (section.isEmpty())
+                        continue;
+
+                    for (var entry : section.entrySet()) {
+                        if (items != null && !items.contains(entry.getKey()))
+                            continue;
+
+                        for (var item : entry.getValue()) {
+                            if (item.isAlive() && item.getBoundingBox().intersects(box))
+                                result.add(item);
+                        }
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    protected Map<Item, List<ItemEntity>> getSection(int x, int y, int z) {
+        long key = SectionPos.asLong(x, y, z);
+        var section = this.sections.get(key);
+        if (section == null) {
+            section = new Reference2ObjectOpenHashMap<>();
+            var bounds = new AABB(SectionPos.sectionToBlockCoord(x), SectionPos.sectionToBlockCoord(y), SectionPos.sectionToBlockCoord(z),
+                    SectionPos.sectionToBlockCoord(x + 1), SectionPos.sectionToBlockCoord(y + 1), SectionPos.sectionToBlockCoord(z + 1));
+            for (var item : this.level.getEntitiesOfClass(ItemEntity.class, bounds, Entity::isAlive)) {
+                //entities can touch several sections, only keep them in the one they are in
+                if (SectionPos.asLong(item.blockPosition()) == key)
+                    section.computeIfAbsent(item.getItem().getItem(), k -> new ArrayList<>()).add(item);
+            }
+            this.sections.put(key, section);
+        }
+        return section;
+    }
+
+    /**
+     * Checks if the spirit can see the item, remembering the result for LINE_OF_SIGHT_TTL_TICKS.
+     */
+    public boolean hasLineOfSight(LivingEntity spirit, Entity item) {
+        long time = this.level.getGameTime();
+        long key = ((long) spirit.getId() << 32) | (item.getId() & 0xFFFFFFFFL);
+        if (this.lineOfSight.containsKey(key)) {
+            long cached = this.lineOfSight.get(key);
+            if ((cached >> 1) > time)
+                return (cached & 1) != 0;
+        }
+
+        if (this.lineOfSight.size() >= MAX_LINE_OF_SIGHT_ENTRIES)
+            this.lineOfSight.clear();
+
+        boolean result = spirit.hasLineOfSight(item);
+        this.lineOfSight.put(key, ((time + LINE_OF_SIGHT_TTL_TICKS) << 1) | (result ? 1 : 0));
+        return result;
+    }
+}
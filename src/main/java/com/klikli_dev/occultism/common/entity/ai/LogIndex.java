@@ -0,0 +1,147 @@
+/*
+ * MIT License
+ *
+ * Copyright 2024 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.klikli_dev.occultism.common.entity.ai;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.tags.BlockTags;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.levelgen.structure.BoundingBox;
+
+import java.util.Map;
+
+/**
+ * Index of the log blocks of a server level by chunk section, shared by all lumberjacks.
+ * Sections whose palette contains no logs are skipped without looking at their blocks. Sections are indexed when first
+ * requested and dropped when a block in them changes or their chunk unloads. As some block changes do not notify
+ * neighbors, sections are also indexed again after a while.
+ * <p>
+ * Only used on the server thread.
+ */
+public class LogIndex {
+
+    public static final int SECTION_EXPIRY_TICKS = 20 * 60;
+
+    private static final Map<Level, LogIndex> indices = new Reference2ObjectOpenHashMap<>();
+
+    protected final Level level;
+    protected final Long2ObjectOpenHashMap<IndexedSection> sections = new Long2ObjectOpenHashMap<>();
+
+    public LogIndex(Level level) {
+        this.level = level;
+    }
+
+    public static LogIndex get(Level level) {
+        return indices.computeIfAbsent(level, LogIndex::new);
+    }
+
+    public static void remove(Level level) {
+        indices.remove(level);
+    }
+
+    /**
+     * Drops all indexed sections, e.g. if the log tag changed.
+     */
+    public static void invalidateAll() {
+        indices.clear();
+    }
+
+    public static void onBlockChanged(Level level, BlockPos pos) {
+        //do not create an index for a level that never used one
+        var index = indices.get(level);
+        if (index != null)
+            index.sections.remove(SectionPos.asLong(pos));
+    }
+
+    public static void onChunkUnload(Level level, ChunkPos chunk) {
+        var index = indices.get(level);
+        if (index == null)
+            return;
+
+        for (int sectionY = level.getMinSection(); sectionY < level.getMaxSection(); sectionY++) {
+            index.sections.remove(SectionPos.asLong(chunk.x, sectionY, chunk.z));
+        }
+    }
+
+    protected static LongArrayList findLogs(LevelChunkSection section, SectionPos sectionPos) {
+        var logs = new LongArrayList();
+        //the palette tells us if the section can contain logs at all, most sections in a work area do not.
+        if (section.hasOnlyAir() || !section.maybeHas(state -> state.is(BlockTags.LOGS)))
+            return logs;
+
+        for (int y = 0; y < SectionPos.SECTION_SIZE; y++) {
+            for (int z = 0; z < SectionPos.SECTION_SIZE; z++) {
+                for (int x = 0; x < SectionPos.SECTION_SIZE; x++) {
+                    if (section.getBlockState(x, y, z).is(BlockTags.LOGS))
+                        logs.add(BlockPos.asLong(sectionPos.minBlockX() + x, sectionPos.minBlockY() + y, sectionPos.minBlockZ() + z));
+                }
+            }
+        }
+        return logs;
+    }
+
+    /**
+     * Gets the positions of all logs inside the given area. Chunks that are not loaded are skipped.
+     *
+     * @param area the area to search, inclusive.
+     * @return the packed positions of the logs.
+     */
+    public LongArrayList getLogs(BoundingBox area) {
+        var result = new LongArrayList();
+        long time = this.level.getGameTime();
+        int minSectionY = Math.max(SectionPos.blockToSectionCoord(area.minY()), this.level.getMinSection());
+        int maxSectionY = Math.min(SectionPos.blockToSectionCoord(area.maxY()), this.level.getMaxSection() - 1);
+
+        for (int chunkX = SectionPos.blockToSectionCoord(area.minX()); chunkX <= SectionPos.blockToSectionCoord(area.maxX()); chunkX++) {
+            for (int chunkZ = SectionPos.blockToSectionCoord(area.minZ()); chunkZ <= SectionPos.blockToSectionCoord(area.maxZ()); chunkZ++) {
+                var chunk = this.level.getChunkSource().getChunkNow(chunkX, chunkZ);
+                if (chunk == null)
+                    continue;
+
+                for (int sectionY = minSectionY; sectionY <= maxSectionY; sectionY++) {
+                    long key = SectionPos.asLong(chunkX, sectionY, chunkZ);
+                    var indexed = this.sections.get(key);
+                    if (indexed == null || time - indexed.time() > SECTION_EXPIRY_TICKS) {
+                        var section = chunk.getSection(this.level.getSectionIndexFromSectionY(sectionY));
+                        indexed = new IndexedSection(findLogs(section, SectionPos.of(chunkX, sectionY, chunkZ)), time);
+                        this.sections.put(key, indexed);
+                    }
+
+                    for (int i = 0; i < indexed.logs().size(); i++) {
+                        long pos = indexed.logs().getLong(i);
+                        if (area.isInside(BlockPos.getX(pos), BlockPos.getY(pos), BlockPos.getZ(pos)))
+                            result.add(pos);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    protected record IndexedSection(LongArrayList logs, long time) {
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * MIT License
+ *
+ * Copyright 2024 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.klikli_dev.occultism.common.entity.ai;
+
+import com.klikli_dev.occultism.Occultism;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.level.Level;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Limits the time the spirits of a server level spend on job updates and sensor scans per tick.
+ * Once the budget of a tick is used up, further work is deferred to the next tick. Work that was already deferred
+ * always runs, so no spirit is starved. Periodic scans are additionally spread over their interval by a per spirit
+ * phase, so spirits loaded together do not all scan on the same tick.
+ * <p>
+ * Only used on the server thread.
+ */
+public class SpiritAIScheduler {
+
+    private static final Map<Level, SpiritAIScheduler> schedulers = new Reference2ObjectOpenHashMap<>();
+
+    protected final EnumMap<WorkType, Stats> stats = new EnumMap<>(WorkType.class);
+    protected long currentTick = Long.MIN_VALUE;
+    protected long budgetNanos;
+    protected long usedNanos;
+    public long ticksOverBudget;
+    public long maxTickNanos;
+
+    public SpiritAIScheduler() {
+        for (var type : WorkType.values()) {
+            this.stats.put(type, new Stats());
+        }
+    }
+
+    public static SpiritAIScheduler get(Level level) {
+        return schedulers.computeIfAbsent(level, l -> new SpiritAIScheduler());
+    }
+
+    public static void remove(Level level) {
+        schedulers.remove(level);
+    }
+
+    public static Map<Level, SpiritAIScheduler> getSchedulers() {
+        return schedulers;
+    }
+
+    /**
+     * @return the tick offset of the given spirit within the given interval.
+     */
+    public static int getPhase(Entity entity, int interval) {
+        return Math.floorMod(entity.getUUID().hashCode(), interval);
+    }
+
+    protected void startTick(long tick) {
+        if (this.currentTick == tick)
+            return;
+
+        if (this.budgetNanos > 0 && this.usedNanos > this.budgetNanos)
+            this.ticksOverBudget++;
+        this.maxTickNanos = Math.max(this.maxTickNanos, this.usedNanos);
+
+        this.currentTick = tick;
+        this.usedNanos = 0;
+        this.budgetNanos = Occultism.SERVER_CONFIG.spiritJobs.spiritAiTickBudgetMicros.get() * 1000L;
+    }
+
+    /**
+     * Checks if work can run in the current tick.
+     *
+     * @param level           the level of the spirit.
+     * @param type            the type of work.
+     * @param alreadyDeferred true if the work was deferred last tick, it then runs regardless of the budget.
+     * @return true if the work can run, false if it is deferred.
+     */
+    public boolean begin(Level level, WorkType type, boolean alreadyDeferred) {
+        this.startTick(level.getGameTime());
+        if (!alreadyDeferred && this.budgetNanos > 0 && this.usedNanos >= this.budgetNanos) {
+            this.stats.get(type).deferred++;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Records work that ran after {@link #begin(Level, WorkType, boolean)} allowed it.
+     *
+     * @param type       the type of work.
+     * @param startNanos the {@link System#nanoTime()} the work started at.
+     */
+    public void end(WorkType type, long startNanos) {
+        long nanos = System.nanoTime() - startNanos;
+        this.usedNanos += nanos;
+        var typeStats = this.stats.get(type);
+        typeStats.runs++;
+        typeStats.totalNanos += nanos;
+    }
+
+    public Stats getStats(WorkType type) {
+        return this.stats.get(type);
+    }
+
+    public void reset() {
+        for (var typeStats : this.stats.values()) {
+            typeStats.runs = 0;
+            typeStats.deferred = 0;
+            typeStats.totalNanos = 0;
+        }
+        this.ticksOverBudget = 0;
+        this.maxTickNanos = 0;
+    }
+
+    public enum WorkType {
+        JOB_UPDATE,
+        SENSOR
+    }
+
+    public static class Stats {
+        public long runs;
+        public long deferred;
+        public long totalNanos;
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * MIT License
+ *
+ * Copyright 2024 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.klikli_dev.occultism.common.entity.ai;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.entity.PathfinderMob;
+import net.minecraft.world.level.pathfinder.Path;
+import net.minecraft.world.phys.Vec3;
+
+import javax.annotation.Nullable;
+
+/**
+ * Moves a spirit towards the target of a goal, keeping the current path as long as the target stays the same and the
+ * spirit makes progress, instead of searching a new path every tick.
+ * A new path is searched when the target changes, the path ended or was replaced by another goal, or the spirit
+ * got stuck. Paths are shared between spirits through the SpiritRouteCache.
+ */
+public class SpiritMovement {
+
+    /**
+     * Interval in which the spirit needs to have moved at least STUCK_DISTANCE blocks while following a path.
+     */
+    public static final int STUCK_CHECK_INTERVAL_TICKS = 40;
+    public static final double STUCK_DISTANCE = 0.5;
+
+    protected final PathfinderMob entity;
+    @Nullable
+    protected BlockPos target;
+    @Nullable
+    protected BlockPos pathStart;
+    @Nullable
+    protected BlockPos pathTarget;
+    @Nullable
+    protected Path path;
+    protected Vec3 lastCheckPosition = Vec3.ZERO;
+    protected long lastCheckTime;
+
+    public SpiritMovement(PathfinderMob entity) {
+        this.entity = entity;
+    }
+
+    /**
+     * Moves towards the given target, only searching a new path if needed.
+     *
+     * @param target     the block the spirit wants to reach, a new path is searched if it changes.
+     * @param moveTarget the position to path to for the given target.
+     */
+    public void moveTo(BlockPos target, BlockPos moveTarget) {
+        var navigation = this.entity.getNavigation();
+        long time = this.entity.level().getGameTime();
+
+        //block changes along the path make the navigation recompute it, we keep following the new path
+        if (this.path != null && navigation.getPath() != null && navigation.getPath() != this.path &&
+                navigation.getPath().getTarget().equals(this.pathTarget))
+            this.path = navigation.getPath();
+
+        if (target.equals(this.target) && this.path != null && navigation.getPath() == this.path && !navigation.isDone()) {
+            if (time - this.lastCheckTime < STUCK_CHECK_INTERVAL_TICKS)
+                return;
+
+            boolean stuck = this.entity.position().distanceToSqr(this.lastCheckPosition) < STUCK_DISTANCE * STUCK_DISTANCE;
+            this.lastCheckPosition = this.entity.position();
+            this.lastCheckTime = time;
+            if (!stuck)
+                return;
+
+            //the remembered route led us here, so do not hand it out again
+            SpiritRouteCache.get(this.entity.level()).removePath(this.entity.getType(), this.pathStart, this.pathTarget);
+        }
+
+        this.target = target.immutable();
+        this.pathStart = this.entity.blockPosition();
+        this.pathTarget = moveTarget.immutable();
+        this.lastCheckPosition = this.entity.position();
+        this.lastCheckTime = time;
+
+        var routeCache = SpiritRouteCache.get(this.entity.level());
+        this.path = routeCache.getPath(this.entity.getType(), this.pathStart, moveTarget, time);
+        if (this.path == null) {
+            this.path = navigation.createPath(moveTarget, 0);
+            if (this.path != null)
+                routeCache.putPath(this.entity.getType(), this.pathStart, moveTarget, this.path, time);
+        }
+        navigation.moveTo(this.path, 1.0f);
+    }
+
+    /**
+     * Forgets the current path, the next call to moveTo searches a new one.
+     */
+    public void reset() {
+        this.target = null;
+        this.pathStart = null;
+        this.pathTarget = null;
+        this.path = null;
+    }
+}
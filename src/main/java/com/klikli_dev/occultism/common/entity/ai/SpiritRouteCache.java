@@ -0,0 +1,109 @@
+/*
+ * MIT License
+ *
+ * Copyright 2024 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.klikli_dev.occultism.common.entity.ai;
+
+import it.unimi.dsi.fastutil.objects.Object2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.entity.EntityType;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.pathfinder.Node;
+import net.minecraft.world.level.pathfinder.Path;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Remembers recently found paths of a server level by entity type, start and target position.
+ * Spirits shuttling between the same deposit and extract targets start their trips from the same few positions, so
+ * most of their paths can be reused instead of searched again.
+ * <p>
+ * Routes expire after a while, block changes along a route in use are handled by the navigation recomputing the path.
+ * Only used on the server thread.
+ */
+public class SpiritRouteCache {
+
+    public static final int MAX_ROUTES = 256;
+    public static final int ROUTE_EXPIRY_TICKS = 20 * 30;
+
+    private static final Map<Level, SpiritRouteCache> caches = new Reference2ObjectOpenHashMap<>();
+
+    protected final Object2ObjectLinkedOpenHashMap<Route, CachedPath> routes = new Object2ObjectLinkedOpenHashMap<>();
+
+    public static SpiritRouteCache get(Level level) {
+        return caches.computeIfAbsent(level, l -> new SpiritRouteCache());
+    }
+
+    public static void remove(Level level) {
+        caches.remove(level);
+    }
+
+    protected static Path copy(Path path) {
+        List<Node> nodes = new ArrayList<>(path.getNodeCount());
+        for (int i = 0; i < path.getNodeCount(); i++) {
+            nodes.add(path.getNode(i));
+        }
+        return new Path(nodes, path.getTarget(), path.canReach());
+    }
+
+    /**
+     * @return a fresh copy of the remembered path from start to target, or null if there is none.
+     */
+    @Nullable
+    public Path getPath(EntityType<?> type, BlockPos start, BlockPos target, long time) {
+        var route = new Route(type, start.asLong(), target.asLong());
+        var cached = this.routes.getAndMoveToLast(route);
+        if (cached == null)
+            return null;
+
+        if (time - cached.time() > ROUTE_EXPIRY_TICKS) {
+            this.routes.remove(route);
+            return null;
+        }
+        return copy(cached.path());
+    }
+
+    public void putPath(EntityType<?> type, BlockPos start, BlockPos target, Path path, long time) {
+        //incomplete paths depend too much on where the search gave up to be worth sharing
+        if (!path.canReach())
+            return;
+
+        this.routes.putAndMoveToLast(new Route(type, start.asLong(), target.asLong()), new CachedPath(copy(path), time));
+        if (this.routes.size() > MAX_ROUTES)
+            this.routes.removeFirst();
+    }
+
+    public void removePath(EntityType<?> type, BlockPos start, BlockPos target) {
+        this.routes.remove(new Route(type, start.asLong(), target.asLong()));
+    }
+
+    /**
+     * Routes are kept per entity type, as a path found for a small spirit may not fit a larger one.
+     */
+    protected record Route(EntityType<?> type, long start, long target) {
+    }
+
+    protected record CachedPath(Path path, long time) {
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * MIT License
+ *
+ * Copyright 2024 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.klikli_dev.occultism.common.entity.ai;
+
+import com.klikli_dev.occultism.common.entity.ai.sensor.NearestTreeSensor;
+import com.klikli_dev.occultism.common.entity.spirit.SpiritEntity;
+import it.unimi.dsi.fastutil.longs.LongArrayFIFOQueue;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.block.Block;
+import net.neoforged.neoforge.items.ItemHandlerHelper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fells the connected logs of a tree over several ticks, breaking a limited amount of logs per call.
+ * Drops are merged into a loot buffer instead of being spawned as item entities, and handed to the spirit once the
+ * tree is down.
+ */
+public class TreeFeller {
+
+    protected final ServerLevel level;
+    protected final SpiritEntity entity;
+    protected final BlockPos base;
+    protected final LongArrayFIFOQueue queue = new LongArrayFIFOQueue();
+    protected final LongOpenHashSet visited = new LongOpenHashSet();
+    protected final List<ItemStack> loot = new ArrayList<>();
+
+    public TreeFeller(ServerLevel level, SpiritEntity entity, BlockPos base) {
+        this.level = level;
+        this.entity = entity;
+        this.base = base.immutable();
+        this.enqueue(this.base.asLong());
+    }
+
+    public BlockPos getBase() {
+        return this.base;
+    }
+
+    protected void enqueue(long pos) {
+        if (this.visited.add(pos))
+            this.queue.enqueue(pos);
+    }
+
+    /**
+     * Breaks up to the given amount of logs.
+     *
+     * @param budget the maximum amount of logs to break.
+     * @return true if the tree is completely felled.
+     */
+    public boolean fell(int budget) {
+        var pos = new BlockPos.MutableBlockPos();
+        while (budget > 0 && !this.queue.isEmpty()) {
+            pos.set(this.queue.dequeueLong());
+            if (!NearestTreeSensor.isLog(this.level, pos))
+                continue;
+
+            for (Direction facing : Direction.Plane.HORIZONTAL) {
+                this.enqueue(BlockPos.offset(pos.asLong(), facing));
+            }
+
+            for (int x = -1; x <= 1; x++) {
+                for (int z = -1; z <= 1; z++) {
+                    this.enqueue(BlockPos.offset(pos.asLong(), x, 1, z));
+                }
+            }
+
+            this.breakLog(pos);
+            budget--;
+        }
+        return this.queue.isEmpty();
+    }
+
+    protected void breakLog(BlockPos pos) {
+        var state = this.level.getBlockState(pos);
+        var blockEntity = state.hasBlockEntity() ? this.level.getBlockEntity(pos) : null;
+        for (var drop : Block.getDrops(state, this.level, pos, blockEntity, this.entity, ItemStack.EMPTY)) {
+            this.addLoot(drop);
+        }
+        state.spawnAfterBreak(this.level, pos, ItemStack.EMPTY, true);
+        //break without drops, but with the usual particles, sound and block updates
+        this.level.destroyBlock(pos, false, this.entity);
+    }
+
+    protected void addLoot(ItemStack drop) {
+        for (var stack : this.loot) {
+            if (drop.isEmpty())
+                return;
+
+            if (ItemStack.isSameItemSameComponents(stack, drop) && stack.getCount() < stack.getMaxStackSize()) {
+                int moved = Math.min(drop.getCount(), stack.getMaxStackSize() - stack.getCount());
+                stack.grow(moved);
+                drop.shrink(moved);
+            }
+        }
+        if (!drop.isEmpty())
+            this.loot.add(drop);
+    }
+
+    /**
+     * Moves the collected drops into the spirit's inventory, whatever does not fit is dropped at the base of the tree
+     * as merged stacks for the spirit to pick up later.
+     */
+    public void handOverLoot() {
+        for (var stack : this.loot) {
+            var remainder = ItemHandlerHelper.insertItemStacked(this.entity.inventory, stack, false);
+            if (!remainder.isEmpty())
+                Block.popResource(this.level, this.base, remainder);
+        }
+        this.loot.clear();
+    }
+}
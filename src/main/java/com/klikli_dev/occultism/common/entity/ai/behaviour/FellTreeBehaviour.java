@@ -1,19 +1,18 @@
 package com.klikli_dev.occultism.common.entity.ai.behaviour;
 
+import com.klikli_dev.occultism.common.entity.ai.TreeFeller;
 import com.klikli_dev.occultism.common.entity.ai.sensor.NearestTreeSensor;
 import com.klikli_dev.occultism.common.entity.spirit.SpiritEntity;
 import com.klikli_dev.occultism.registry.OccultismMemoryTypes;
 import com.mojang.datafixers.util.Pair;
 import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 import net.minecraft.core.BlockPos;
-import net.minecraft.core.Direction;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.sounds.SoundEvents;
 import net.minecraft.world.InteractionHand;
 import net.minecraft.world.entity.ai.behavior.BlockPosTracker;
 import net.minecraft.world.entity.ai.memory.MemoryModuleType;
 import net.minecraft.world.entity.ai.memory.MemoryStatus;
-import net.minecraft.world.level.Level;
 import net.minecraft.world.phys.Vec3;
 import net.tslat.smartbrainlib.api.core.behaviour.ExtendedBehaviour;
 import net.tslat.smartbrainlib.util.BrainUtils;
@@ -25,8 +24,14 @@ public class FellTreeBehaviour<E extends SpiritEntity> extends ExtendedBehaviour
     private static final List<Pair<MemoryModuleType<?>, MemoryStatus>> MEMORY_REQUIREMENTS = ObjectArrayList.of(
             Pair.of(OccultismMemoryTypes.NEAREST_TREE.get(), MemoryStatus.VALUE_PRESENT));
 
+    /**
+     * Maximum amount of logs broken per tick once the tree is chopped.
+     */
+    public static final int LOGS_PER_TICK = 16;
+
     protected int breakingTime;
     protected int previousBreakProgress;
+    protected TreeFeller treeFeller;
 
     public FellTreeBehaviour() {
         super();
@@ -55,6 +60,15 @@ public class FellTreeBehaviour<E extends SpiritEntity> extends ExtendedBehaviour
 
     @Override
     protected void tick(E entity) {
+        if (this.treeFeller != null) {
+            //the tree is chopped, fell it over the next ticks
+            if (this.treeFeller.fell(LOGS_PER_TICK)) {
+                this.finishFelling(entity);
+                this.stop((ServerLevel) entity.level(), entity, entity.level().getGameTime());
+            }
+            return;
+        }
+
         var treePos = BrainUtils.getMemory(entity, OccultismMemoryTypes.NEAREST_TREE.get());
         if (NearestTreeSensor.isLog(entity.level(), treePos)) {
             BrainUtils.setMemory(entity, MemoryModuleType.LOOK_TARGET, new BlockPosTracker(treePos));
@@ -71,10 +85,8 @@ public class FellTreeBehaviour<E extends SpiritEntity> extends ExtendedBehaviour
             }
             if (this.breakingTime == 160) {
                 entity.playSound(SoundEvents.WOOD_BREAK, 1, 1);
-                this.fellTree(entity, treePos);
-                BrainUtils.setMemory(entity, OccultismMemoryTypes.LAST_FELLED_TREE.get(), treePos);
-                this.stop((ServerLevel) entity.level(), entity, entity.level().getGameTime());
-                //we stop here (even though the above condition would save us) because sensor might reset last felled tree meanwhile
+                this.treeFeller = new TreeFeller((ServerLevel) entity.level(), entity, treePos);
+                //we keep running until the tree is felled, even though the stump is gone
             }
 
         } else {
@@ -89,46 +101,19 @@ public class FellTreeBehaviour<E extends SpiritEntity> extends ExtendedBehaviour
     }
 
     protected void stop(E entity) {
+        if (this.treeFeller != null) {
+            //if we run out of time, fell the rest of the tree right away to not leave it floating
+            this.treeFeller.fell(Integer.MAX_VALUE);
+            this.finishFelling(entity);
+        }
         BrainUtils.clearMemory(entity, OccultismMemoryTypes.NEAREST_TREE.get());
     }
 
-    private void fellTree(E entity, BlockPos treePos) {
-        Level level = entity.level();
-        BlockPos base = treePos;
-        Queue<BlockPos> blocks = new ArrayDeque<>();
-        Set<BlockPos> visited = new HashSet<>();
-        blocks.add(base);
-
-        while (!blocks.isEmpty()) {
-
-            BlockPos pos = blocks.remove();
-            if (!visited.add(pos)) {
-                continue;
-            }
-
-            if (!NearestTreeSensor.isLog(level, pos)) {
-                continue;
-            }
-
-            for (Direction facing : Direction.Plane.HORIZONTAL) {
-                BlockPos pos2 = pos.relative(facing);
-                if (!visited.contains(pos2)) {
-                    blocks.add(pos2);
-                }
-            }
-
-            for (int x = 0; x < 3; x++) {
-                for (int z = 0; z < 3; z++) {
-                    BlockPos pos2 = pos.offset(-1 + x, 1, -1 + z);
-                    if (!visited.contains(pos2)) {
-                        blocks.add(pos2);
-                    }
-                }
-            }
-
-            level.destroyBlock(pos, true);
-        }
-
+    protected void finishFelling(E entity) {
+        var treePos = this.treeFeller.getBase();
+        this.treeFeller.handOverLoot();
+        this.treeFeller = null;
+        BrainUtils.setMemory(entity, OccultismMemoryTypes.LAST_FELLED_TREE.get(), treePos);
     }
 
 }
@@ -23,11 +23,12 @@
 package com.klikli_dev.occultism.common.entity.ai.goal;
 
 import com.klikli_dev.occultism.common.entity.ai.BlockSorter;
+import com.klikli_dev.occultism.common.entity.ai.SpiritMovement;
 import com.klikli_dev.occultism.common.entity.ai.target.BlockPosMoveTarget;
 import com.klikli_dev.occultism.common.entity.ai.target.EntityMoveTarget;
 import com.klikli_dev.occultism.common.entity.ai.target.IMoveTarget;
 import com.klikli_dev.occultism.common.entity.spirit.SpiritEntity;
-
+import com.klikli_dev.occultism.common.misc.MapItemStackHandler;
 import com.klikli_dev.occultism.util.Math3DUtil;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
@@ -48,11 +49,13 @@ public class DepositItemsGoal extends PausableGoal {
 
     protected final SpiritEntity entity;
     protected final BlockSorter targetSorter;
+    protected final SpiritMovement movement;
     protected IMoveTarget moveTarget = null;
 
     public DepositItemsGoal(SpiritEntity entity) {
         this.entity = entity;
         this.targetSorter = new BlockSorter(entity);
+        this.movement = new SpiritMovement(entity);
         this.setFlags(EnumSet.of(Flag.TARGET));
     }
 
@@ -88,6 +91,7 @@ public class DepositItemsGoal extends PausableGoal {
 
     public void stop() {
         this.entity.getNavigation().stop();
+        this.movement.reset();
         this.resetTarget();
     }
 
@@ -111,8 +115,7 @@ public class DepositItemsGoal extends PausableGoal {
                     this.entity.getNavigation().stop();
                 } else {
                     //continue moving
-                    BlockPos moveTarget = this.getMoveTarget();
-                    this.entity.getNavigation().moveTo(this.entity.getNavigation().createPath(moveTarget, 0), 1.0f);
+                    this.movement.moveTo(this.moveTarget.getBlockPos(), this.getMoveTarget());
                 }
 
                 //when close enough insert item
@@ -125,13 +128,22 @@ public class DepositItemsGoal extends PausableGoal {
                     }
                     ItemStack duplicate = this.entity.getItemInHand(InteractionHand.MAIN_HAND).copy();
 
-                    //simulate insertion
-                    ItemStack toInsert = ItemHandlerHelper.insertItem(handler, duplicate, true);
-                    //if anything was inserted go for real
+                    ItemStack toInsert;
+                    if (handler instanceof MapItemStackHandler mapItemStackHandler) {
+                        //storage actuators validate limits before inserting, so we can insert right away without simulating first
+                        toInsert = mapItemStackHandler.insertItem(duplicate, false);
+                    } else {
+                        //simulate insertion
+                        toInsert = ItemHandlerHelper.insertItem(handler, duplicate, true);
+                        //if anything was inserted go for real
+                        if (toInsert.getCount() != duplicate.getCount()) {
+                            toInsert = ItemHandlerHelper.insertItem(handler, duplicate, false);
+                        }
+                    }
+
                     if (toInsert.getCount() != duplicate.getCount()) {
-                        ItemStack leftover = ItemHandlerHelper.insertItem(handler, duplicate, false);
+                        this.entity.setItemInHand(InteractionHand.MAIN_HAND, toInsert);
                         //if we inserted everything
-                        this.entity.setItemInHand(InteractionHand.MAIN_HAND, leftover);
                         if (toInsert.isEmpty()) {
                             this.moveTarget = null;
                             this.stop();
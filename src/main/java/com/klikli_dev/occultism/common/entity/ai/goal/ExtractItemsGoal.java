@@ -23,9 +23,13 @@
 package com.klikli_dev.occultism.common.entity.ai.goal;
 
 import com.klikli_dev.occultism.common.entity.ai.BlockSorter;
+import com.klikli_dev.occultism.common.entity.ai.SpiritMovement;
 import com.klikli_dev.occultism.common.entity.spirit.SpiritEntity;
+import com.klikli_dev.occultism.common.misc.ItemStackComparator;
 import com.klikli_dev.occultism.common.misc.ItemStackKey;
 import com.klikli_dev.occultism.common.misc.MapItemStackHandler;
+import com.klikli_dev.occultism.common.misc.StorageControllerMapItemStackHandler;
+import com.klikli_dev.occultism.common.misc.StorageTransaction;
 import com.klikli_dev.occultism.util.Math3DUtil;
 import com.klikli_dev.occultism.util.StorageUtil;
 import net.minecraft.core.BlockPos;
@@ -47,11 +51,13 @@ public class ExtractItemsGoal extends PausableGoal {
 
     protected final SpiritEntity entity;
     protected final BlockSorter targetSorter;
+    protected final SpiritMovement movement;
     protected BlockPos targetBlock = null;
 
     public ExtractItemsGoal(SpiritEntity entity) {
         this.entity = entity;
         this.targetSorter = new BlockSorter(entity);
+        this.movement = new SpiritMovement(entity);
         this.setFlags(EnumSet.of(Flag.TARGET));
     }
 
@@ -88,6 +94,7 @@ public class ExtractItemsGoal extends PausableGoal {
 
     public void stop() {
         this.entity.getNavigation().stop();
+        this.movement.reset();
         this.resetTarget();
     }
 
@@ -113,8 +120,7 @@ public class ExtractItemsGoal extends PausableGoal {
                     this.entity.getNavigation().stop();
                 } else {
                     //continue moving
-                    BlockPos moveTarget = this.getMoveTarget();
-                    this.entity.getNavigation().moveTo(this.entity.getNavigation().createPath(moveTarget, 0), 1.0f);
+                    this.movement.moveTo(this.targetBlock, this.getMoveTarget());
                 }
 
                 //when close enough extract item
@@ -169,6 +175,9 @@ public class ExtractItemsGoal extends PausableGoal {
             return false;
 
 
+        var storageController = mapItemStackHandler instanceof StorageControllerMapItemStackHandler storageHandler ?
+                storageHandler.getStorageController() : null;
+
         boolean filterEmpty = true;
         for (int i = 0; i < itemFilter.getSlots(); i++) {
             var filterItem = itemFilter.getStackInSlot(i);
@@ -178,13 +187,24 @@ public class ExtractItemsGoal extends PausableGoal {
 
             filterEmpty = false;
 
-            var extractStack = mapItemStackHandler.extractItemIgnoreComponents(filterItem, Integer.MAX_VALUE, true);
-            if (!extractStack.isEmpty()) {
-                var inserted = ItemHandlerHelper.insertItemStacked(entityHandler, extractStack, true);
+            //actuators extract through their controller, so the whole storage network is used.
+            var extractStack = storageController != null ?
+                    storageController.getItemStack(new ItemStackComparator(filterItem, false), Integer.MAX_VALUE, true) :
+                    mapItemStackHandler.extractItemIgnoreComponents(filterItem, Integer.MAX_VALUE, true);
+            if (extractStack.isEmpty()) {
+                continue;
+            }
 
-                if (inserted.getCount() != extractStack.getCount()) {
-                    ItemStack remaining = ItemHandlerHelper.insertItemStacked(entityHandler, extractStack, false);
-                    mapItemStackHandler.extractItem(ItemStackKey.of(extractStack), extractStack.getCount() - remaining.getCount(), false);
+            //take from the storage first, and only hand the spirit what was actually taken.
+            ItemStack remaining = ItemHandlerHelper.insertItemStacked(entityHandler, extractStack, true);
+            int insertable = extractStack.getCount() - remaining.getCount();
+            if (insertable > 0) {
+                var transaction = new StorageTransaction().extract(ItemStackKey.of(extractStack), insertable);
+                boolean committed = storageController != null ?
+                        storageController.commit(transaction, false) :
+                        mapItemStackHandler.commit(transaction, false);
+                if (committed) {
+                    ItemHandlerHelper.insertItemStacked(entityHandler, extractStack.copyWithCount(insertable), false);
                     return true;
                 }
             }
@@ -26,6 +26,7 @@ import com.klikli_dev.occultism.api.common.blockentity.IStorageController;
 import com.klikli_dev.occultism.api.common.blockentity.IStorageControllerProxy;
 import com.klikli_dev.occultism.api.common.data.MachineReference;
 import com.klikli_dev.occultism.common.entity.ai.BlockSorter;
+import com.klikli_dev.occultism.common.entity.ai.SpiritMovement;
 import com.klikli_dev.occultism.common.entity.job.ManageMachineJob;
 import com.klikli_dev.occultism.common.entity.spirit.SpiritEntity;
 import com.klikli_dev.occultism.common.misc.DepositOrder;
@@ -52,6 +53,7 @@ import java.util.stream.Stream;
 public class ManageMachineGoal extends Goal {
     protected final SpiritEntity entity;
     protected final BlockSorter targetSorter;
+    protected final SpiritMovement movement;
     protected BlockPos targetBlock = null;
     protected BlockEntity cachedStorageAccessor;
     protected DepositOrder cachedStorageAccessorOrder;
@@ -61,6 +63,7 @@ public class ManageMachineGoal extends Goal {
         this.entity = entity;
         this.job = job;
         this.targetSorter = new BlockSorter(entity);
+        this.movement = new SpiritMovement(entity);
         this.setFlags(EnumSet.of(Flag.MOVE));
     }
 
@@ -94,6 +97,7 @@ public class ManageMachineGoal extends Goal {
 
     public void stop() {
         this.entity.getNavigation().stop();
+        this.movement.reset();
         this.resetTarget();
     }
 
@@ -117,8 +121,7 @@ public class ManageMachineGoal extends Goal {
                     this.entity.getNavigation().stop();
                 } else {
                     //continue moving
-                    BlockPos moveTarget = this.getMoveTarget();
-                    this.entity.getNavigation().moveTo(this.entity.getNavigation().createPath(moveTarget, 0), 1.0f);
+                    this.movement.moveTo(this.targetBlock, this.getMoveTarget());
                 }
 
                 //when close enough, interact
@@ -24,6 +24,8 @@ package com.klikli_dev.occultism.common.entity.ai.goal;
 
 import com.google.common.base.Predicate;
 import com.klikli_dev.occultism.common.entity.ai.EntitySorter;
+import com.klikli_dev.occultism.common.entity.ai.ItemEntityIndex;
+import com.klikli_dev.occultism.common.entity.job.SpiritJob;
 import com.klikli_dev.occultism.common.entity.spirit.SpiritEntity;
 
 import net.minecraft.world.entity.ai.goal.target.TargetGoal;
@@ -87,8 +89,10 @@ public class PickupItemsGoal extends TargetGoal {
         AABB targetBox = new AABB(-workAreaSize, -workAreaSize / 2.0, -workAreaSize, workAreaSize,
                 workAreaSize / 2.0, workAreaSize).move(this.entity.getWorkAreaCenter());
 
-        List<ItemEntity> list = this.mob.level()
-                .getEntitiesOfClass(ItemEntity.class, targetBox, this.targetItemSelector);
+        var index = ItemEntityIndex.get(this.mob.level());
+        var items = index.getItemSet(this.entity.getJob().map(SpiritJob::getItemsToPickUp).orElse(List.of()));
+        List<ItemEntity> list = index.getItems(targetBox, items);
+        list.removeIf(item -> !this.targetItemSelector.apply(item));
         if (list.isEmpty()) {
             return false;
         } else {
@@ -2,6 +2,8 @@ package com.klikli_dev.occultism.common.entity.ai.sensor;
 
 import com.klikli_dev.occultism.Occultism;
 import com.klikli_dev.occultism.OccultismConstants;
+import com.klikli_dev.occultism.common.entity.ai.ItemEntityIndex;
+import com.klikli_dev.occultism.common.entity.job.SpiritJob;
 import com.klikli_dev.occultism.common.entity.spirit.SpiritEntity;
 import com.klikli_dev.occultism.network.messages.MessageSelectBlock;
 import com.klikli_dev.occultism.network.Networking;
@@ -16,19 +18,22 @@ import net.minecraft.world.phys.AABB;
 import net.tslat.smartbrainlib.api.core.sensor.ExtendedSensor;
 import net.tslat.smartbrainlib.api.core.sensor.PredicateSensor;
 import net.tslat.smartbrainlib.util.BrainUtils;
-import net.tslat.smartbrainlib.util.EntityRetrievalUtil;
 import java.util.List;
 
 public class NearestJobItemSensor<E extends SpiritEntity> extends PredicateSensor<ItemEntity, E> {
     public static final int DEFAULT_SCAN_RATE_TICKS = 20;
     private static final List<MemoryModuleType<?>> MEMORIES = ObjectArrayList.of(MemoryModuleType.NEAREST_VISIBLE_WANTED_ITEM);
 
+    protected final SensorSchedule<E> schedule;
+
     public NearestJobItemSensor() {
         super((item, entity) -> {
-            return entity.canPickupItem(item) && entity.hasLineOfSight(item);
+            return entity.canPickupItem(item) && ItemEntityIndex.get(entity.level()).hasLineOfSight(entity, item);
         });
 
-        this.setScanRate((entity) -> DEFAULT_SCAN_RATE_TICKS);
+        //tick every tick, the schedule decides when to scan
+        this.setScanRate((entity) -> 1);
+        this.schedule = new SensorSchedule<>(DEFAULT_SCAN_RATE_TICKS, this::scan);
     }
 
     public List<MemoryModuleType<?>> memoriesUsed() {
@@ -40,6 +45,11 @@ public class NearestJobItemSensor<E extends SpiritEntity> extends PredicateSenso
     }
 
     protected void doTick(ServerLevel level, E entity) {
+        //scans are spread over the interval and limited by the spirit AI budget
+        this.schedule.tick(level, entity);
+    }
+
+    protected void scan(ServerLevel level, E entity) {
 
         //exit if we already have a desired item, to avoid switching back and forth if we lose LoS during movement
         if (BrainUtils.hasMemory(entity, MemoryModuleType.NEAREST_VISIBLE_WANTED_ITEM)) {
@@ -68,13 +78,19 @@ public class NearestJobItemSensor<E extends SpiritEntity> extends PredicateSenso
         var aabb = new AABB(workAreaCenter.getCenter().add(-workAreaSize / 2f, -workAreaSize / 2f, -workAreaSize / 2f),
                 workAreaCenter.getCenter().add(workAreaSize / 2f, workAreaSize / 2f, workAreaSize / 2f));
 
-        ItemEntity nearestEntity = EntityRetrievalUtil.getNearestEntity(level,
-                aabb, entity.position(), (obj) -> {
-                    if (obj instanceof ItemEntity item) {
-                        return this.predicate().test(item, entity);
-                    }
-                    return false;
-                });
+        var index = ItemEntityIndex.get(level);
+        var items = index.getItemSet(entity.getJob().map(SpiritJob::getItemsToPickUp).orElse(List.of()));
+
+        //check the cheap distance first, so line of sight is only checked for items that would be closer
+        ItemEntity nearestEntity = null;
+        double nearestDistance = Double.MAX_VALUE;
+        for (var item : index.getItems(aabb, items)) {
+            double distance = item.distanceToSqr(entity);
+            if (distance < nearestDistance && this.predicate().test(item, entity)) {
+                nearestEntity = item;
+                nearestDistance = distance;
+            }
+        }
 
         BrainUtils.setMemory(entity, MemoryModuleType.NEAREST_VISIBLE_WANTED_ITEM, nearestEntity);
 
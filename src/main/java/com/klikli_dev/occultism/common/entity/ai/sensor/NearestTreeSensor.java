@@ -3,12 +3,17 @@ package com.klikli_dev.occultism.common.entity.ai.sensor;
 import com.klikli_dev.occultism.Occultism;
 import com.klikli_dev.occultism.OccultismConstants;
 import com.klikli_dev.occultism.common.entity.ai.BlockSorter;
+import com.klikli_dev.occultism.common.entity.ai.LogIndex;
 import com.klikli_dev.occultism.common.entity.spirit.SpiritEntity;
 import com.klikli_dev.occultism.network.messages.MessageSelectBlock;
 import com.klikli_dev.occultism.network.Networking;
 import com.klikli_dev.occultism.registry.OccultismMemoryTypes;
 import com.klikli_dev.occultism.registry.OccultismSensors;
 import com.klikli_dev.occultism.registry.OccultismTags;
+import it.unimi.dsi.fastutil.longs.Long2BooleanMap;
+import it.unimi.dsi.fastutil.longs.Long2BooleanOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayFIFOQueue;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
@@ -18,12 +23,13 @@ import net.minecraft.world.entity.ai.memory.MemoryModuleType;
 import net.minecraft.world.entity.ai.sensing.SensorType;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.LeavesBlock;
+import net.minecraft.world.level.levelgen.structure.BoundingBox;
 import net.tslat.smartbrainlib.api.core.sensor.ExtendedSensor;
 import net.tslat.smartbrainlib.util.BrainUtils;
 import org.jetbrains.annotations.NotNull;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Sets the NEAREST_TREE memory to the closest tree in the work area.
@@ -32,13 +38,25 @@ public class NearestTreeSensor<E extends SpiritEntity> extends ExtendedSensor<E>
 
     public static final int DEFAULT_SCAN_RATE_TICKS = 20 * 5;
     public static final int RESCAN_EMPTY_WORK_AREA_AFTER_TICKS = 20 * 30;
+    /**
+     * Horizontal distance from the stump up to which logs and leaves are considered part of the tree.
+     */
+    public static final int TREE_SEARCH_RADIUS = 8;
+    /**
+     * Maximum amount of logs and leaves visited to verify a tree.
+     */
+    public static final int MAX_TREE_BLOCKS = 2048;
     private static final List<MemoryModuleType<?>> MEMORIES = ObjectArrayList.of(
             OccultismMemoryTypes.NEAREST_TREE.get(),
             OccultismMemoryTypes.NON_TREE_LOGS.get()
     );
 
+    protected final SensorSchedule<E> schedule;
+
     public NearestTreeSensor() {
-        this.setScanRate((entity) -> DEFAULT_SCAN_RATE_TICKS);
+        //tick every tick, the schedule decides when to scan
+        this.setScanRate((entity) -> 1);
+        this.schedule = new SensorSchedule<>(DEFAULT_SCAN_RATE_TICKS, this::scan);
     }
 
     public static boolean isTreeSoil(Level level, BlockPos pos) {
@@ -66,6 +84,11 @@ public class NearestTreeSensor<E extends SpiritEntity> extends ExtendedSensor<E>
 
     @Override
     protected void doTick(@NotNull ServerLevel level, @NotNull E entity) {
+        //scans are spread over the interval and limited by the spirit AI budget
+        this.schedule.tick(level, entity);
+    }
+
+    protected void scan(@NotNull ServerLevel level, @NotNull E entity) {
 
         //if we currently have a tree, exit
         //Will be removed by the fell tree behaviour
@@ -90,24 +113,28 @@ public class NearestTreeSensor<E extends SpiritEntity> extends ExtendedSensor<E>
             }
         }
 
-        //get blocks in work area. We do /2 because we offset from the center
-        var blocksInWorkArea = BlockPos.betweenClosedStream(
+        //get logs in work area. We do /2 because we offset from the center
+        var workArea = BoundingBox.fromCorners(
                 workAreaCenter.offset(-workAreaSize / 2, -workAreaSize / 2, -workAreaSize / 2),
                 workAreaCenter.offset(workAreaSize / 2, workAreaSize / 2, workAreaSize / 2)
-        ).map(BlockPos::immutable);
+        );
+        var logsInWorkArea = LogIndex.get(level).getLogs(workArea);
 
         //filter potential stumps
-        List<BlockPos> potentialStumps = blocksInWorkArea
-                .filter(pos -> isLog(level, pos)
-                        && isTreeSoil(level, pos.below())
-                        && !nonTreeLogs.contains(pos)
-                        && !unreachableTrees.contains(pos)
-                )
-                .collect(Collectors.toList());
+        List<BlockPos> potentialStumps = new ArrayList<>();
+        for (int i = 0; i < logsInWorkArea.size(); i++) {
+            var pos = BlockPos.of(logsInWorkArea.getLong(i));
+            if (isTreeSoil(level, pos.below())
+                    && !nonTreeLogs.contains(pos)
+                    && !unreachableTrees.contains(pos))
+                potentialStumps.add(pos);
+        }
 
         //TODO: refactor to search in increaseing radiuses? (manhattan distance helper might help, or "closest match"
 
         var foundTree = false;
+        //trees verified during this scan, by every log and leaf that was visited while verifying them
+        var verifiedTrees = new Long2BooleanOpenHashMap();
         if (!potentialStumps.isEmpty()) {
             potentialStumps.sort(new BlockSorter(entity));
 
@@ -118,7 +145,7 @@ public class NearestTreeSensor<E extends SpiritEntity> extends ExtendedSensor<E>
                 }
 
                 //we only check if the stump is actually a tree one by one from closest to furthest to save perf.
-                if (this.isTree(level, potentialStump)) {
+                if (this.isTree(level, potentialStump, verifiedTrees)) {
                     //we have a tree, now we check if it is likely reachable
                     var isReachable = false;
                     for (Direction facing : Direction.Plane.HORIZONTAL) {
@@ -156,7 +183,7 @@ public class NearestTreeSensor<E extends SpiritEntity> extends ExtendedSensor<E>
         }
     }
 
-    private boolean isTree(Level level, BlockPos potentialStump) {
+    private boolean isTree(Level level, BlockPos potentialStump, Long2BooleanMap verifiedTrees) {
         if (isLog(level, potentialStump)) {
 
             //find top of tree
@@ -167,20 +194,60 @@ public class NearestTreeSensor<E extends SpiritEntity> extends ExtendedSensor<E>
 
             //find the stump of the tree
             if (isLeaf(level, topOfTree)) {
-                BlockPos logPos = this.getStump(level, topOfTree);
-                return isLog(level, logPos);
+                if (verifiedTrees.containsKey(topOfTree.asLong()))
+                    return verifiedTrees.get(topOfTree.asLong());
+                return this.isStumpLog(level, potentialStump, topOfTree, verifiedTrees);
             }
         }
         return false;
     }
 
-    private BlockPos getStump(Level level, BlockPos log) {
-        //for all nearby logs and leaves, move one block down and recurse.
-        for (BlockPos pos : BlockPos.betweenClosedStream(log.offset(-4, -4, -4), log.offset(4, 0, 4)).map(BlockPos::immutable).toList()) {
-            if (isLog(level, pos.below()) || isLeaf(level, pos.below())) {
-                return this.getStump(level, pos.below());
+    /**
+     * Flood fills the logs and leaves connected to the top of the tree, only moving sideways and downwards.
+     * The tree is valid if the lowest block reached is a log. The result is remembered for all visited blocks, so
+     * other stumps whose top was visited do not need to be checked again.
+     */
+    private boolean isStumpLog(Level level, BlockPos potentialStump, BlockPos topOfTree, Long2BooleanMap verifiedTrees) {
+        var queue = new LongArrayFIFOQueue();
+        var visited = new LongOpenHashSet();
+        queue.enqueue(topOfTree.asLong());
+        visited.add(topOfTree.asLong());
+
+        int lowestY = topOfTree.getY();
+        boolean lowestIsLog = false;
+        var pos = new BlockPos.MutableBlockPos();
+        var neighbor = new BlockPos.MutableBlockPos();
+        while (!queue.isEmpty()) {
+            pos.set(queue.dequeueLong());
+            boolean log = isLog(level, pos);
+            if (pos.getY() < lowestY) {
+                lowestY = pos.getY();
+                lowestIsLog = log;
+            } else if (pos.getY() == lowestY) {
+                lowestIsLog |= log;
             }
+
+            for (int y = -1; y <= 0; y++) {
+                for (int x = -1; x <= 1; x++) {
+                    for (int z = -1; z <= 1; z++) {
+                        neighbor.setWithOffset(pos, x, y, z);
+                        if (Math.abs(neighbor.getX() - potentialStump.getX()) > TREE_SEARCH_RADIUS ||
+                                Math.abs(neighbor.getZ() - potentialStump.getZ()) > TREE_SEARCH_RADIUS ||
+                                visited.size() >= MAX_TREE_BLOCKS || visited.contains(neighbor.asLong()))
+                            continue;
+
+                        if (isLog(level, neighbor) || isLeaf(level, neighbor)) {
+                            visited.add(neighbor.asLong());
+                            queue.enqueue(neighbor.asLong());
+                        }
+                    }
+                }
+            }
+        }
+
+        for (long visitedPos : visited) {
+            verifiedTrees.put(visitedPos, lowestIsLog);
         }
-        return log;
+        return lowestIsLog;
     }
 }
@@ -0,0 +1,63 @@
+/*
+ * MIT License
+ *
+ * Copyright 2024 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.klikli_dev.occultism.common.entity.ai.sensor;
+
+import com.klikli_dev.occultism.common.entity.ai.SpiritAIScheduler;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.entity.Entity;
+
+import java.util.function.BiConsumer;
+
+/**
+ * Runs the scan of a sensor in a fixed interval, offset by the spirit's phase and subject to the SpiritAIScheduler
+ * budget. Sensors using this need to tick every tick, the schedule decides when to actually scan.
+ */
+public class SensorSchedule<E extends Entity> {
+
+    protected final int interval;
+    protected final BiConsumer<ServerLevel, E> scan;
+    protected long nextScanTime = -1;
+    protected boolean deferred;
+
+    public SensorSchedule(int interval, BiConsumer<ServerLevel, E> scan) {
+        this.interval = interval;
+        this.scan = scan;
+    }
+
+    public void tick(ServerLevel level, E entity) {
+        long time = level.getGameTime();
+        if (this.nextScanTime < 0)
+            this.nextScanTime = time + SpiritAIScheduler.getPhase(entity, this.interval);
+        if (time < this.nextScanTime)
+            return;
+
+        var scheduler = SpiritAIScheduler.get(level);
+        this.deferred = !scheduler.begin(level, SpiritAIScheduler.WorkType.SENSOR, this.deferred);
+        if (this.deferred)
+            return;
+
+        long start = System.nanoTime();
+        this.nextScanTime = time + this.interval;
+        this.scan.accept(level, entity);
+        scheduler.end(SpiritAIScheduler.WorkType.SENSOR, start);
+    }
+}
@@ -24,6 +24,7 @@ package com.klikli_dev.occultism.common.entity.familiar;
 
 import com.google.common.collect.ImmutableList;
 import com.klikli_dev.occultism.common.advancement.FamiliarTrigger;
+import com.klikli_dev.occultism.common.entity.ai.ItemEntityIndex;
 import com.klikli_dev.occultism.registry.OccultismAdvancements;
 import com.klikli_dev.occultism.registry.OccultismEffects;
 import com.klikli_dev.occultism.registry.OccultismEntities;
@@ -41,6 +42,7 @@ import net.minecraft.world.entity.ai.attributes.Attributes;
 import net.minecraft.world.entity.ai.goal.*;
 import net.minecraft.world.entity.item.ItemEntity;
 import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.item.Item;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.item.Items;
 import net.minecraft.world.level.Level;
@@ -51,6 +53,7 @@ import net.neoforged.neoforge.items.ItemHandlerHelper;
 import javax.annotation.Nullable;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 public class DragonFamiliarEntity extends FamiliarEntity {
 
@@ -361,9 +364,11 @@ public class DragonFamiliarEntity extends FamiliarEntity {
             }
         }
 
+        private static final Set<Item> STICKS = Set.of(Items.STICK);
+
         private ItemEntity findStick() {
-            List<ItemEntity> sticks = this.dragon.level().getEntitiesOfClass(ItemEntity.class,
-                    this.dragon.getBoundingBox().inflate(8), e -> e.getItem().getItem() == Items.STICK && e.isAlive());
+            List<ItemEntity> sticks = ItemEntityIndex.get(this.dragon.level()).getItems(
+                    this.dragon.getBoundingBox().inflate(8), STICKS);
             return sticks.isEmpty() ? null : sticks.get(0);
         }
 
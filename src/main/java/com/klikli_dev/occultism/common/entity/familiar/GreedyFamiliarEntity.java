@@ -24,6 +24,7 @@ package com.klikli_dev.occultism.common.entity.familiar;
 
 import com.google.common.collect.ImmutableList;
 import com.klikli_dev.occultism.common.advancement.FamiliarTrigger;
+import com.klikli_dev.occultism.common.entity.ai.ItemEntityIndex;
 import com.klikli_dev.occultism.registry.OccultismAdvancements;
 import com.klikli_dev.occultism.registry.OccultismEntities;
 import net.minecraft.core.BlockPos;
@@ -253,8 +254,8 @@ public class GreedyFamiliarEntity extends FamiliarEntity {
 
             IItemHandler inv = new PlayerMainInvWrapper(player.getInventory());
 
-            for (ItemEntity item : this.entity.level().getEntitiesOfClass(ItemEntity.class,
-                    this.entity.getBoundingBox().inflate(RANGE), e -> e.isAlive())) {
+            for (ItemEntity item : ItemEntityIndex.get(this.entity.level()).getItems(
+                    this.entity.getBoundingBox().inflate(RANGE), null)) {
                 ItemStack stack = item.getItem();
 
                 boolean isStackDemagnetized = false;//TODO: Find what the updated convention is for stack.hasTag() && stack.getTag().getBoolean("PreventRemoteMovement");
@@ -69,6 +69,11 @@ public abstract class ChangeTimeJob extends SpiritJob {
 
     }
 
+    @Override
+    public boolean canDeferUpdate() {
+        return false;
+    }
+
     @Override
     public void update() {
         super.update();
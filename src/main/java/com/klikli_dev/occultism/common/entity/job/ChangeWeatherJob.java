@@ -61,6 +61,11 @@ public abstract class ChangeWeatherJob extends SpiritJob {
 
     }
 
+    @Override
+    public boolean canDeferUpdate() {
+        return false;
+    }
+
     @Override
     public void update() {
         super.update();
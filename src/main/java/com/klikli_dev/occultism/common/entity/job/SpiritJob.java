@@ -118,6 +118,14 @@ public abstract class SpiritJob implements INBTSerializable<CompoundTag> {
 
     }
 
+    /**
+     * @return true if an update may be skipped for a tick when the spirit AI budget is used up.
+     * Jobs that advance timers on every update must return false, skipped updates would slow them down.
+     */
+    public boolean canDeferUpdate() {
+        return true;
+    }
+
     /**
      * Writes job data to NBT.
      *
@@ -104,6 +104,11 @@ public class TraderJob extends SpiritJob {
         this.entity.targetSelector.removeGoal(this.pickupItemsGoal);
     }
 
+    @Override
+    public boolean canDeferUpdate() {
+        return false;
+    }
+
     @Override
     public void update() {
         ItemStack handHeld = this.entity.getItemInHand(InteractionHand.MAIN_HAND);
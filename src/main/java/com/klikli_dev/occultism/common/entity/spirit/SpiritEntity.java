@@ -26,6 +26,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.klikli_dev.occultism.api.common.data.WorkAreaSize;
 import com.klikli_dev.occultism.common.container.spirit.SpiritContainer;
+import com.klikli_dev.occultism.common.entity.ai.SpiritAIScheduler;
 import com.klikli_dev.occultism.common.entity.job.SpiritJob;
 import com.klikli_dev.occultism.common.item.spirit.BookOfCallingItem;
 import com.klikli_dev.occultism.registry.OccultismMemoryTypes;
@@ -143,6 +144,7 @@ public abstract class SpiritEntity extends TamableAnimal implements ISkinnedCrea
 
     //initialized in getter, because super constructor already accesses it
     protected Optional<SpiritJob> job;
+    protected boolean jobUpdateDeferred;
     protected boolean isInitialized = false;
 
     public SpiritEntity(EntityType<? extends SpiritEntity> type, Level worldIn) {
@@ -463,8 +465,17 @@ public abstract class SpiritEntity extends TamableAnimal implements ISkinnedCrea
                     this.remove(RemovalReason.DISCARDED);
                 }
             }
-            if (!this.dead)
-                this.getJob().ifPresent(SpiritJob::update);
+            if (!this.dead && this.getJob().isPresent()) {
+                //job updates over the spirit AI budget are deferred to the next tick, unless the job relies on every update
+                var scheduler = SpiritAIScheduler.get(this.level());
+                this.jobUpdateDeferred = !scheduler.begin(this.level(), SpiritAIScheduler.WorkType.JOB_UPDATE,
+                        this.jobUpdateDeferred || !this.getJob().get().canDeferUpdate());
+                if (!this.jobUpdateDeferred) {
+                    long start = System.nanoTime();
+                    this.getJob().get().update();
+                    scheduler.end(SpiritAIScheduler.WorkType.JOB_UPDATE, start);
+                }
+            }
         }
         this.updateSwingTime();
         super.aiStep();
@@ -0,0 +1,175 @@
+/*
+ * MIT License
+ *
+ * Copyright 2024 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.klikli_dev.occultism.common.misc;
+
+import com.klikli_dev.occultism.Occultism;
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectLinkedOpenHashSet;
+import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
+import net.minecraft.Util;
+import net.minecraft.core.HolderLookup;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.Tag;
+import net.minecraft.world.item.ItemStack;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Caches the encoded tag of each {@link ItemStackKey} stored in a {@link MapItemStackHandler}.
+ * Keys are immutable, so a key only needs to be encoded once while it is stored, no matter how often the handler is saved.
+ * Newly added keys can be encoded on a background thread ahead of the next save, which joins the pending work.
+ * <p>
+ * Cached tags are shared between saves and must not be modified.
+ */
+public class ItemStackKeyTagCache {
+
+    protected final Map<ItemStackKey, CompoundTag> keyToTag = new Object2ObjectOpenHashMap<>();
+    /**
+     * Keys that were added since the last save and have not been encoded yet.
+     */
+    protected final ObjectLinkedOpenHashSet<ItemStackKey> dirty = new ObjectLinkedOpenHashSet<>();
+    /**
+     * Keys currently being encoded in the background. Removing a key drops it from here, so stale results are discarded.
+     */
+    protected final ObjectOpenHashSet<ItemStackKey> inFlight = new ObjectOpenHashSet<>();
+    @Nullable
+    protected CompletableFuture<Map<ItemStackKey, CompoundTag>> pending;
+
+    protected static CompoundTag encode(ItemStackKey key, HolderLookup.Provider provider) {
+        return (CompoundTag) key.stack().save(provider, new CompoundTag());
+    }
+
+    public void markAdded(ItemStackKey key) {
+        this.dirty.add(key);
+    }
+
+    public void markRemoved(ItemStackKey key) {
+        this.keyToTag.remove(key);
+        this.dirty.remove(key);
+        this.inFlight.remove(key);
+    }
+
+    /**
+     * Stores an already known encoding of a key, e.g. the tag it was just loaded from.
+     */
+    public void put(ItemStackKey key, CompoundTag tag) {
+        this.keyToTag.put(key, tag);
+        this.dirty.remove(key);
+    }
+
+    public void clear() {
+        this.join();
+        this.keyToTag.clear();
+        this.dirty.clear();
+        this.inFlight.clear();
+    }
+
+    public boolean hasDirty() {
+        return !this.dirty.isEmpty();
+    }
+
+    /**
+     * Starts encoding all dirty keys on a background thread, unless an encoding is already in progress.
+     * Must be called from the thread that owns the handler.
+     */
+    public void encodeDirtyAsync(HolderLookup.Provider provider) {
+        if (this.pending != null || this.dirty.isEmpty())
+            return;
+
+        List<ItemStackKey> keys = new ArrayList<>(this.dirty);
+        this.inFlight.addAll(keys);
+        this.dirty.clear();
+
+        this.pending = CompletableFuture.supplyAsync(() -> {
+            Map<ItemStackKey, CompoundTag> encoded = new Object2ObjectOpenHashMap<>(keys.size());
+            for (var key : keys) {
+                try {
+                    encoded.put(key, encode(key, provider));
+                } catch (Exception e) {
+                    //failed keys are marked dirty again on join, and the save encodes them on its own thread
+                }
+            }
+            return encoded;
+        }, Util.backgroundExecutor());
+    }
+
+    /**
+     * Waits for a pending background encoding and merges its results.
+     * Keys that failed to encode in the background are marked dirty again.
+     */
+    public void join() {
+        if (this.pending == null)
+            return;
+
+        var encoded = this.pending.join();
+        this.pending = null;
+
+        for (var key : this.inFlight) {
+            var tag = encoded.get(key);
+            if (tag != null)
+                this.keyToTag.put(key, tag);
+            else
+                this.dirty.add(key);
+        }
+        this.inFlight.clear();
+    }
+
+    /**
+     * Gets the encoded tag for the key, encoding it on the calling thread if it is not cached, e.g. because the
+     * background encoding failed.
+     * If the key cannot be encoded, the failure is logged and the item is encoded without its components, so the
+     * stored items are not lost. That fallback is not cached, so the next save tries the full encoding again.
+     *
+     * @return the encoded tag for the key.
+     */
+    public CompoundTag get(ItemStackKey key, HolderLookup.Provider provider) {
+        var tag = this.keyToTag.get(key);
+        if (tag != null)
+            return tag;
+
+        try {
+            tag = encode(key, provider);
+        } catch (Exception e) {
+            Occultism.LOGGER.error("Failed to serialize ItemStackKey: {}, saving it without components.", key, e);
+            return encodeWithoutComponents(key);
+        }
+        this.keyToTag.put(key, tag);
+        this.dirty.remove(key);
+        return tag;
+    }
+
+    /**
+     * Encodes only the item of the key, in the same format as {@link ItemStack#save(HolderLookup.Provider, Tag)}.
+     */
+    protected static CompoundTag encodeWithoutComponents(ItemStackKey key) {
+        CompoundTag tag = new CompoundTag();
+        tag.putString("id", BuiltInRegistries.ITEM.getKey(key.stack().getItem()).toString());
+        tag.putInt("count", 1);
+        return tag;
+    }
+}
@@ -52,6 +52,10 @@ public class ItemTagComparator implements IItemStackComparator {
         return comparator;
     }
 
+    public TagKey<Item> getTag() {
+        return this.tag;
+    }
+
     @Override
     public boolean matches(@Nonnull ItemStack stack) {
         if (stack.isEmpty())
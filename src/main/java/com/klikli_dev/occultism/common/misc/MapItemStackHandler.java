@@ -1,17 +1,20 @@
 package com.klikli_dev.occultism.common.misc;
 
-import com.google.common.collect.BiMap;
-import com.google.common.collect.HashBiMap;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Multimap;
-import com.klikli_dev.occultism.Occultism;
 import com.mojang.datafixers.util.Pair;
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
 import net.minecraft.core.HolderLookup;
+import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.ListTag;
+import net.minecraft.tags.TagKey;
 import net.minecraft.world.item.Item;
 import net.minecraft.world.item.ItemStack;
 import net.neoforged.neoforge.common.util.INBTSerializable;
@@ -21,14 +24,31 @@ import net.neoforged.neoforge.items.IItemHandler;
 import net.neoforged.neoforge.items.IItemHandlerModifiable;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.ArrayList;
+import javax.annotation.Nullable;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
-import java.util.Stack;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 public class MapItemStackHandler implements IItemHandler, IItemHandlerModifiable, IMapItemHandlerModifiable, INBTSerializable<CompoundTag> {
     protected static final int VIRTUAL_SLOT = -1;
+    /**
+     * Returned by keyToSlot for keys that have no slot.
+     */
+    protected static final int NO_SLOT = -1;
+    /**
+     * Marks nbt written with one tag per key and parallel count and slot arrays.
+     * Nbt without a format is read as the legacy format.
+     */
+    protected static final int COMPACT_FORMAT = 2;
+
+    /**
+     * Incremented whenever tags are reloaded, handlers compare against it to drop their stale tag index.
+     */
+    private static volatile int tagIndexGeneration = 0;
 
     //Note: liliandev (Neo Discord) in response to "not a string" error for our codec when using codec.unboundedmap:
     //unboundedMap turns a map into
@@ -53,7 +73,7 @@ public class MapItemStackHandler implements IItemHandler, IItemHandlerModifiable
                     Codec.LONG.fieldOf("totalItemCount").forGetter(handler -> handler.totalItemCount),
                     Codec.LONG.fieldOf("maxTotalItemCount").forGetter(handler -> handler.maxTotalItemCount)
             ).apply(instance, (keyToCountMap, keyToSlot, emptySlots, nextSlot, maxSlots, totalItemCount, maxTotalItemCount) ->
-                    new MapItemStackHandler(new Object2IntOpenHashMap<>(keyToCountMap), HashBiMap.create(keyToSlot), emptySlots.stream().collect(Collectors.toCollection(Stack::new)), nextSlot, maxSlots, totalItemCount, maxTotalItemCount))
+                    new MapItemStackHandler(new Object2IntOpenHashMap<>(keyToCountMap), new Object2IntOpenHashMap<>(keyToSlot), new IntArrayList(emptySlots), nextSlot, maxSlots, totalItemCount, maxTotalItemCount))
     );
     /**
      * The source of truth for contents of this handler.
@@ -61,19 +81,38 @@ public class MapItemStackHandler implements IItemHandler, IItemHandlerModifiable
     protected Object2IntOpenHashMap<ItemStackKey> keyToCountMap;
 
     /**
-     * A multimap that caches all ItemStackKeys (which include components) that exist for a given item.
-     * This cache filled only lazily, and not safed. If there is a component-less extract request, all contents are searched and matches cached.
-     * Then, future insertions also fill that cache, expecting additional extracts.
+     * Index of all ItemStackKeys (which include components) that exist for a given item.
+     * Maintained on every insertion and removal of a key, and rebuilt on load, so it always reflects keyToCountMap.
+     * Allows component-less lookups to only visit the matching keys instead of all contents.
+     */
+    protected Multimap<Item, ItemStackKey> itemToVariants = HashMultimap.create();
+    /**
+     * The total count of all variants of a given item.
+     */
+    protected Object2LongOpenHashMap<Item> itemToCount = new Object2LongOpenHashMap<>();
+    /**
+     * The items contained in this handler that are part of the given tag.
+     * Filled lazily per requested tag, then kept up to date on insertion and removal of items. Dropped on tag reload.
+     */
+    protected Map<TagKey<Item>, Set<Item>> tagToItems = new HashMap<>();
+    /**
+     * The tag index generation tagToItems was built for.
      */
-    protected Multimap<Item, ItemStackKey> itemToVariantsCache = HashMultimap.create();
+    protected int tagToItemsGeneration = tagIndexGeneration;
     /**
      * Slot view for backwards compat with slot based item handlers.
      */
-    protected BiMap<ItemStackKey, Integer> keyToSlot;
+    protected Object2IntOpenHashMap<ItemStackKey> keyToSlot;
+    /**
+     * Inverse of keyToSlot, indexed by slot. Slot lookups are the hot path for slot based item handler users, so they are plain array reads.
+     * May be longer than nextSlotIndex, unused and empty slots are null.
+     */
+    protected ItemStackKey[] slotToKey;
     /**
      * Temporarily store empty slots for reuse. This is necessary if we remove from the middle of keyToSlot.
+     * Used as a stack, the last element is reused first.
      */
-    protected Stack<Integer> emptySlots;
+    protected IntArrayList emptySlots;
     /**
      * The next slot index to use if there are no empty slots.
      */
@@ -90,6 +129,19 @@ public class MapItemStackHandler implements IItemHandler, IItemHandlerModifiable
      * The maximum allowed total amount of items in the handler.
      */
     protected long maxTotalItemCount;
+    /**
+     * Encoded tags of the stored keys, reused across saves.
+     */
+    protected ItemStackKeyTagCache keyTagCache = new ItemStackKeyTagCache();
+    /**
+     * If true, stacks returned by getView are cached per key instead of copied on every call.
+     * getStackInSlot only returns them if {@link #shareSlotViews()} opts in.
+     */
+    protected boolean cacheViews;
+    /**
+     * The cached view stack per key, only used if cacheViews is true.
+     */
+    protected Object2ObjectOpenHashMap<ItemStackKey, ItemStack> keyToView = new Object2ObjectOpenHashMap<>();
 
     public MapItemStackHandler() {
         this(-1, -1);
@@ -97,17 +149,28 @@ public class MapItemStackHandler implements IItemHandler, IItemHandlerModifiable
 
 
     public MapItemStackHandler(int maxItemTypes, long maxTotalItemCount) {
-        this(new Object2IntOpenHashMap<>(), HashBiMap.create(), new Stack<>(), 0, maxItemTypes, 0, maxTotalItemCount);
+        this(new Object2IntOpenHashMap<>(), new Object2IntOpenHashMap<>(), new IntArrayList(), 0, maxItemTypes, 0, maxTotalItemCount);
     }
 
-    public MapItemStackHandler(Object2IntOpenHashMap<ItemStackKey> keyToCountMap, BiMap<ItemStackKey, Integer> keyToSlot, Stack<Integer> emptySlots, int nextSlotIndex, int maxItemTypes, long totalItemCount, long maxTotalItemCount) {
+    public MapItemStackHandler(Object2IntOpenHashMap<ItemStackKey> keyToCountMap, Object2IntOpenHashMap<ItemStackKey> keyToSlot, IntArrayList emptySlots, int nextSlotIndex, int maxItemTypes, long totalItemCount, long maxTotalItemCount) {
         this.keyToCountMap = keyToCountMap;
         this.keyToSlot = keyToSlot;
+        this.keyToSlot.defaultReturnValue(NO_SLOT);
         this.emptySlots = emptySlots;
         this.nextSlotIndex = nextSlotIndex;
+        this.rebuildSlotToKey();
         this.maxItemTypes = maxItemTypes;
         this.totalItemCount = totalItemCount;
         this.maxTotalItemCount = maxTotalItemCount;
+
+        this.rebuildIndex();
+    }
+
+    /**
+     * Drops the tag index of all handlers. Call when tags are reloaded.
+     */
+    public static void invalidateTagIndex() {
+        tagIndexGeneration++;
     }
 
     public Object2IntOpenHashMap<ItemStackKey> keyToCountMap() {
@@ -138,6 +201,38 @@ public class MapItemStackHandler implements IItemHandler, IItemHandlerModifiable
         this.maxTotalItemCount = maxTotalItemCount;
     }
 
+    /**
+     * Enables or disables cached view stacks.
+     * If enabled, repeated reads of an unchanged key return the same stack instance, instead of a new copy for each call.
+     * This relies on callers respecting the IItemHandler contract of not modifying returned stacks, but views are
+     * checked against the stored item and count on every read and replaced if a caller modified them anyway.
+     */
+    public void cacheViews(boolean cacheViews) {
+        this.cacheViews = cacheViews;
+        this.keyToView.clear();
+    }
+
+    /**
+     * Gets a read-only stack representing the stored amount of the given key.
+     * The returned stack must not be modified. If it is, the next read replaces it.
+     */
+    public ItemStack getView(ItemStackKey key) {
+        int count = this.get(key);
+        if (count <= 0)
+            return ItemStack.EMPTY;
+
+        if (!this.cacheViews)
+            return key.stack().copyWithCount(count);
+
+        var view = this.keyToView.get(key);
+        //a count mismatch means either the stored amount changed, or a caller modified the view
+        if (view == null || view.getCount() != count || !ItemStack.isSameItemSameComponents(view, key.stack())) {
+            view = key.stack().copyWithCount(count);
+            this.keyToView.put(key, view);
+        }
+        return view;
+    }
+
     @Override
     public int get(ItemStack stack) {
         return this.get(ItemStackKey.of(stack));
@@ -147,39 +242,92 @@ public class MapItemStackHandler implements IItemHandler, IItemHandlerModifiable
         return this.keyToCountMap.getOrDefault(key, 0);
     }
 
+    /**
+     * Gets the total amount of items of the given item type, ignoring components.
+     */
+    public long get(Item item) {
+        return this.itemToCount.getLong(item);
+    }
+
+    /**
+     * @return all item types (ignoring components) contained in this handler.
+     */
+    public Set<Item> items() {
+        return Collections.unmodifiableSet(this.itemToVariants.keySet());
+    }
+
+    /**
+     * Gets all keys contained in this handler for the given item.
+     * Do not modify the handler while iterating the returned collection.
+     */
+    public Collection<ItemStackKey> getVariants(Item item) {
+        return Collections.unmodifiableCollection(this.itemToVariants.get(item));
+    }
+
+    /**
+     * Gets all item types contained in this handler that are part of the given tag.
+     * Do not modify the handler while iterating the returned collection.
+     */
+    public Collection<Item> getItems(TagKey<Item> tag) {
+        if (this.tagToItemsGeneration != tagIndexGeneration) {
+            this.tagToItems.clear();
+            this.tagToItemsGeneration = tagIndexGeneration;
+        }
+
+        var items = this.tagToItems.get(tag);
+        if (items == null) {
+            items = new ReferenceOpenHashSet<>();
+            var tagItems = BuiltInRegistries.ITEM.getTag(tag);
+            if (tagItems.isPresent() && tagItems.get().size() < this.itemToVariants.keySet().size()) {
+                //small tag compared to our contents, so we check each tag member against our contents
+                for (var holder : tagItems.get()) {
+                    if (this.itemToVariants.containsKey(holder.value()))
+                        items.add(holder.value());
+                }
+            } else if (tagItems.isPresent()) {
+                for (var item : this.itemToVariants.keySet()) {
+                    if (item.builtInRegistryHolder().is(tag))
+                        items.add(item);
+                }
+            }
+            this.tagToItems.put(tag, items);
+        }
+        return Collections.unmodifiableCollection(items);
+    }
+
+    /**
+     * Starts encoding newly added keys on a background thread, so the next save only needs to join the result.
+     * Must be called from the thread that owns the handler.
+     */
+    public void encodeDirtyAsync(HolderLookup.@NotNull Provider provider) {
+        this.keyTagCache.encodeDirtyAsync(provider);
+    }
+
     @Override
     public CompoundTag serializeNBT(HolderLookup.@NotNull Provider provider) {
         //        return (CompoundTag) CODEC.encodeStart(provider.createSerializationContext(NbtOps.INSTANCE), this).getOrThrow();
 
-        CompoundTag nbt = new CompoundTag();
-        ListTag keyToCountList = new ListTag();
-        this.keyToCountMap.forEach((key, value) -> {
-            try{
-                CompoundTag entryTag = new CompoundTag();
-                entryTag.put("itemStackkey", key.stack().save(provider, new CompoundTag()));
-                entryTag.putInt("int", value);
-                keyToCountList.add(entryTag);
-            } catch(Exception e){
-                Occultism.LOGGER.error("Failed to serialize ItemStackKey: " + key);
-            }
+        //pick up any keys encoded in the background since the last save
+        this.keyTagCache.join();
 
-        });
-        nbt.put("keyToCountMap", keyToCountList);
-
-        ListTag keyToSlotList = new ListTag();
-        this.keyToSlot.forEach((key, slot) -> {
-            try{
-                CompoundTag entryTag = new CompoundTag();
-                entryTag.put("itemStackkey", key.stack().save(provider, new CompoundTag()));
-                entryTag.putInt("int", slot);
-                keyToSlotList.add(entryTag);
-            } catch(Exception e){
-                Occultism.LOGGER.error("Failed to serialize ItemStackKey: " + key);
-            }
-        });
-        nbt.put("keyToSlot", keyToSlotList);
+        //Each key is written once, counts and slots are stored in parallel int arrays.
+        CompoundTag nbt = new CompoundTag();
+        ListTag keyList = new ListTag();
+        IntArrayList counts = new IntArrayList(this.keyToCountMap.size());
+        IntArrayList slots = new IntArrayList(this.keyToCountMap.size());
+        for (var entry : this.keyToCountMap.object2IntEntrySet()) {
+            var key = entry.getKey();
+            //keys not encoded in the background are encoded here, so every stored key is written
+            keyList.add(this.keyTagCache.get(key, provider));
+            counts.add(entry.getIntValue());
+            slots.add(this.keyToSlot.getInt(key));
+        }
+        nbt.putInt("format", COMPACT_FORMAT);
+        nbt.put("keys", keyList);
+        nbt.putIntArray("counts", counts.toIntArray());
+        nbt.putIntArray("slots", slots.toIntArray());
 
-        nbt.putIntArray("emptySlots", new ArrayList<>(this.emptySlots));
+        nbt.putIntArray("emptySlots", this.emptySlots.toIntArray());
         nbt.putInt("nextSlot", this.nextSlotIndex);
         nbt.putInt("maxSlots", this.maxItemTypes);
         nbt.putLong("totalItemCount", this.totalItemCount);
@@ -190,8 +338,72 @@ public class MapItemStackHandler implements IItemHandler, IItemHandlerModifiable
 
     @Override
     public void deserializeNBT(HolderLookup.@NotNull Provider provider, CompoundTag nbt) {
-        ListTag keyToCountList = nbt.getList("keyToCountMap", ListTag.TAG_COMPOUND);
+        this.keyTagCache.clear();
+        this.keyToView.clear();
         this.keyToCountMap = new Object2IntOpenHashMap<>();
+        this.keyToSlot = new Object2IntOpenHashMap<>();
+        this.keyToSlot.defaultReturnValue(NO_SLOT);
+
+        if (nbt.getInt("format") == COMPACT_FORMAT) {
+            this.deserializeCompact(provider, nbt);
+        } else {
+            this.deserializeLegacy(provider, nbt);
+        }
+
+        this.emptySlots = new IntArrayList(nbt.getIntArray("emptySlots"));
+
+        this.nextSlotIndex = nbt.getInt("nextSlot");
+        this.maxItemTypes = nbt.getInt("maxSlots");
+        this.totalItemCount = nbt.getLong("totalItemCount");
+        this.maxTotalItemCount = nbt.getLong("maxTotalItemCount");
+
+        //keys without a slot (should not happen, but we don't want to lose items) get a fresh one
+        for (var key : this.keyToCountMap.keySet()) {
+            if (!this.keyToSlot.containsKey(key))
+                this.keyToSlot.put(key, this.nextSlotIndex++);
+        }
+        this.rebuildSlotToKey();
+
+        this.rebuildIndex();
+
+//        CODEC.parse(provider.createSerializationContext(NbtOps.INSTANCE), nbt).resultOrPartial(e -> {
+//              throw new RuntimeException("Failed to decode MapItemStackHandler: " + e);
+//        }).ifPresent(handler -> {
+//            this.keyToCountMap = handler.keyToCountMap;
+//            this.keyToSlot = handler.keyToSlot;
+//            this.emptySlots = handler.emptySlots;
+//            this.nextSlotIndex = handler.nextSlotIndex;
+//            this.maxItemTypes = handler.maxItemTypes;
+//            this.totalItemCount = handler.totalItemCount;
+//            this.maxTotalItemCount = handler.maxTotalItemCount;
+//        });
+    }
+
+    protected void deserializeCompact(HolderLookup.@NotNull Provider provider, CompoundTag nbt) {
+        ListTag keyList = nbt.getList("keys", ListTag.TAG_COMPOUND);
+        int[] counts = nbt.getIntArray("counts");
+        int[] slots = nbt.getIntArray("slots");
+        for (int i = 0; i < keyList.size() && i < counts.length; i++) {
+            var keyTag = keyList.getCompound(i);
+            var stack = ItemStack.parseOptional(provider, keyTag);
+            if (stack.isEmpty())
+                continue;
+
+            ItemStackKey key = new ItemStackKey(stack);
+            this.keyToCountMap.put(key, counts[i]);
+            if (i < slots.length && slots[i] >= 0)
+                this.keyToSlot.put(key, slots[i]);
+
+            //the tag we just read is exactly what we would write for this key
+            this.keyTagCache.put(key, keyTag);
+        }
+    }
+
+    /**
+     * Reads the format used before the compact format, which stored the key to count and key to slot maps separately.
+     */
+    protected void deserializeLegacy(HolderLookup.@NotNull Provider provider, CompoundTag nbt) {
+        ListTag keyToCountList = nbt.getList("keyToCountMap", ListTag.TAG_COMPOUND);
         keyToCountList.forEach(tag -> {
             CompoundTag entryTag = (CompoundTag) tag;
             var stack = ItemStack.parseOptional(provider, entryTag.getCompound("itemStackkey"));
@@ -201,10 +413,10 @@ public class MapItemStackHandler implements IItemHandler, IItemHandlerModifiable
             ItemStackKey key = new ItemStackKey(stack);
             int count = entryTag.getInt("int");
             this.keyToCountMap.put(key, count);
+            this.keyTagCache.markAdded(key);
         });
 
         ListTag keyToSlotList = nbt.getList("keyToSlot", ListTag.TAG_COMPOUND);
-        this.keyToSlot = HashBiMap.create();
         keyToSlotList.forEach(tag -> {
             CompoundTag entryTag = (CompoundTag) tag;
             var stack = ItemStack.parseOptional(provider, entryTag.getCompound("itemStackkey"));
@@ -215,27 +427,6 @@ public class MapItemStackHandler implements IItemHandler, IItemHandlerModifiable
             int slot = entryTag.getInt("int");
             this.keyToSlot.put(key, slot);
         });
-
-        this.emptySlots = Arrays.stream(nbt.getIntArray("emptySlots"))
-                .boxed()
-                .collect(Collectors.toCollection(Stack::new));
-
-        this.nextSlotIndex = nbt.getInt("nextSlot");
-        this.maxItemTypes = nbt.getInt("maxSlots");
-        this.totalItemCount = nbt.getLong("totalItemCount");
-        this.maxTotalItemCount = nbt.getLong("maxTotalItemCount");
-
-//        CODEC.parse(provider.createSerializationContext(NbtOps.INSTANCE), nbt).resultOrPartial(e -> {
-//              throw new RuntimeException("Failed to decode MapItemStackHandler: " + e);
-//        }).ifPresent(handler -> {
-//            this.keyToCountMap = handler.keyToCountMap;
-//            this.keyToSlot = handler.keyToSlot;
-//            this.emptySlots = handler.emptySlots;
-//            this.nextSlotIndex = handler.nextSlotIndex;
-//            this.maxItemTypes = handler.maxItemTypes;
-//            this.totalItemCount = handler.totalItemCount;
-//            this.maxTotalItemCount = handler.maxTotalItemCount;
-//        });
     }
 
     @Override
@@ -246,33 +437,37 @@ public class MapItemStackHandler implements IItemHandler, IItemHandlerModifiable
 
         var key = ItemStackKey.of(stack);
 
-        var existingSlot = this.keyToSlot.get(key);
+        var existingSlot = this.keyToSlot.getInt(key);
 
         //If the item type already exists in another slot, we cannot put it in this slot.
         //the handler has a strict one slot per type limit.
-        if (existingSlot != null && existingSlot != slot)
+        if (existingSlot != NO_SLOT && existingSlot != slot)
             return;
 
         //if the item type does not exist already AND the slot is empty AND the slot is within the current slot amount, we can place it
         //if it is a higher slot we cannot add it, because otherwise we would grow the handler and create problems with iterators
-        if (existingSlot == null && //no existing slot for the given type
-                this.keyToSlot.inverse().get(slot) == null && //target slot is empty
+        if (existingSlot == NO_SLOT && //no existing slot for the given type
+                this.getKeyInSlot(slot) == null && //target slot is empty
                 slot < this.nextSlotIndex && //target slot is within our current size
                 !stack.isEmpty()) { //stack is not empty -> if it is we should not create a new slot, because no slot indicates empty
 
-            this.keyToSlot.put(key, slot); //we do not call addToSlot() as that might choose another index from emptySlots
-            this.emptySlots.remove((Integer) slot); //remove from emptyslots
+            this.putSlot(key, slot); //we do not call addToSlot() as that might choose another index from emptySlots
+            this.emptySlots.rem(slot); //remove from emptyslots
+            this.addToIndex(key);
+            this.keyTagCache.markAdded(key);
 
             this.keyToCountMap.put(key, stack.getCount());
 
             this.totalItemCount += stack.getCount();
+            this.updateItemCount(key, stack.getCount());
 
             this.onContentsChanged(key);
         }
         //If it does exist and is the same slot, we just update the count
-        else if (existingSlot != null && existingSlot == slot) {
+        else if (existingSlot != NO_SLOT && existingSlot == slot) {
             var existing = this.keyToCountMap.getOrDefault(key, 0);
             this.totalItemCount -= existing;
+            this.updateItemCount(key, -existing);
 
             if (stack.isEmpty()) { //Setting an empty stack equals removal
                 this.keyToCountMap.removeInt(key);
@@ -280,6 +475,7 @@ public class MapItemStackHandler implements IItemHandler, IItemHandlerModifiable
             } else {
                 this.keyToCountMap.put(key, stack.getCount());
                 this.totalItemCount += stack.getCount();
+                this.updateItemCount(key, stack.getCount());
             }
 
             this.onContentsChanged(key);
@@ -297,9 +493,20 @@ public class MapItemStackHandler implements IItemHandler, IItemHandlerModifiable
 
     @Override
     public @NotNull ItemStack getStackInSlot(int slot) {
-        var key = this.keyToSlot.inverse().get(slot);
-        var count = this.keyToCountMap.getOrDefault(key, 0);
-        return key != null ? key.stack().copyWithCount(count) : ItemStack.EMPTY;
+        var key = this.getKeyInSlot(slot);
+        if (key == null)
+            return ItemStack.EMPTY;
+
+        //slot reads are open to any caller, so they get their own copy unless sharing views is opted in.
+        return this.shareSlotViews() ? this.getView(key) : key.stack().copyWithCount(this.get(key));
+    }
+
+    /**
+     * @return true if getStackInSlot may return the cached views of {@link #getView(ItemStackKey)} instead of copies.
+     * Callers that modify such a stack corrupt it for every other holder until the key is read again.
+     */
+    protected boolean shareSlotViews() {
+        return false;
     }
 
     @Override
@@ -366,6 +573,7 @@ public class MapItemStackHandler implements IItemHandler, IItemHandlerModifiable
             }
 
             this.totalItemCount += reachedLimit ? limit : stack.getCount();
+            this.updateItemCount(key, reachedLimit ? limit : stack.getCount());
             this.onContentsChanged(key);
         }
 
@@ -379,7 +587,7 @@ public class MapItemStackHandler implements IItemHandler, IItemHandlerModifiable
 
         this.validateSlotIndex(slot);
 
-        var key = this.keyToSlot.inverse().get(slot);
+        var key = this.getKeyInSlot(slot);
         if (key == null)
             return ItemStack.EMPTY;
 
@@ -400,6 +608,7 @@ public class MapItemStackHandler implements IItemHandler, IItemHandlerModifiable
             if (!simulate) {
                 this.keyToCountMap.removeInt(key);
                 this.totalItemCount -= existing;
+                this.updateItemCount(key, -existing);
 
                 this.removeFromSlots(key);
 
@@ -413,6 +622,7 @@ public class MapItemStackHandler implements IItemHandler, IItemHandlerModifiable
             if (!simulate) {
                 this.keyToCountMap.put(key, existing - toExtract);
                 this.totalItemCount -= toExtract;
+                this.updateItemCount(key, -toExtract);
                 this.onContentsChanged(key);
             }
             return key.stack().copyWithCount(toExtract);
@@ -425,28 +635,173 @@ public class MapItemStackHandler implements IItemHandler, IItemHandlerModifiable
     }
 
     public @NotNull ItemStack extractItemIgnoreComponents(@NotNull ItemStack stack, int amount, boolean simulate) {
-        Item item = stack.getItem();
+        var variants = this.itemToVariants.get(stack.getItem());
+        if (variants.isEmpty())
+            return ItemStack.EMPTY;
+
+        //every key in the index has a count > 0, so we can extract from the first one.
+        return this.extractItem(variants.iterator().next(), amount, simulate);
+    }
+
+    /**
+     * Gets how much of the key could be inserted after the pending transaction, following the same limits as
+     * {@link #commit(StorageTransaction, boolean)}.
+     *
+     * @param key     the key to insert.
+     * @param pending the operations that will be committed together with the insertion.
+     * @return the amount of the key that can be inserted in addition to the pending operations.
+     */
+    public int getInsertableAmount(@NotNull ItemStackKey key, @NotNull StorageTransaction pending) {
+        if (!this.isItemValid(VIRTUAL_SLOT, key))
+            return 0;
+
+        int itemTypes = this.keyToCountMap.size();
+        long totalItemCount = this.totalItemCount;
+        for (var entry : pending.deltas().object2IntEntrySet()) {
+            int existing = this.keyToCountMap.getInt(entry.getKey());
+            long newCount = (long) existing + entry.getIntValue();
+            if (existing == 0 && newCount > 0)
+                itemTypes++;
+            else if (existing > 0 && newCount == 0)
+                itemTypes--;
+            totalItemCount += entry.getIntValue();
+        }
+
+        long count = (long) this.keyToCountMap.getInt(key) + pending.get(key);
+        if (count == 0 && this.hasMaxItemTypes() && itemTypes >= this.maxItemTypes)
+            return 0;
+
+        long insertable = Math.min(this.getSlotLimit(VIRTUAL_SLOT) - count, this.maxTotalItemCount - totalItemCount);
+        return (int) Math.max(0, Math.min(insertable, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Validates all operations of the transaction against the current contents and limits in one pass,
+     * and, if not simulating, applies all of them with a single content change notification.
+     * Either all operations are applied, or none.
+     *
+     * @param transaction the operations to apply.
+     * @param simulate    if true, only validates the transaction.
+     * @return true if the transaction is (or would be) applied, false if any operation would extract more than available or exceed the limits.
+     */
+    public boolean commit(@NotNull StorageTransaction transaction, boolean simulate) {
+        if (transaction.isEmpty())
+            return true;
+
+        int itemTypesDelta = 0;
+        long totalItemCountDelta = 0;
+        for (var entry : transaction.deltas().object2IntEntrySet()) {
+            var key = entry.getKey();
+            int delta = entry.getIntValue();
+            if (delta == 0)
+                continue;
+
+            int existing = this.keyToCountMap.getInt(key);
+            long newCount = (long) existing + delta;
+
+            if (newCount < 0 || newCount > this.getSlotLimit(VIRTUAL_SLOT))
+                return false;
+
+            if (delta > 0 && !this.isItemValid(VIRTUAL_SLOT, key))
+                return false;
 
-        //If someone demands an item without components, we can assume they will do so again
-        //so it pays off to build a cache, if we don't have one yet.
-        if (!this.itemToVariantsCache.containsKey(item)) {
-            this.buildItemToVariantsCacheFor(item);
+            if (existing == 0 && newCount > 0)
+                itemTypesDelta++;
+            else if (existing > 0 && newCount == 0)
+                itemTypesDelta--;
+
+            totalItemCountDelta += delta;
         }
 
-        var variants = this.itemToVariantsCache.get(item);
+        //enforce max item types, if we add new types
+        if (itemTypesDelta > 0 && this.hasMaxItemTypes() && this.keyToCountMap.size() + itemTypesDelta > this.maxItemTypes)
+            return false;
+
+        //enforce max total item count, if we add items
+        if (totalItemCountDelta > 0 && this.totalItemCount + totalItemCountDelta > this.maxTotalItemCount)
+            return false;
+
+        if (simulate)
+            return true;
+
+        for (var entry : transaction.deltas().object2IntEntrySet()) {
+            var key = entry.getKey();
+            int delta = entry.getIntValue();
+            if (delta == 0)
+                continue;
 
-        for (var key : variants) {
-            var extracted = this.extractItem(key, amount, true);
-            if (!extracted.isEmpty()) {
-                return this.extractItem(key, amount, simulate);
+            int existing = this.keyToCountMap.getInt(key);
+            int newCount = existing + delta;
+
+            if (newCount == 0) {
+                this.keyToCountMap.removeInt(key);
+                this.removeFromSlots(key);
+            } else {
+                this.keyToCountMap.put(key, newCount);
+                if (existing == 0)
+                    this.addToSlots(key);
             }
+
+            this.totalItemCount += delta;
+            this.updateItemCount(key, delta);
         }
 
-        return ItemStack.EMPTY;
+        this.onContentsChanged(transaction);
+        return true;
+    }
+
+    /**
+     * Rebuilds the item index from keyToCountMap. Call if keyToCountMap was replaced.
+     */
+    protected void rebuildIndex() {
+        this.itemToVariants.clear();
+        this.itemToCount.clear();
+        this.tagToItems.clear();
+        for (var entry : this.keyToCountMap.object2IntEntrySet()) {
+            this.itemToVariants.put(entry.getKey().stack().getItem(), entry.getKey());
+            this.itemToCount.addTo(entry.getKey().stack().getItem(), entry.getIntValue());
+        }
+    }
+
+    /**
+     * Adds a new key to the item index.
+     * Only call if the key is not already present in keyToCountMap.
+     */
+    protected void addToIndex(ItemStackKey key) {
+        var item = key.stack().getItem();
+        boolean isNewItem = !this.itemToVariants.containsKey(item);
+        this.itemToVariants.put(item, key);
+
+        if (isNewItem && !this.tagToItems.isEmpty()) {
+            for (var entry : this.tagToItems.entrySet()) {
+                if (key.stack().is(entry.getKey()))
+                    entry.getValue().add(item);
+            }
+        }
+    }
+
+    /**
+     * Removes a key from the item index.
+     * Only call if the key is entirely removed from keyToCountMap.
+     */
+    protected void removeFromIndex(ItemStackKey key) {
+        var item = key.stack().getItem();
+        this.itemToVariants.remove(item, key);
+
+        if (!this.itemToVariants.containsKey(item) && !this.tagToItems.isEmpty()) {
+            for (var items : this.tagToItems.values()) {
+                items.remove(item);
+            }
+        }
     }
 
-    protected void buildItemToVariantsCacheFor(Item item) {
-        this.keyToCountMap.keySet().stream().filter(key -> key.stack().getItem() == item).forEach(key -> this.itemToVariantsCache.put(item, key));
+    /**
+     * Updates the total count of the item the key belongs to.
+     */
+    protected void updateItemCount(ItemStackKey key, long delta) {
+        var item = key.stack().getItem();
+        if (this.itemToCount.addTo(item, delta) + delta <= 0)
+            this.itemToCount.removeLong(item);
     }
 
 
@@ -470,17 +825,14 @@ public class MapItemStackHandler implements IItemHandler, IItemHandlerModifiable
      * Only call if the key is not already present in keyToCountMap.
      */
     protected void addToSlots(ItemStackKey key) {
-        if (!this.emptySlots.empty()) {
-            var index = this.emptySlots.pop();
-            this.keyToSlot.put(key, index);
+        if (!this.emptySlots.isEmpty()) {
+            this.putSlot(key, this.emptySlots.removeInt(this.emptySlots.size() - 1));
         } else {
-            this.keyToSlot.put(key, this.nextSlotIndex++);
+            this.putSlot(key, this.nextSlotIndex++);
         }
 
-        //if we already have a (lazy) cache for the item this key belongs to, add our key
-        if (this.itemToVariantsCache.containsKey(key.stack().getItem())) {
-            this.itemToVariantsCache.put(key.stack().getItem(), key);
-        }
+        this.addToIndex(key);
+        this.keyTagCache.markAdded(key);
     }
 
     /**
@@ -488,15 +840,47 @@ public class MapItemStackHandler implements IItemHandler, IItemHandlerModifiable
      * Only call if the key is entirely removed from keyToCountMap.
      */
     protected void removeFromSlots(ItemStackKey key) {
-        var index = this.keyToSlot.get(key);
-        if (index != null) {
-            this.keyToSlot.remove(key);
-            this.emptySlots.push(index);
+        var index = this.keyToSlot.removeInt(key);
+        if (index != NO_SLOT) {
+            this.slotToKey[index] = null;
+            this.emptySlots.add(index);
             //Note: We intentionally do not modify nextSlot here to avoid shrinking the handler.
         }
 
-        //If we removed a key entirely, we also have to remove it from our lazy cache.
-        this.itemToVariantsCache.remove(key.stack().getItem(), key);
+        this.removeFromIndex(key);
+        this.keyTagCache.markRemoved(key);
+        this.keyToView.remove(key);
+    }
+
+    /**
+     * @return the key in the given slot, or null if the slot is empty or out of range.
+     */
+    @Nullable
+    protected ItemStackKey getKeyInSlot(int slot) {
+        return slot >= 0 && slot < this.slotToKey.length ? this.slotToKey[slot] : null;
+    }
+
+    /**
+     * Assigns the slot to the key in both directions of the slot view.
+     */
+    protected void putSlot(ItemStackKey key, int slot) {
+        if (slot >= this.slotToKey.length) {
+            this.slotToKey = Arrays.copyOf(this.slotToKey, Math.max(slot + 1, this.slotToKey.length * 2));
+        }
+        this.keyToSlot.put(key, slot);
+        this.slotToKey[slot] = key;
+    }
+
+    protected void rebuildSlotToKey() {
+        int size = this.nextSlotIndex;
+        for (var entry : this.keyToSlot.object2IntEntrySet()) {
+            size = Math.max(size, entry.getIntValue() + 1);
+        }
+
+        this.slotToKey = new ItemStackKey[Math.max(size, 16)];
+        for (var entry : this.keyToSlot.object2IntEntrySet()) {
+            this.slotToKey[entry.getIntValue()] = entry.getKey();
+        }
     }
 
     protected int getStackLimit(@NotNull ItemStack stack) {
@@ -514,4 +898,10 @@ public class MapItemStackHandler implements IItemHandler, IItemHandlerModifiable
 
     protected void onContentsChanged(ItemStackKey key) {
     }
+
+    /**
+     * Called once after all operations of a transaction were applied.
+     */
+    protected void onContentsChanged(StorageTransaction transaction) {
+    }
 }
@@ -0,0 +1,114 @@
+/*
+ * MIT License
+ *
+ * Copyright 2024 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.klikli_dev.occultism.common.misc;
+
+import com.klikli_dev.occultism.common.blockentity.SacrificialBowlBlockEntity;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.levelgen.structure.BoundingBox;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of all loaded sacrificial bowls of a server level, bucketed by chunk.
+ * Allows rituals to find the bowls in range by only looking at the chunks the range overlaps, instead of checking every
+ * block position for a block entity.
+ * <p>
+ * Bowls add themselves when loaded and remove themselves when removed or unloaded. Only used on the server thread.
+ */
+public class SacrificialBowlRegistry {
+
+    /**
+     * The order BlockPos.betweenClosed visits positions in, so results are the same as with a full scan.
+     */
+    private static final Comparator<SacrificialBowlBlockEntity> SCAN_ORDER = Comparator
+            .<SacrificialBowlBlockEntity>comparingInt(b -> b.getBlockPos().getZ())
+            .thenComparingInt(b -> b.getBlockPos().getY())
+            .thenComparingInt(b -> b.getBlockPos().getX());
+
+    private static final Map<Level, SacrificialBowlRegistry> registries = new Reference2ObjectOpenHashMap<>();
+
+    protected final Long2ObjectOpenHashMap<List<SacrificialBowlBlockEntity>> bowlsByChunk = new Long2ObjectOpenHashMap<>();
+
+    public static SacrificialBowlRegistry get(Level level) {
+        return registries.computeIfAbsent(level, l -> new SacrificialBowlRegistry());
+    }
+
+    public static void remove(Level level) {
+        registries.remove(level);
+    }
+
+    public static void register(SacrificialBowlBlockEntity bowl) {
+        get(bowl.getLevel()).add(bowl);
+    }
+
+    public static void unregister(SacrificialBowlBlockEntity bowl) {
+        //do not create a registry for a level that is already unloaded
+        var registry = registries.get(bowl.getLevel());
+        if (registry != null)
+            registry.remove(bowl);
+    }
+
+    public void add(SacrificialBowlBlockEntity bowl) {
+        var bowls = this.bowlsByChunk.computeIfAbsent(ChunkPos.asLong(bowl.getBlockPos()), k -> new ArrayList<>());
+        if (!bowls.contains(bowl))
+            bowls.add(bowl);
+    }
+
+    public void remove(SacrificialBowlBlockEntity bowl) {
+        long chunk = ChunkPos.asLong(bowl.getBlockPos());
+        var bowls = this.bowlsByChunk.get(chunk);
+        if (bowls != null && bowls.remove(bowl) && bowls.isEmpty())
+            this.bowlsByChunk.remove(chunk);
+    }
+
+    /**
+     * Gets all loaded sacrificial bowls inside the given area.
+     *
+     * @param area the area to search, inclusive.
+     * @return the bowls, in the order a block scan over the area would find them.
+     */
+    public List<SacrificialBowlBlockEntity> getBowls(BoundingBox area) {
+        List<SacrificialBowlBlockEntity> result = new ArrayList<>();
+        for (int chunkX = SectionPos.blockToSectionCoord(area.minX()); chunkX <= SectionPos.blockToSectionCoord(area.maxX()); chunkX++) {
+            for (int chunkZ = SectionPos.blockToSectionCoord(area.minZ()); chunkZ <= SectionPos.blockToSectionCoord(area.maxZ()); chunkZ++) {
+                var bowls = this.bowlsByChunk.get(ChunkPos.asLong(chunkX, chunkZ));
+                if (bowls == null)
+                    continue;
+
+                for (var bowl : bowls) {
+                    if (!bowl.isRemoved() && area.isInside(bowl.getBlockPos()))
+                        result.add(bowl);
+                }
+            }
+        }
+        result.sort(SCAN_ORDER);
+        return result;
+    }
+}
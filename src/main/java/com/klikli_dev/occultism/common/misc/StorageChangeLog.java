@@ -0,0 +1,122 @@
+/*
+ * MIT License
+ *
+ * Copyright 2024 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.klikli_dev.occultism.common.misc;
+
+import it.unimi.dsi.fastutil.objects.Object2LongLinkedOpenHashMap;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tracks which item types of a storage handler changed in which version.
+ * Allows to send open storage guis only the entries that changed since their last sync, instead of a full snapshot.
+ */
+public class StorageChangeLog {
+    /**
+     * The maximum amount of changed keys we remember.
+     * If older changes are dropped, clients that are behind the dropped changes need a full snapshot.
+     */
+    public static final int MAX_RETAINED_CHANGES = 4096;
+    /**
+     * If a client is more than this many versions behind, a full snapshot is cheaper than replaying the delta.
+     */
+    public static final long MAX_DELTA_VERSION_GAP = 8192;
+
+    /**
+     * The version each key was last changed in, ordered from oldest to newest change.
+     */
+    protected final Object2LongLinkedOpenHashMap<ItemStackKey> keyToVersion = new Object2LongLinkedOpenHashMap<>();
+    /**
+     * The current version of the storage contents.
+     */
+    protected long version;
+    /**
+     * Clients on a version older than this cannot be updated with a delta, because we no longer know all changes since.
+     */
+    protected long oldestDeltaVersion;
+
+    public long version() {
+        return this.version;
+    }
+
+    /**
+     * Records a change of the given key (insertion, removal, or count change).
+     */
+    public void markChanged(ItemStackKey key) {
+        this.version++;
+        this.keyToVersion.putAndMoveToLast(key, this.version);
+
+        if (this.keyToVersion.size() > MAX_RETAINED_CHANGES) {
+            //we forget the oldest change, so clients that have not seen it need a full snapshot
+            this.oldestDeltaVersion = this.keyToVersion.removeFirstLong();
+        }
+    }
+
+    /**
+     * Bumps the version without a specific key, e.g. if storage limits changed.
+     */
+    public void markDirty() {
+        this.version++;
+    }
+
+    /**
+     * Forgets all tracked changes, all clients will receive a full snapshot on their next sync.
+     * Call if the contents were replaced entirely, e.g. on load.
+     */
+    public void reset() {
+        this.keyToVersion.clear();
+        this.version++;
+        this.oldestDeltaVersion = this.version;
+    }
+
+    /**
+     * @param clientVersion the version the client was last synced to.
+     * @return true if the client can be brought up to date with a delta, false if it needs a full snapshot.
+     */
+    public boolean canSendDeltaSince(long clientVersion) {
+        return clientVersion >= 0 &&
+                clientVersion >= this.oldestDeltaVersion &&
+                clientVersion <= this.version &&
+                this.version - clientVersion <= MAX_DELTA_VERSION_GAP;
+    }
+
+    /**
+     * Gets all keys that changed after the given version, newest first.
+     * Only valid if {@link #canSendDeltaSince(long)} returns true.
+     */
+    public List<ItemStackKey> changedSince(long clientVersion) {
+        var changed = new ArrayList<ItemStackKey>();
+        if (this.keyToVersion.isEmpty())
+            return changed;
+
+        //entries are ordered by version, so we walk backwards from the newest change until we reach the client version.
+        var iterator = this.keyToVersion.keySet().iterator(this.keyToVersion.lastKey());
+        while (iterator.hasPrevious()) {
+            var key = iterator.previous();
+            if (this.keyToVersion.getLong(key) <= clientVersion)
+                break;
+            changed.add(key);
+        }
+        return changed;
+    }
+}
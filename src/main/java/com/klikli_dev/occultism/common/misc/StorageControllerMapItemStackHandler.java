@@ -22,19 +22,59 @@
 
 package com.klikli_dev.occultism.common.misc;
 
+import com.klikli_dev.occultism.Occultism;
 import com.klikli_dev.occultism.api.common.blockentity.IStorageController;
+import net.minecraft.core.HolderLookup;
+import net.minecraft.nbt.CompoundTag;
+import org.jetbrains.annotations.NotNull;
 
 public class StorageControllerMapItemStackHandler extends MapItemStackHandler {
 
     protected IStorageController storageController;
+    /**
+     * Tracks changed keys to allow delta syncs to open storage guis.
+     */
+    protected StorageChangeLog changeLog = new StorageChangeLog();
 
     public StorageControllerMapItemStackHandler(IStorageController storageController, int maxItemTypes, long maxTotalItemCount) {
         super(maxItemTypes, maxTotalItemCount);
         this.storageController = storageController;
+        //the gui sync reads views of all keys, slot reads only share them if opted in, see shareSlotViews()
+        this.cacheViews(true);
+    }
+
+    public IStorageController getStorageController() {
+        return this.storageController;
+    }
+
+    public StorageChangeLog changeLog() {
+        return this.changeLog;
+    }
+
+    @Override
+    protected boolean shareSlotViews() {
+        //actuators are scanned slot by slot by pipes and other automation, sharing views avoids a copy per slot and read
+        return Occultism.SERVER_CONFIG.storage.shareActuatorSlotViews.get();
+    }
+
+    @Override
+    public void deserializeNBT(HolderLookup.@NotNull Provider provider, CompoundTag nbt) {
+        super.deserializeNBT(provider, nbt);
+        //contents were replaced entirely, so no client can be updated with a delta.
+        this.changeLog.reset();
     }
 
     @Override
     protected void onContentsChanged(ItemStackKey key) {
+        this.changeLog.markChanged(key);
+        this.storageController.onContentsChanged();
+    }
+
+    @Override
+    protected void onContentsChanged(StorageTransaction transaction) {
+        for (var key : transaction.deltas().keySet()) {
+            this.changeLog.markChanged(key);
+        }
         this.storageController.onContentsChanged();
     }
 }
@@ -0,0 +1,287 @@
+/*
+ * MIT License
+ *
+ * Copyright 2024 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.klikli_dev.occultism.common.misc;
+
+import com.klikli_dev.occultism.Occultism;
+import com.klikli_dev.occultism.common.blockentity.StorageControllerBlockEntity;
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectLinkedOpenHashSet;
+import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.level.Level;
+
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A group of storage controllers that touch each other, acting as one logical storage.
+ * Networks are opt-in through the enableStorageNetworks server config, otherwise every controller is its own network.
+ * Each member (shard) keeps its own contents, limits and persistence. New item types are placed in the shard
+ * their item hashes to, and only spill over into other shards if that one is full.
+ * <p>
+ * A single controller is a network with one member.
+ * Networks are discovered lazily and invalidated whenever a member is removed or a controller is placed next to one.
+ */
+public class StorageNetwork {
+
+    /**
+     * How many network versions we remember the shard versions of. Clients further behind get a full snapshot.
+     */
+    public static final int MAX_VERSION_HISTORY = 64;
+
+    /**
+     * The last network version handed out. Versions are unique across all networks, so a client synced to a network
+     * that since changed members can never mistake the new network for the one it knows.
+     */
+    private static long lastVersion;
+
+    /**
+     * The members, ordered by position so all members agree on the shard for an item.
+     */
+    protected final List<StorageControllerBlockEntity> members;
+    /**
+     * True if the network was discovered with storage networks enabled in the config.
+     */
+    protected final boolean enabled;
+    protected boolean valid = true;
+    /**
+     * The shard content versions by network version, to find the shard changes since a network version.
+     */
+    protected final Long2ObjectLinkedOpenHashMap<long[]> history = new Long2ObjectLinkedOpenHashMap<>();
+    protected long version;
+    protected long[] shardVersions;
+    /**
+     * The network version {@link #usedItemTypes} was counted at, or -1 if not counted yet.
+     */
+    protected long usedItemTypesVersion = -1;
+    protected int usedItemTypes;
+
+    protected StorageNetwork(List<StorageControllerBlockEntity> members, boolean enabled) {
+        this.members = members;
+        this.enabled = enabled;
+        this.nextVersion();
+    }
+
+    public static boolean isEnabledInConfig() {
+        return Occultism.SERVER_CONFIG.storage.enableStorageNetworks.get();
+    }
+
+    /**
+     * Finds all loaded controllers connected to the origin and forms a network of them.
+     * If storage networks are disabled in the config, the network only contains the origin.
+     * The network is not assigned to the members, that is up to the caller.
+     */
+    public static StorageNetwork discover(StorageControllerBlockEntity origin) {
+        if (!isEnabledInConfig())
+            return new StorageNetwork(List.of(origin), false);
+
+        Level level = origin.getLevel();
+        List<StorageControllerBlockEntity> members = new ArrayList<>();
+        Set<BlockPos> visited = new HashSet<>();
+        ArrayDeque<StorageControllerBlockEntity> queue = new ArrayDeque<>();
+
+        visited.add(origin.getBlockPos());
+        queue.add(origin);
+        while (!queue.isEmpty()) {
+            var current = queue.poll();
+            members.add(current);
+
+            if (level == null)
+                continue;
+
+            for (Direction direction : Direction.values()) {
+                BlockPos neighbor = current.getBlockPos().relative(direction);
+                if (!visited.add(neighbor) || !level.isLoaded(neighbor))
+                    continue;
+
+                if (level.getBlockEntity(neighbor) instanceof StorageControllerBlockEntity controller && !controller.isRemoved())
+                    queue.add(controller);
+            }
+        }
+
+        members.sort(Comparator.comparing(StorageControllerBlockEntity::getBlockPos));
+        return new StorageNetwork(List.copyOf(members), true);
+    }
+
+    public List<StorageControllerBlockEntity> members() {
+        return this.members;
+    }
+
+    /**
+     * @return true if more than one controller is part of this network.
+     */
+    public boolean isNetworked() {
+        return this.members.size() > 1;
+    }
+
+    /**
+     * @return true if the network is still intact and was discovered with the current config setting.
+     */
+    public boolean isValid() {
+        return this.valid && this.enabled == isEnabledInConfig();
+    }
+
+    public void invalidate() {
+        this.valid = false;
+    }
+
+    /**
+     * @return the content version of the network. Changes whenever the contents of any shard change.
+     */
+    public long version() {
+        if (!this.isShardVersionsCurrent())
+            this.nextVersion();
+        return this.version;
+    }
+
+    /**
+     * Gets all keys that changed in any shard after the given network version.
+     *
+     * @param version the network version the caller was last synced to.
+     * @return the changed keys, or null if they are no longer known and a full snapshot is needed.
+     */
+    @Nullable
+    public List<ItemStackKey> changedSince(long version) {
+        this.version();
+        long[] shardVersions = this.history.get(version);
+        if (shardVersions == null)
+            return null;
+
+        Set<ItemStackKey> changed = new ObjectLinkedOpenHashSet<>();
+        for (int i = 0; i < this.members.size(); i++) {
+            var changeLog = this.members.get(i).itemStackHandler.changeLog();
+            if (changeLog.version() == shardVersions[i])
+                continue;
+            if (!changeLog.canSendDeltaSince(shardVersions[i]))
+                return null;
+            changed.addAll(changeLog.changedSince(shardVersions[i]));
+        }
+        return new ArrayList<>(changed);
+    }
+
+    protected boolean isShardVersionsCurrent() {
+        for (int i = 0; i < this.members.size(); i++) {
+            if (this.members.get(i).itemStackHandler.changeLog().version() != this.shardVersions[i])
+                return false;
+        }
+        return true;
+    }
+
+    protected void nextVersion() {
+        this.shardVersions = new long[this.members.size()];
+        for (int i = 0; i < this.members.size(); i++) {
+            this.shardVersions[i] = this.members.get(i).itemStackHandler.changeLog().version();
+        }
+        this.version = ++lastVersion;
+        this.history.putAndMoveToLast(this.version, this.shardVersions);
+        if (this.history.size() > MAX_VERSION_HISTORY)
+            this.history.removeFirst();
+    }
+
+    /**
+     * Gets the shard new item types of the given item should be placed in.
+     * Uses the registry id rather than the item instance, so the partitioning is stable across restarts.
+     */
+    public StorageControllerBlockEntity getHomeShard(Item item) {
+        if (this.members.size() == 1)
+            return this.members.get(0);
+
+        int hash = BuiltInRegistries.ITEM.getKey(item).hashCode();
+        return this.members.get(Math.floorMod(hash, this.members.size()));
+    }
+
+    /**
+     * Gets the shards to insert the given key into, in order of preference:
+     * first the shards that already hold the key, then its home shard, then all others as overflow.
+     */
+    public List<StorageControllerBlockEntity> getShardsForInsert(ItemStackKey key) {
+        if (this.members.size() == 1)
+            return this.members;
+
+        List<StorageControllerBlockEntity> shards = new ArrayList<>(this.members.size());
+        for (var member : this.members) {
+            if (member.itemStackHandler.get(key) > 0)
+                shards.add(member);
+        }
+
+        var home = this.getHomeShard(key.stack().getItem());
+        if (!shards.contains(home))
+            shards.add(home);
+
+        for (var member : this.members) {
+            if (!shards.contains(member))
+                shards.add(member);
+        }
+        return shards;
+    }
+
+    /**
+     * @return the amount of distinct item types across all shards.
+     */
+    public int getUsedItemTypes() {
+        if (this.members.size() == 1)
+            return this.members.get(0).itemStackHandler.keyToCountMap().size();
+
+        //the merged key set only changes with the contents, so it is rebuilt once per network version
+        long version = this.version();
+        if (this.usedItemTypesVersion != version) {
+            Set<ItemStackKey> keys = new ObjectOpenHashSet<>();
+            for (var member : this.members) {
+                keys.addAll(member.itemStackHandler.keyToCountMap().keySet());
+            }
+            this.usedItemTypes = keys.size();
+            this.usedItemTypesVersion = version;
+        }
+        return this.usedItemTypes;
+    }
+
+    /**
+     * @return the total item count across all shards.
+     */
+    public long getUsedTotalItemCount() {
+        long count = 0;
+        for (var member : this.members) {
+            count += member.itemStackHandler.totalItemCount();
+        }
+        return count;
+    }
+
+    /**
+     * @return the total amount of the key across all shards.
+     */
+    public long get(ItemStackKey key) {
+        long count = 0;
+        for (var member : this.members) {
+            count += member.itemStackHandler.get(key);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * MIT License
+ *
+ * Copyright 2024 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.klikli_dev.occultism.common.misc;
+
+import it.unimi.dsi.fastutil.objects.Object2IntLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntMaps;
+
+/**
+ * A batch of insertions and extractions on a {@link MapItemStackHandler}.
+ * All operations are validated against the handler limits together, and then applied all at once or not at all,
+ * with a single content change notification.
+ * <p>
+ * Operations on the same key are merged, so the transaction holds one count delta per key.
+ * Keys are stored in the handler as they are if they are new, so they must not be modified afterwards.
+ */
+public class StorageTransaction {
+
+    protected final Object2IntLinkedOpenHashMap<ItemStackKey> deltas = new Object2IntLinkedOpenHashMap<>();
+
+    /**
+     * Adds an insertion of the given amount of the key.
+     */
+    public StorageTransaction insert(ItemStackKey key, int amount) {
+        if (amount > 0)
+            this.deltas.addTo(key, amount);
+        return this;
+    }
+
+    /**
+     * Adds an extraction of the given amount of the key.
+     */
+    public StorageTransaction extract(ItemStackKey key, int amount) {
+        if (amount > 0)
+            this.deltas.addTo(key, -amount);
+        return this;
+    }
+
+    /**
+     * @return the count delta this transaction will apply to the given key. Negative for extractions.
+     */
+    public int get(ItemStackKey key) {
+        return this.deltas.getInt(key);
+    }
+
+    /**
+     * @return the count delta per key, in the order the keys were first added.
+     */
+    public Object2IntMap<ItemStackKey> deltas() {
+        return Object2IntMaps.unmodifiable(this.deltas);
+    }
+
+    public boolean isEmpty() {
+        return this.deltas.isEmpty();
+    }
+
+    public void clear() {
+        this.deltas.clear();
+    }
+}
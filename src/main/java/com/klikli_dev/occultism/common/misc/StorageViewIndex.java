@@ -0,0 +1,233 @@
+/*
+ * MIT License
+ *
+ * Copyright 2024 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.klikli_dev.occultism.common.misc;
+
+import com.google.common.base.Joiner;
+import com.klikli_dev.occultism.api.common.data.SortDirection;
+import com.klikli_dev.occultism.api.common.data.SortType;
+import com.klikli_dev.occultism.common.blockentity.StorageControllerBlockEntity;
+import com.klikli_dev.occultism.util.TextUtil;
+import it.unimi.dsi.fastutil.objects.Object2LongLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import net.minecraft.network.chat.Component;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.TooltipFlag;
+import net.minecraft.world.level.Level;
+import net.neoforged.api.distmarker.Dist;
+import net.neoforged.fml.loading.FMLEnvironment;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * A server side index of the contents of a storage controller, kept sorted by all sort types.
+ * Allows storage guis to request only the page they display, already filtered and sorted, instead of all stacks.
+ * <p>
+ * The index follows the change log of the controller, so only changed keys are re-sorted.
+ * Names are resolved on the server, so name search and sorting use the server language.
+ */
+public class StorageViewIndex {
+
+    /**
+     * Matches the client side sort order for SortDirection.UP, DOWN is the reverse.
+     */
+    protected static final Comparator<Entry> BY_AMOUNT = Comparator.<Entry>comparingLong(e -> -e.count).thenComparingLong(e -> e.id);
+    protected static final Comparator<Entry> BY_NAME = Comparator.<Entry, String>comparing(e -> e.name).thenComparingLong(e -> e.id);
+    protected static final Comparator<Entry> BY_MOD = Comparator.<Entry, String>comparing(e -> e.modName).thenComparingLong(e -> e.id);
+
+    protected final Object2ObjectOpenHashMap<ItemStackKey, Entry> entries = new Object2ObjectOpenHashMap<>();
+    protected final TreeSet<Entry> byAmount = new TreeSet<>(BY_AMOUNT);
+    protected final TreeSet<Entry> byName = new TreeSet<>(BY_NAME);
+    protected final TreeSet<Entry> byMod = new TreeSet<>(BY_MOD);
+    /**
+     * The storage version the index reflects, -1 if it was never built.
+     */
+    protected long version = -1;
+    protected long nextId;
+
+    /**
+     * Gets a page of the filtered and sorted contents.
+     *
+     * @param offset the index of the first matching stack to return.
+     * @param count  the maximum amount of stacks to return.
+     */
+    public Page query(StorageControllerBlockEntity controller, String search, SortType sortType, SortDirection sortDirection, int offset, int count) {
+        this.refresh(controller);
+
+        var sorted = switch (sortType) {
+            case AMOUNT -> this.byAmount;
+            case NAME -> this.byName;
+            case MOD -> this.byMod;
+        };
+        Iterator<Entry> iterator = sortDirection.isDown() ? sorted.descendingIterator() : sorted.iterator();
+
+        String filter = search.toLowerCase(Locale.ROOT);
+        List<ItemStack> stacks = new ArrayList<>(Math.max(0, count));
+        int matches = 0;
+        while (iterator.hasNext()) {
+            var entry = iterator.next();
+            if (!filter.isEmpty() && !entry.matches(filter, controller.getLevel()))
+                continue;
+
+            if (matches >= offset && stacks.size() < count)
+                stacks.add(entry.key.stack().copyWithCount((int) Math.min(entry.count, Integer.MAX_VALUE)));
+            matches++;
+        }
+        return new Page(stacks, matches);
+    }
+
+    /**
+     * Brings the index up to date with the controller contents.
+     */
+    protected void refresh(StorageControllerBlockEntity controller) {
+        var network = controller.getNetwork();
+        long currentVersion = network.version();
+        if (currentVersion == this.version)
+            return;
+
+        var changedKeys = this.version >= 0 ? network.changedSince(this.version) : null;
+        if (changedKeys != null) {
+            for (var key : changedKeys) {
+                this.update(key, network.get(key));
+            }
+        } else {
+            this.rebuild(network);
+        }
+        this.version = currentVersion;
+    }
+
+    protected void rebuild(StorageNetwork network) {
+        var merged = new Object2LongLinkedOpenHashMap<ItemStackKey>();
+        for (var shard : network.members()) {
+            for (var entry : shard.itemStackHandler.keyToCountMap().object2IntEntrySet()) {
+                merged.addTo(entry.getKey(), entry.getIntValue());
+            }
+        }
+
+        //drop what is gone, then update or add the rest. Entries that still exist keep their cached search data.
+        this.entries.keySet().removeIf(key -> {
+            if (merged.containsKey(key))
+                return false;
+            var entry = this.entries.get(key);
+            this.byAmount.remove(entry);
+            this.byName.remove(entry);
+            this.byMod.remove(entry);
+            return true;
+        });
+        for (var entry : merged.object2LongEntrySet()) {
+            this.update(entry.getKey(), entry.getLongValue());
+        }
+    }
+
+    protected void update(ItemStackKey key, long count) {
+        var entry = this.entries.get(key);
+        if (count <= 0) {
+            if (entry != null) {
+                this.entries.remove(key);
+                this.byAmount.remove(entry);
+                this.byName.remove(entry);
+                this.byMod.remove(entry);
+            }
+            return;
+        }
+
+        if (entry == null) {
+            entry = new Entry(key, count, this.nextId++);
+            this.entries.put(key, entry);
+            this.byAmount.add(entry);
+            this.byName.add(entry);
+            this.byMod.add(entry);
+        } else if (entry.count != count) {
+            //only the amount order depends on the count
+            this.byAmount.remove(entry);
+            entry.count = count;
+            this.byAmount.add(entry);
+        }
+    }
+
+    public record Page(List<ItemStack> stacks, int totalMatches) {
+    }
+
+    protected static class Entry {
+        protected final ItemStackKey key;
+        /**
+         * Tie breaker for entries that sort equal, in order of insertion.
+         */
+        protected final long id;
+        protected final String name;
+        protected final String modName;
+        protected long count;
+        @Nullable
+        protected String tooltip;
+
+        protected Entry(ItemStackKey key, long count, long id) {
+            this.key = key;
+            this.count = count;
+            this.id = id;
+            this.name = key.stack().getHoverName().getString().toLowerCase(Locale.ROOT);
+            String modName = TextUtil.getModNameForGameObject(key.stack().getItem());
+            this.modName = modName != null ? modName.toLowerCase(Locale.ROOT) : "";
+        }
+
+        /**
+         * Matches the search syntax of the storage gui: @ for mod name, # for tooltip, $ for tags, otherwise the item name.
+         *
+         * @param filter the lower case search text.
+         */
+        protected boolean matches(String filter, @Nullable Level level) {
+            if (filter.startsWith("@")) {
+                return this.modName.contains(filter.substring(1));
+            } else if (filter.startsWith("#")) {
+                if (this.tooltip == null) {
+                    //tooltips are expensive, but do not change for a given key, so we build them once
+                    if (FMLEnvironment.dist != Dist.CLIENT) {
+                        //many items build tooltips from client only classes, so dedicated servers search the name
+                        this.tooltip = this.name;
+                    } else {
+                        try {
+                            var lines = this.key.stack().getTooltipLines(Item.TooltipContext.of(level), null, TooltipFlag.Default.NORMAL)
+                                    .stream().map(Component::getString).collect(Collectors.toList());
+                            this.tooltip = Joiner.on(' ').join(lines).toLowerCase(Locale.ROOT).trim();
+                        } catch (Exception | LinkageError e) {
+                            //some items only support tooltips with a client player, for those we fall back to the name
+                            this.tooltip = this.name;
+                        }
+                    }
+                }
+                return this.tooltip.contains(filter.substring(1));
+            } else if (filter.startsWith("$")) {
+                StringBuilder tagStringBuilder = new StringBuilder();
+                this.key.stack().getTags().forEach(tag -> tagStringBuilder.append(tag.location()).append(" "));
+                return tagStringBuilder.toString().contains(filter.substring(1));
+            }
+            return this.name.contains(filter);
+        }
+    }
+}
@@ -38,6 +38,12 @@ public class CraftRitual extends Ritual {
         super(recipe);
     }
 
+    @Override
+    public boolean supportsBatching() {
+        //rituals waiting for a sacrifice or item use need someone present for every cycle
+        return !this.recipe.requiresSacrifice() && !this.recipe.requiresItemUse();
+    }
+
     @Override
     public void finish(Level level, BlockPos goldenBowlPosition, GoldenSacrificialBowlBlockEntity blockEntity, @Nullable ServerPlayer castingPlayer, ItemStack activationItem) {
         super.finish(level, goldenBowlPosition, blockEntity, castingPlayer, activationItem);
@@ -0,0 +1,181 @@
+/*
+ * MIT License
+ *
+ * Copyright 2024 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.klikli_dev.occultism.common.ritual;
+
+import com.klikli_dev.modonomicon.api.multiblock.Multiblock;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.Util;
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.BlockGetter;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.Rotation;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.levelgen.structure.BoundingBox;
+import net.minecraft.world.level.material.FluidState;
+
+import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Finds the pentacle a player most likely tried to build around a golden bowl, and the blocks missing to complete it.
+ * <p>
+ * Works on a snapshot of the blocks around the golden bowl, so the comparison against all pentacles can run off the
+ * server thread.
+ */
+public class PentacleDiagnosis {
+
+    /**
+     * Diagnoses the pentacle at the given golden bowl in the background.
+     * Must be called on the server thread, the returned future completes on a background thread.
+     */
+    public static CompletableFuture<Result> diagnoseAsync(ServerLevel level, BlockPos goldenBowlPosition) {
+        var fingerprints = RitualRecipeIndex.get(level).getFingerprints(level).values();
+        var snapshot = Snapshot.capture(level, goldenBowlPosition, fingerprints);
+        return CompletableFuture.supplyAsync(() -> diagnose(snapshot, goldenBowlPosition, fingerprints), Util.backgroundExecutor());
+    }
+
+    /**
+     * Finds the pentacle with the fewest differences to the world, in any rotation.
+     * The first pentacle and rotation wins ties, same as comparing the full difference of each.
+     */
+    public static Result diagnose(BlockGetter level, BlockPos goldenBowlPosition, Collection<PentacleFingerprint> fingerprints) {
+        Multiblock bestMatch = null;
+        Map<BlockPos, Block> bestDifference = null;
+
+        for (var fingerprint : fingerprints) {
+            Map<BlockPos, Block> pentacleDifference = null;
+            for (Rotation rotation : Rotation.values()) {
+                //only a strictly smaller difference than both the best rotation so far and the best pentacle so far counts
+                int limit = Math.min(pentacleDifference != null ? pentacleDifference.size() : Integer.MAX_VALUE,
+                        bestDifference != null ? bestDifference.size() : Integer.MAX_VALUE);
+                if (limit != Integer.MAX_VALUE && fingerprint.countSampleMismatches(level, goldenBowlPosition, rotation, limit) >= limit)
+                    continue;
+
+                var difference = fingerprint.getDifference(level, goldenBowlPosition, rotation, limit);
+                if (difference != null)
+                    pentacleDifference = difference;
+            }
+
+            if (pentacleDifference != null && (bestDifference == null || bestDifference.size() > pentacleDifference.size())) {
+                bestDifference = pentacleDifference;
+                bestMatch = fingerprint.getPentacle();
+                if (bestDifference.isEmpty())
+                    break; //a complete pentacle cannot be beaten
+            }
+        }
+
+        return new Result(bestMatch, bestDifference);
+    }
+
+    /**
+     * @param bestMatch      the pentacle most similar to the world, null if there are no pentacles.
+     * @param bestDifference the blocks missing to complete the best match, empty if it is complete.
+     */
+    public record Result(@Nullable Multiblock bestMatch, @Nullable Map<BlockPos, Block> bestDifference) {
+
+        /**
+         * @return the pentacle that is complete around the golden bowl, or null if there is none.
+         */
+        @Nullable
+        public Multiblock getValidPentacle() {
+            return this.bestDifference != null && this.bestDifference.isEmpty() ? this.bestMatch : null;
+        }
+    }
+
+    /**
+     * A copy of the block states in an area, safe to read from any thread.
+     * Positions outside of the area read as air.
+     */
+    public static class Snapshot implements BlockGetter {
+
+        protected final Long2ObjectOpenHashMap<BlockState> states = new Long2ObjectOpenHashMap<>();
+        protected final int height;
+        protected final int minBuildHeight;
+
+        public Snapshot(Level level) {
+            this(level.getMinBuildHeight(), level.getHeight());
+        }
+
+        public Snapshot(int minBuildHeight, int height) {
+            this.minBuildHeight = minBuildHeight;
+            this.height = height;
+        }
+
+        public void setBlockState(BlockPos pos, BlockState state) {
+            this.states.put(pos.asLong(), state);
+        }
+
+        /**
+         * Copies the blocks covered by any of the given pentacles around the golden bowl.
+         */
+        public static Snapshot capture(Level level, BlockPos goldenBowlPosition, Collection<PentacleFingerprint> fingerprints) {
+            var snapshot = new Snapshot(level);
+
+            BoundingBox area = null;
+            for (var fingerprint : fingerprints) {
+                var bounds = fingerprint.getBounds().moved(goldenBowlPosition.getX(), goldenBowlPosition.getY(), goldenBowlPosition.getZ());
+                area = area == null ? bounds : area.encapsulate(bounds);
+            }
+            if (area == null)
+                return snapshot;
+
+            for (BlockPos pos : BlockPos.betweenClosed(area.minX(), area.minY(), area.minZ(), area.maxX(), area.maxY(), area.maxZ())) {
+                snapshot.states.put(pos.asLong(), level.getBlockState(pos));
+            }
+            return snapshot;
+        }
+
+        @Nullable
+        @Override
+        public BlockEntity getBlockEntity(BlockPos pos) {
+            return null;
+        }
+
+        @Override
+        public BlockState getBlockState(BlockPos pos) {
+            var state = this.states.get(pos.asLong());
+            return state != null ? state : Blocks.AIR.defaultBlockState();
+        }
+
+        @Override
+        public FluidState getFluidState(BlockPos pos) {
+            return this.getBlockState(pos).getFluidState();
+        }
+
+        @Override
+        public int getHeight() {
+            return this.height;
+        }
+
+        @Override
+        public int getMinBuildHeight() {
+            return this.minBuildHeight;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * MIT License
+ *
+ * Copyright 2024 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.klikli_dev.occultism.common.ritual;
+
+import com.klikli_dev.modonomicon.api.ModonomiconAPI;
+import com.klikli_dev.modonomicon.api.multiblock.Multiblock;
+import com.klikli_dev.modonomicon.api.multiblock.StateMatcher;
+import com.klikli_dev.modonomicon.multiblock.matcher.AnyMatcher;
+import com.klikli_dev.modonomicon.multiblock.matcher.DisplayOnlyMatcher;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.level.BlockGetter;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.Rotation;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.levelgen.structure.BoundingBox;
+
+import javax.annotation.Nullable;
+import java.util.*;
+
+/**
+ * The expected blocks of a pentacle relative to its golden bowl, for each rotation.
+ * Allows comparing a pentacle against the world without simulating the multiblock, and on any {@link BlockGetter}.
+ * <p>
+ * Each rotation also has a few sample positions that expect the blocks least common across all pentacles, so
+ * pentacles that are far off can be ruled out by checking only these.
+ */
+public class PentacleFingerprint {
+
+    public static final int SAMPLE_COUNT = 6;
+
+    @Nullable
+    protected final Multiblock pentacle;
+    /**
+     * The expected blocks per rotation, indexed by {@link Rotation#ordinal()}.
+     */
+    protected final List<List<Expected>> expectedByRotation = new ArrayList<>();
+    protected final List<List<Expected>> samplesByRotation = new ArrayList<>();
+    /**
+     * The area covered by the pentacle in any rotation, relative to the golden bowl.
+     */
+    protected BoundingBox bounds;
+
+    public PentacleFingerprint(Level level, Multiblock pentacle) {
+        this(pentacle, simulate(level, pentacle));
+    }
+
+    /**
+     * @param pentacle           the pentacle, may be null if the expected blocks do not come from a multiblock.
+     * @param expectedByRotation the expected blocks relative to the golden bowl, indexed by {@link Rotation#ordinal()}.
+     */
+    public PentacleFingerprint(@Nullable Multiblock pentacle, List<List<Expected>> expectedByRotation) {
+        this.pentacle = pentacle;
+        for (var expected : expectedByRotation) {
+            for (var entry : expected) {
+                this.bounds = this.bounds == null ? new BoundingBox(entry.offset()) : this.bounds.encapsulate(entry.offset());
+            }
+            this.expectedByRotation.add(expected);
+        }
+        if (this.bounds == null)
+            this.bounds = new BoundingBox(BlockPos.ZERO);
+    }
+
+    protected static List<List<Expected>> simulate(Level level, Multiblock pentacle) {
+        List<List<Expected>> expectedByRotation = new ArrayList<>();
+        for (Rotation rotation : Rotation.values()) {
+            List<Expected> expected = new ArrayList<>();
+            //simulating at the origin gives positions relative to the golden bowl
+            for (var result : pentacle.simulate(level, BlockPos.ZERO, rotation, false, false).getSecond()) {
+                expected.add(Expected.of(result.getWorldPosition().immutable(), result.getStateMatcher()));
+            }
+            expectedByRotation.add(expected);
+        }
+        return expectedByRotation;
+    }
+
+    /**
+     * Builds the fingerprints of the given pentacles, skipping ids that do not refer to a multiblock.
+     *
+     * @return the fingerprints in the order of the given ids.
+     */
+    public static Map<ResourceLocation, PentacleFingerprint> build(Level level, List<ResourceLocation> pentacleIds) {
+        Map<ResourceLocation, PentacleFingerprint> fingerprints = new LinkedHashMap<>();
+        for (var pentacleId : pentacleIds) {
+            var pentacle = ModonomiconAPI.get().getMultiblock(pentacleId);
+            if (pentacle != null)
+                fingerprints.put(pentacleId, new PentacleFingerprint(level, pentacle));
+        }
+        selectSamples(fingerprints.values());
+        return fingerprints;
+    }
+
+    /**
+     * Selects the sample positions of each fingerprint, based on how common their blocks are across all of them.
+     */
+    public static void selectSamples(Collection<PentacleFingerprint> fingerprints) {
+        //blocks that few pentacles use tell them apart best
+        Reference2IntOpenHashMap<Block> blockCounts = new Reference2IntOpenHashMap<>();
+        for (var fingerprint : fingerprints) {
+            for (var expected : fingerprint.expectedByRotation.get(0)) {
+                blockCounts.addTo(expected.block(), 1);
+            }
+        }
+        Comparator<Expected> byRarity = Comparator.comparingInt(e -> blockCounts.getInt(e.block()));
+        for (var fingerprint : fingerprints) {
+            fingerprint.samplesByRotation.clear();
+            for (var expected : fingerprint.expectedByRotation) {
+                fingerprint.samplesByRotation.add(expected.stream().filter(Expected::isInformative).sorted(byRarity).limit(SAMPLE_COUNT).toList());
+            }
+        }
+    }
+
+    /**
+     * Mirrors the rotation fix the multiblock applies to world states before testing them.
+     */
+    protected static Rotation fixHorizontal(Rotation rotation) {
+        return switch (rotation) {
+            case CLOCKWISE_90 -> Rotation.COUNTERCLOCKWISE_90;
+            case COUNTERCLOCKWISE_90 -> Rotation.CLOCKWISE_90;
+            default -> rotation;
+        };
+    }
+
+    @Nullable
+    public Multiblock getPentacle() {
+        return this.pentacle;
+    }
+
+    public BoundingBox getBounds() {
+        return this.bounds;
+    }
+
+    /**
+     * Counts the sample positions that do not match, stopping at the limit.
+     */
+    public int countSampleMismatches(BlockGetter level, BlockPos goldenBowlPosition, Rotation rotation, int limit) {
+        int mismatches = 0;
+        for (var expected : this.samplesByRotation.get(rotation.ordinal())) {
+            if (!expected.matches(level, goldenBowlPosition, rotation) && ++mismatches >= limit)
+                break;
+        }
+        return mismatches;
+    }
+
+    /**
+     * Gets the blocks that would need to be placed to complete the pentacle in the given rotation.
+     *
+     * @param limit stop once this many differences are found.
+     * @return the expected block per world position that does not match, or null if the limit was reached.
+     */
+    @Nullable
+    public Map<BlockPos, Block> getDifference(BlockGetter level, BlockPos goldenBowlPosition, Rotation rotation, int limit) {
+        Map<BlockPos, Block> difference = new HashMap<>();
+        for (var expected : this.expectedByRotation.get(rotation.ordinal())) {
+            if (!expected.matches(level, goldenBowlPosition, rotation)) {
+                difference.put(goldenBowlPosition.offset(expected.offset()), expected.block());
+                if (difference.size() >= limit)
+                    return null;
+            }
+        }
+        return difference;
+    }
+
+    /**
+     * @param offset      the position relative to the golden bowl.
+     * @param predicate   the test for the block state found at the position.
+     * @param block       the block to show as missing.
+     * @param informative false for positions that accept any block, as they cannot rule out a pentacle.
+     */
+    public record Expected(BlockPos offset, StatePredicate predicate, Block block, boolean informative) {
+
+        public static Expected of(BlockPos offset, StateMatcher matcher) {
+            boolean informative = !matcher.getType().equals(AnyMatcher.TYPE) && !matcher.getType().equals(DisplayOnlyMatcher.TYPE);
+            return new Expected(offset, matcher.getStatePredicate()::test, matcher.getDisplayedState(0).getBlock(), informative);
+        }
+
+        public boolean isInformative() {
+            return this.informative;
+        }
+
+        public boolean matches(BlockGetter level, BlockPos goldenBowlPosition, Rotation rotation) {
+            BlockPos worldPosition = goldenBowlPosition.offset(this.offset);
+            BlockState state = level.getBlockState(worldPosition).rotate(fixHorizontal(rotation));
+            return this.predicate.test(level, worldPosition, state);
+        }
+    }
+
+    @FunctionalInterface
+    public interface StatePredicate {
+        boolean test(BlockGetter level, BlockPos pos, BlockState state);
+    }
+}
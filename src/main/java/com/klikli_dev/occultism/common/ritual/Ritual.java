@@ -26,6 +26,7 @@ import com.google.common.base.Suppliers;
 import com.klikli_dev.occultism.Occultism;
 import com.klikli_dev.occultism.common.blockentity.GoldenSacrificialBowlBlockEntity;
 import com.klikli_dev.occultism.common.blockentity.SacrificialBowlBlockEntity;
+import com.klikli_dev.occultism.common.misc.SacrificialBowlRegistry;
 import com.klikli_dev.occultism.crafting.recipe.RitualRecipe;
 import com.klikli_dev.occultism.crafting.recipe.conditionextension.ConditionWrapperFactory;
 import com.klikli_dev.occultism.crafting.recipe.conditionextension.RitualRecipeConditionContext;
@@ -50,13 +51,14 @@ import net.minecraft.world.item.crafting.Ingredient;
 import net.minecraft.world.item.crafting.RecipeHolder;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.levelgen.structure.BoundingBox;
 import net.neoforged.neoforge.event.entity.player.PlayerInteractEvent;
+import net.neoforged.neoforge.items.IItemHandler;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Optional;
 import java.util.function.Supplier;
 
 public abstract class Ritual {
@@ -100,19 +102,12 @@ public abstract class Ritual {
      * @return the remaining additional ingredients that still need to be consumed.
      */
     public static List<Ingredient> getRemainingAdditionalIngredients(List<Ingredient> additionalIngredients, List<ItemStack> consumedIngredients) {
-        //copy the consumed ingredients to not modify the input
-        List<ItemStack> consumedIngredientsCopy = new ArrayList<>(consumedIngredients);
+        //each consumed item can only account for one ingredient, so we match them up and keep the unmatched ingredients
+        int[] matchedItems = RitualIngredientMatcher.match(additionalIngredients, consumedIngredients);
         List<Ingredient> remainingAdditionalIngredients = new ArrayList<>();
-        for (Ingredient ingredient : additionalIngredients) {
-            Optional<ItemStack> matchedStack = consumedIngredientsCopy.stream().filter(ingredient::test).findFirst();
-            if (matchedStack.isPresent()) {
-                //if it is in the consumed ingredients, we do not need to add it to the remaining required ones
-                //but we remove it from our consumed ingredients copy so each provided ingredient an only be simulated consumed once
-                consumedIngredientsCopy.remove(matchedStack.get());
-            } else {
-                //if it is not already consumed, we add it to the remaining additional ingredients.
-                remainingAdditionalIngredients.add(ingredient);
-            }
+        for (int i = 0; i < matchedItems.length; i++) {
+            if (matchedItems[i] == -1)
+                remainingAdditionalIngredients.add(additionalIngredients.get(i));
         }
         return remainingAdditionalIngredients;
     }
@@ -273,6 +268,17 @@ public abstract class Ritual {
             castingPlayer.displayClientMessage(Component.translatable(this.getInterruptedMessage(castingPlayer)), true);
     }
 
+    /**
+     * Checks whether further activation items can be queued while this ritual runs, so the golden bowl
+     * runs consecutive cycles of it without identifying and validating the ritual again, and emits the results of all
+     * cycles together at the end.
+     *
+     * @return true if the ritual supports batches.
+     */
+    public boolean supportsBatching() {
+        return false;
+    }
+
     /**
      * Called when updating the ritual.
      *
@@ -345,12 +351,26 @@ public abstract class Ritual {
             return true;
 
         List<SacrificialBowlBlockEntity> sacrificialBowls = this.getSacrificialBowls(level, goldenBowlPosition);
+
+        //consume from the bowls validation matched the ingredients to, so an item that fits several ingredients
+        //is not taken by one that other items could have fulfilled.
+        List<IItemHandler> bowlHandlers = new ArrayList<>(sacrificialBowls.size());
+        for (SacrificialBowlBlockEntity sacrificialBowl : sacrificialBowls) {
+            bowlHandlers.add(sacrificialBowl.itemStackHandler);
+        }
+        int[] ingredientToBowl = matchIngredientsToBowls(remainingAdditionalIngredients, bowlHandlers);
+
         int consumed = 0;
+        int index = 0;
         for (Iterator<Ingredient> it = remainingAdditionalIngredients.iterator();
-             it.hasNext() && consumed < ingredientsToConsume; consumed++) {
+             it.hasNext() && consumed < ingredientsToConsume; consumed++, index++) {
             Ingredient ingredient = it.next();
-            if (this.consumeAdditionalIngredient(level, goldenBowlPosition, sacrificialBowls, ingredient,
-                    consumedIngredients)) {
+            int bowl = ingredientToBowl[index];
+            //unmatched ingredients fall back to the first fitting bowl, the next validation will interrupt the ritual anyway
+            boolean found = bowl != -1 ?
+                    this.consumeAdditionalIngredient(level, sacrificialBowls.get(bowl), ingredient, consumedIngredients) :
+                    this.consumeAdditionalIngredient(level, goldenBowlPosition, sacrificialBowls, ingredient, consumedIngredients);
+            if (found) {
                 //remove from the remaining required ingredients
                 it.remove();
             } else {
@@ -375,27 +395,70 @@ public abstract class Ritual {
                                                List<SacrificialBowlBlockEntity> sacrificialBowls,
                                                Ingredient ingredient, List<ItemStack> consumedIngredients) {
         for (SacrificialBowlBlockEntity sacrificialBowl : sacrificialBowls) {
-            //first simulate removal to check the ingredient
-            ItemStack stack = sacrificialBowl.itemStackHandler.extractItem(0, 1, true);
-            if (ingredient.test(stack)) {
-                //now take for real
-                ItemStack extracted = sacrificialBowl.itemStackHandler.extractItem(0, 1, false);
-                consumedIngredients.add(extracted);
-                //Show effect in level
-                ((ServerLevel) level)
-                        .sendParticles(ParticleTypes.LARGE_SMOKE, sacrificialBowl.getBlockPos().getX() + 0.5,
-                                sacrificialBowl.getBlockPos().getY() + 1.5, sacrificialBowl.getBlockPos().getZ() + 0.5, 1,
-                                0.0, 0.0, 0.0,
-                                0.0);
-
-                level.playSound(null, sacrificialBowl.getBlockPos(), OccultismSounds.POOF.get(), SoundSource.BLOCKS,
-                        0.7f, 0.7f);
+            if (this.consumeAdditionalIngredient(level, sacrificialBowl, ingredient, consumedIngredients))
                 return true;
-            }
         }
         return false;
     }
 
+    /**
+     * Consumes one ingredient from the given sacrificial bowl.
+     *
+     * @param level               the level.
+     * @param sacrificialBowl     the sacrificial bowl to consume from.
+     * @param ingredient          the ingredient to consume.
+     * @param consumedIngredients the list of already consumed ingredients, newly consumd ingredients will be appended
+     * @return true if the bowl held the ingredient and it was consumed.
+     */
+    public boolean consumeAdditionalIngredient(Level level, SacrificialBowlBlockEntity sacrificialBowl,
+                                               Ingredient ingredient, List<ItemStack> consumedIngredients) {
+        ItemStack extracted = extractIngredient(sacrificialBowl.itemStackHandler, ingredient);
+        if (extracted.isEmpty())
+            return false;
+
+        consumedIngredients.add(extracted);
+        //Show effect in level
+        ((ServerLevel) level)
+                .sendParticles(ParticleTypes.LARGE_SMOKE, sacrificialBowl.getBlockPos().getX() + 0.5,
+                        sacrificialBowl.getBlockPos().getY() + 1.5, sacrificialBowl.getBlockPos().getZ() + 0.5, 1,
+                        0.0, 0.0, 0.0,
+                        0.0);
+
+        level.playSound(null, sacrificialBowl.getBlockPos(), OccultismSounds.POOF.get(), SoundSource.BLOCKS,
+                0.7f, 0.7f);
+        return true;
+    }
+
+    /**
+     * Matches the ingredients to the items in the given bowl inventories, the same way validation does.
+     *
+     * @param ingredients the ingredients to match.
+     * @param bowls       the inventories of the sacrificial bowls.
+     * @return for each ingredient the index of the bowl to consume it from, or -1 if it could not be matched.
+     */
+    public static int[] matchIngredientsToBowls(List<Ingredient> ingredients, List<? extends IItemHandler> bowls) {
+        List<ItemStack> items = new ArrayList<>(bowls.size());
+        for (IItemHandler bowl : bowls) {
+            //empty bowls match no ingredient, so the item indices are the bowl indices
+            items.add(bowl.getStackInSlot(0));
+        }
+        return RitualIngredientMatcher.match(ingredients, items);
+    }
+
+    /**
+     * Takes one item matching the ingredient from the bowl inventory.
+     *
+     * @return the extracted item, or an empty stack if the bowl does not hold the ingredient.
+     */
+    public static ItemStack extractIngredient(IItemHandler bowl, Ingredient ingredient) {
+        //first simulate removal to check the ingredient
+        if (!ingredient.test(bowl.extractItem(0, 1, true)))
+            return ItemStack.EMPTY;
+
+        //now take for real
+        return bowl.extractItem(0, 1, false);
+    }
+
     /**
      * Compares the items on sacrificial bowls in range to the additional ingredients.
      *
@@ -425,28 +488,9 @@ public abstract class Ritual {
         if (additionalIngredients.isEmpty())
             return true; //implies both are empty, so nothing to check.
 
-        //create a copy to avoid modifying the original
-        List<ItemStack> remainingItems = new ArrayList<>(items);
-
-        for (Ingredient ingredient : additionalIngredients) {
-            boolean isMatched = false;
-            //go through the remaining items
-            for (int i = 0; i < remainingItems.size(); i++) {
-                ItemStack stack = remainingItems.get(i);
-                //check if ingredient matches
-                if (ingredient.test(stack)) {
-                    isMatched = true;
-                    remainingItems.remove(i); //prevent double dipping :)
-                    break;
-                }
-            }
-            if (!isMatched)
-                return false;
-        }
-
         //more items need to cause failure, otherwise we cannot properly identify the type of ritual.
-        //return remainingItems.size() == 0;
-        return true;
+        //-> the matcher allows more items than ingredients.
+        return this.recipe.getIngredientMatcher().matches(additionalIngredients, items);
     }
 
     /**
@@ -457,9 +501,18 @@ public abstract class Ritual {
      * @return a list of items on sacrificial bowls in range.
      */
     public List<ItemStack> getItemsOnSacrificialBowls(Level level, BlockPos goldenBowlPosition) {
+        return this.getItemsOnSacrificialBowls(this.getSacrificialBowls(level, goldenBowlPosition));
+    }
+
+    /**
+     * Gets all items on the given sacrificial bowls.
+     *
+     * @param sacrificialBowls the sacrificial bowls to check.
+     * @return a list of items on the sacrificial bowls.
+     */
+    public List<ItemStack> getItemsOnSacrificialBowls(List<SacrificialBowlBlockEntity> sacrificialBowls) {
         List<ItemStack> result = new ArrayList<>();
 
-        List<SacrificialBowlBlockEntity> sacrificialBowls = this.getSacrificialBowls(level, goldenBowlPosition);
         for (SacrificialBowlBlockEntity sacrificialBowl : sacrificialBowls) {
             ItemStack stack = sacrificialBowl.itemStackHandler.getStackInSlot(0);
             if (!stack.isEmpty()) {
@@ -491,10 +544,20 @@ public abstract class Ritual {
         yBowlRangeTop++;
         yBowlRangeBottom++;
 
+        BlockPos min = goldenBowlPosition.offset(-SACRIFICIAL_BOWL_RANGE, -yBowlRangeBottom, -SACRIFICIAL_BOWL_RANGE);
+        BlockPos max = goldenBowlPosition.offset(SACRIFICIAL_BOWL_RANGE, yBowlRangeTop, SACRIFICIAL_BOWL_RANGE);
+
         List<SacrificialBowlBlockEntity> result = new ArrayList<>();
-        Iterable<BlockPos> blocksToCheck = BlockPos.betweenClosed(
-                goldenBowlPosition.offset(-SACRIFICIAL_BOWL_RANGE, -yBowlRangeBottom, -SACRIFICIAL_BOWL_RANGE),
-                goldenBowlPosition.offset(SACRIFICIAL_BOWL_RANGE, yBowlRangeTop, SACRIFICIAL_BOWL_RANGE));
+        if (!level.isClientSide) {
+            //loaded bowls register themselves, so we only need to look at the chunks in range
+            for (var sacrificialBowl : SacrificialBowlRegistry.get(level).getBowls(BoundingBox.fromCorners(min, max))) {
+                if (!(sacrificialBowl instanceof GoldenSacrificialBowlBlockEntity))
+                    result.add(sacrificialBowl);
+            }
+            return result;
+        }
+
+        Iterable<BlockPos> blocksToCheck = BlockPos.betweenClosed(min, max);
         for (BlockPos blockToCheck : blocksToCheck) {
             BlockEntity blockEntity = level.getBlockEntity(blockToCheck);
             if (blockEntity instanceof SacrificialBowlBlockEntity &&
@@ -505,6 +568,25 @@ public abstract class Ritual {
         return result;
     }
 
+    /**
+     * Gets the area the validity of this ritual depends on, that is the pentacle in any rotation and the range in which
+     * sacrificial bowls are searched.
+     *
+     * @param goldenBowlPosition the block position of the golden bowl.
+     * @return the area, including the golden bowl.
+     */
+    public BoundingBox getFootprint(BlockPos goldenBowlPosition) {
+        var pentacle = this.recipe.getPentacle();
+        var offset = pentacle.getOffset();
+        var size = pentacle.getSize();
+
+        //rotations can swap x and z, so we cover the larger of both
+        int horizontalRange = Math.max(SACRIFICIAL_BOWL_RANGE, Math.max(size.getX(), size.getZ()));
+        return new BoundingBox(
+                goldenBowlPosition.getX() - horizontalRange, goldenBowlPosition.getY() - offset.getY() - 1, goldenBowlPosition.getZ() - horizontalRange,
+                goldenBowlPosition.getX() + horizontalRange, goldenBowlPosition.getY() + size.getY() - offset.getY(), goldenBowlPosition.getZ() + horizontalRange);
+    }
+
     /**
      * Checks if the given entity is a valid sacrifice.
      *
@@ -554,6 +636,10 @@ public abstract class Ritual {
      */
     public void dropResult(Level level, BlockPos goldenBowlPosition, GoldenSacrificialBowlBlockEntity blockEntity,
                            @Nullable Player castingPlayer, ItemStack stack) {
+        //results of batched cycles are emitted together once the batch ends
+        if (blockEntity.bufferBatchResult(stack))
+            return;
+
         double angle = level.random.nextDouble() * Math.PI * 2;
         ItemEntity entity = new ItemEntity(level, goldenBowlPosition.getX() + 0.5, goldenBowlPosition.getY() + 0.75,
                 goldenBowlPosition.getZ() + 0.5, stack);
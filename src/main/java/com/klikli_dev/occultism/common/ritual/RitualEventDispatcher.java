@@ -0,0 +1,133 @@
+/*
+ * MIT License
+ *
+ * Copyright 2024 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.klikli_dev.occultism.common.ritual;
+
+import com.klikli_dev.occultism.common.blockentity.GoldenSacrificialBowlBlockEntity;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.neoforged.neoforge.event.entity.living.LivingDeathEvent;
+import net.neoforged.neoforge.event.entity.player.PlayerInteractEvent;
+import net.neoforged.neoforge.event.level.BlockEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dispatches the events running rituals wait for to the golden bowls near the event, instead of every running ritual
+ * listening to every event on the server.
+ * <p>
+ * Golden bowls with a running ritual are indexed per level by chunk. They register when their ritual starts or is
+ * restored after loading and unregister when it stops or the bowl is removed or unloaded. Only used on the server
+ * thread.
+ */
+public class RitualEventDispatcher {
+
+    private static final Map<Level, RitualEventDispatcher> dispatchers = new Reference2ObjectOpenHashMap<>();
+
+    protected final Long2ObjectOpenHashMap<List<GoldenSacrificialBowlBlockEntity>> ritualsByChunk = new Long2ObjectOpenHashMap<>();
+    /**
+     * The largest horizontal footprint range of any registered ritual, block changes within it are dispatched.
+     */
+    protected int blockChangeRange = Ritual.SACRIFICIAL_BOWL_RANGE;
+
+    public static void register(GoldenSacrificialBowlBlockEntity bowl, int footprintRange) {
+        var dispatcher = dispatchers.computeIfAbsent(bowl.getLevel(), l -> new RitualEventDispatcher());
+        var rituals = dispatcher.ritualsByChunk.computeIfAbsent(ChunkPos.asLong(bowl.getBlockPos()), k -> new ArrayList<>());
+        if (!rituals.contains(bowl))
+            rituals.add(bowl);
+        dispatcher.blockChangeRange = Math.max(dispatcher.blockChangeRange, footprintRange);
+    }
+
+    public static void unregister(GoldenSacrificialBowlBlockEntity bowl) {
+        var dispatcher = dispatchers.get(bowl.getLevel());
+        if (dispatcher == null)
+            return;
+
+        long chunk = ChunkPos.asLong(bowl.getBlockPos());
+        var rituals = dispatcher.ritualsByChunk.get(chunk);
+        if (rituals != null && rituals.remove(bowl) && rituals.isEmpty())
+            dispatcher.ritualsByChunk.remove(chunk);
+        if (dispatcher.ritualsByChunk.isEmpty())
+            dispatchers.remove(bowl.getLevel());
+    }
+
+    public static void remove(Level level) {
+        dispatchers.remove(level);
+    }
+
+    public static void onLivingDeath(LivingDeathEvent event) {
+        var dispatcher = dispatchers.get(event.getEntity().level());
+        if (dispatcher == null)
+            return;
+
+        for (var bowl : dispatcher.getRitualsInRange(event.getEntity().blockPosition(), Ritual.SACRIFICE_DETECTION_RANGE)) {
+            bowl.onLivingDeath(event);
+        }
+    }
+
+    public static void onRightClickItem(PlayerInteractEvent.RightClickItem event) {
+        var dispatcher = dispatchers.get(event.getLevel());
+        if (dispatcher == null)
+            return;
+
+        for (var bowl : dispatcher.getRitualsInRange(event.getPos(), Ritual.ITEM_USE_DETECTION_RANGE)) {
+            bowl.onPlayerRightClickItem(event);
+        }
+    }
+
+    public static void onNeighborNotify(BlockEvent.NeighborNotifyEvent event) {
+        if (!(event.getLevel() instanceof Level level))
+            return;
+
+        var dispatcher = dispatchers.get(level);
+        if (dispatcher == null)
+            return;
+
+        for (var bowl : dispatcher.getRitualsInRange(event.getPos(), dispatcher.blockChangeRange)) {
+            bowl.onNeighborNotify(event);
+        }
+    }
+
+    /**
+     * Gets the registered rituals in the chunks within the given horizontal range of the position.
+     * The exact distance is checked by the golden bowls themselves.
+     *
+     * @return a copy, so rituals may stop and unregister while the result is dispatched to.
+     */
+    protected List<GoldenSacrificialBowlBlockEntity> getRitualsInRange(BlockPos pos, int range) {
+        List<GoldenSacrificialBowlBlockEntity> result = new ArrayList<>();
+        for (int chunkX = SectionPos.blockToSectionCoord(pos.getX() - range); chunkX <= SectionPos.blockToSectionCoord(pos.getX() + range); chunkX++) {
+            for (int chunkZ = SectionPos.blockToSectionCoord(pos.getZ() - range); chunkZ <= SectionPos.blockToSectionCoord(pos.getZ() + range); chunkZ++) {
+                var rituals = this.ritualsByChunk.get(ChunkPos.asLong(chunkX, chunkZ));
+                if (rituals != null)
+                    result.addAll(rituals);
+            }
+        }
+        return result;
+    }
+}
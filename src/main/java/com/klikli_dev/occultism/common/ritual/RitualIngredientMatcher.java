@@ -0,0 +1,250 @@
+/*
+ * MIT License
+ *
+ * Copyright 2024 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.klikli_dev.occultism.common.ritual;
+
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.crafting.Ingredient;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Matches the additional ingredients of a ritual recipe against the items on sacrificial bowls.
+ * <p>
+ * Each item may fulfill one ingredient only, so this is solved as a bipartite matching, which unlike matching each
+ * ingredient to the first fitting item also finds layouts where an item fits multiple ingredients.
+ * The items accepted by simple ingredients are resolved once, and the last result is remembered, so checks while the
+ * bowls are unchanged only compare the items.
+ */
+public class RitualIngredientMatcher {
+
+    /**
+     * Incremented on tag reload, as simple ingredients are resolved to items once.
+     */
+    private static int tagGeneration;
+
+    protected final List<Ingredient> ingredients;
+    protected final int generation;
+    /**
+     * The indices of the simple ingredients accepting each item.
+     */
+    protected final Reference2ObjectOpenHashMap<Item, BitSet> simpleIngredientsByItem = new Reference2ObjectOpenHashMap<>();
+    /**
+     * The indices of ingredients that may depend on more than the item, these are tested per stack.
+     */
+    protected final BitSet customIngredients = new BitSet();
+
+    protected int lastItemsHash;
+    @Nullable
+    protected List<ItemStack> lastItems;
+    @Nullable
+    protected BitSet lastRequired;
+    protected boolean lastResult;
+
+    public RitualIngredientMatcher(List<Ingredient> ingredients) {
+        this.ingredients = ingredients;
+        this.generation = tagGeneration;
+
+        for (int i = 0; i < ingredients.size(); i++) {
+            var ingredient = ingredients.get(i);
+            if (!ingredient.isSimple()) {
+                this.customIngredients.set(i);
+                continue;
+            }
+            for (var stack : ingredient.getItems()) {
+                this.simpleIngredientsByItem.computeIfAbsent(stack.getItem(), k -> new BitSet()).set(i);
+            }
+        }
+    }
+
+    public static void invalidateAll() {
+        tagGeneration++;
+    }
+
+    /**
+     * Finds a maximum matching of the ingredients to the items, testing each pair directly.
+     *
+     * @return for each ingredient the index of the matched item, or -1 if it could not be matched.
+     */
+    public static int[] match(List<Ingredient> ingredients, List<ItemStack> items) {
+        BitSet[] accepted = new BitSet[ingredients.size()];
+        for (int i = 0; i < ingredients.size(); i++) {
+            accepted[i] = new BitSet(items.size());
+            for (int j = 0; j < items.size(); j++) {
+                if (ingredients.get(i).test(items.get(j)))
+                    accepted[i].set(j);
+            }
+        }
+        return solve(accepted, items.size(), false);
+    }
+
+    /**
+     * Kuhn's augmenting path algorithm, ingredient and item counts of rituals are small.
+     *
+     * @param accepted for each ingredient, the items it accepts.
+     * @param failFast stop at the first ingredient that cannot be matched.
+     * @return for each ingredient the index of the matched item, or -1. Null if failing fast and not all matched.
+     */
+    protected static int[] solve(BitSet[] accepted, int itemCount, boolean failFast) {
+        int[] itemToIngredient = new int[itemCount];
+        Arrays.fill(itemToIngredient, -1);
+
+        for (int i = 0; i < accepted.length; i++) {
+            if (!augment(i, accepted, itemToIngredient, new boolean[itemCount]) && failFast)
+                return null;
+        }
+
+        int[] ingredientToItem = new int[accepted.length];
+        Arrays.fill(ingredientToItem, -1);
+        for (int j = 0; j < itemCount; j++) {
+            if (itemToIngredient[j] != -1)
+                ingredientToItem[itemToIngredient[j]] = j;
+        }
+        return ingredientToItem;
+    }
+
+    protected static boolean augment(int ingredient, BitSet[] accepted, int[] itemToIngredient, boolean[] visited) {
+        for (int j = accepted[ingredient].nextSetBit(0); j >= 0; j = accepted[ingredient].nextSetBit(j + 1)) {
+            if (visited[j])
+                continue;
+            visited[j] = true;
+            if (itemToIngredient[j] == -1 || augment(itemToIngredient[j], accepted, itemToIngredient, visited)) {
+                itemToIngredient[j] = ingredient;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    protected static int hashItems(List<ItemStack> items) {
+        int hash = items.size();
+        for (var stack : items) {
+            hash = 31 * hash + ItemStack.hashItemAndComponents(stack);
+        }
+        return hash;
+    }
+
+    protected static boolean isSameItems(List<ItemStack> a, List<ItemStack> b) {
+        if (a.size() != b.size())
+            return false;
+        for (int i = 0; i < a.size(); i++) {
+            if (!ItemStack.isSameItemSameComponents(a.get(i), b.get(i)))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return false if tags were reloaded since this matcher was created.
+     */
+    public boolean isValid() {
+        return this.generation == tagGeneration;
+    }
+
+    /**
+     * Checks if every required ingredient can be matched to a distinct item.
+     *
+     * @param required the ingredients to match, usually all or the remaining ingredients of the recipe.
+     *                 Ingredients not part of the recipe are supported, but tested directly and not remembered.
+     * @param items    the available items, more items than ingredients are allowed.
+     */
+    public boolean matches(List<Ingredient> required, List<ItemStack> items) {
+        BitSet requiredIndices = this.getIndices(required);
+        if (requiredIndices == null)
+            return isComplete(match(required, items));
+
+        int itemsHash = hashItems(items);
+        if (this.lastItems != null && this.lastItemsHash == itemsHash && requiredIndices.equals(this.lastRequired) && isSameItems(this.lastItems, items))
+            return this.lastResult;
+
+        BitSet[] accepted = new BitSet[required.size()];
+        int n = 0;
+        for (int i = requiredIndices.nextSetBit(0); i >= 0; i = requiredIndices.nextSetBit(i + 1)) {
+            accepted[n++] = this.getAcceptedItems(i, items);
+        }
+        boolean result = solve(accepted, items.size(), true) != null;
+
+        List<ItemStack> itemsCopy = new ArrayList<>(items.size());
+        for (var stack : items) {
+            itemsCopy.add(stack.copy());
+        }
+        this.lastItems = itemsCopy;
+        this.lastItemsHash = itemsHash;
+        this.lastRequired = requiredIndices;
+        this.lastResult = result;
+        return result;
+    }
+
+    protected static boolean isComplete(int[] ingredientToItem) {
+        for (int item : ingredientToItem) {
+            if (item == -1)
+                return false;
+        }
+        return true;
+    }
+
+    protected BitSet getAcceptedItems(int ingredient, List<ItemStack> items) {
+        BitSet accepted = new BitSet(items.size());
+        boolean custom = this.customIngredients.get(ingredient);
+        for (int j = 0; j < items.size(); j++) {
+            var stack = items.get(j);
+            if (custom) {
+                if (this.ingredients.get(ingredient).test(stack))
+                    accepted.set(j);
+            } else {
+                var ingredients = this.simpleIngredientsByItem.get(stack.getItem());
+                if (ingredients != null && ingredients.get(ingredient))
+                    accepted.set(j);
+            }
+        }
+        return accepted;
+    }
+
+    /**
+     * Maps the required ingredients to their indices in the recipe ingredients, by identity.
+     *
+     * @return the indices, or null if an ingredient is not part of the recipe.
+     */
+    @Nullable
+    protected BitSet getIndices(List<Ingredient> required) {
+        BitSet indices = new BitSet(this.ingredients.size());
+        for (var ingredient : required) {
+            int index = -1;
+            for (int i = 0; i < this.ingredients.size(); i++) {
+                if (this.ingredients.get(i) == ingredient && !indices.get(i)) {
+                    index = i;
+                    break;
+                }
+            }
+            if (index == -1)
+                return null;
+            indices.set(index);
+        }
+        return indices;
+    }
+}
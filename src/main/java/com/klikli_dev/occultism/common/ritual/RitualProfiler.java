@@ -0,0 +1,171 @@
+/*
+ * MIT License
+ *
+ * Copyright 2024 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.klikli_dev.occultism.common.ritual;
+
+import com.klikli_dev.occultism.Occultism;
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.GlobalPos;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.level.Level;
+
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects per recipe and per golden bowl timings of running rituals while Occultism.DEBUG.profileRituals is enabled.
+ * Only accessed from the server thread.
+ */
+public class RitualProfiler {
+
+    /**
+     * Ticks taking longer than this are also reported as JFR events.
+     */
+    public static final long SLOW_TICK_NANOS = 1_000_000;
+
+    private static final Map<ResourceLocation, EnumMap<Section, Stats>> recipeStats = new Object2ObjectOpenHashMap<>();
+    private static final Map<GlobalPos, BowlStats> bowlStats = new Object2ObjectOpenHashMap<>();
+
+    /**
+     * @return the start time to pass to the end methods, or 0 if profiling is disabled.
+     */
+    public static long begin() {
+        return Occultism.DEBUG.profileRituals ? System.nanoTime() : 0;
+    }
+
+    public static void end(Section section, ResourceLocation recipe, long begin) {
+        if (begin == 0)
+            return;
+
+        record(section, recipe, System.nanoTime() - begin);
+    }
+
+    public static void endTick(Level level, BlockPos goldenBowlPosition, ResourceLocation recipe, long begin) {
+        if (begin == 0)
+            return;
+
+        long nanos = System.nanoTime() - begin;
+        record(Section.TICK, recipe, nanos);
+
+        var bowl = bowlStats.computeIfAbsent(GlobalPos.of(level.dimension(), goldenBowlPosition.immutable()), k -> new BowlStats());
+        bowl.recipe = recipe;
+        bowl.tick.add(nanos);
+
+        if (nanos >= SLOW_TICK_NANOS) {
+            var event = new SlowRitualTickEvent();
+            if (event.shouldCommit()) {
+                event.recipe = recipe.toString();
+                event.dimension = level.dimension().location().toString();
+                event.x = goldenBowlPosition.getX();
+                event.y = goldenBowlPosition.getY();
+                event.z = goldenBowlPosition.getZ();
+                event.tickNanos = nanos;
+                event.commit();
+            }
+        }
+    }
+
+    protected static void record(Section section, ResourceLocation recipe, long nanos) {
+        recipeStats.computeIfAbsent(recipe, k -> new EnumMap<>(Section.class))
+                .computeIfAbsent(section, k -> new Stats())
+                .add(nanos);
+    }
+
+    public static void reset() {
+        recipeStats.clear();
+        bowlStats.clear();
+    }
+
+    /**
+     * @return the recipes with the highest cumulative tick time, with their stats per section.
+     */
+    public static List<Map.Entry<ResourceLocation, EnumMap<Section, Stats>>> getTopRecipes(int limit) {
+        return recipeStats.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<ResourceLocation, EnumMap<Section, Stats>> e) -> getTotalNanos(e.getValue(), Section.TICK)).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    /**
+     * @return the golden bowls with the highest cumulative tick time.
+     */
+    public static List<Map.Entry<GlobalPos, BowlStats>> getTopBowls(int limit) {
+        return bowlStats.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<GlobalPos, BowlStats> e) -> e.getValue().tick.totalNanos).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    protected static long getTotalNanos(EnumMap<Section, Stats> stats, Section section) {
+        var sectionStats = stats.get(section);
+        return sectionStats == null ? 0 : sectionStats.totalNanos;
+    }
+
+    public enum Section {
+        TICK,
+        VALIDATE,
+        FIND_BOWLS,
+        CONSUME_INGREDIENTS,
+        START,
+        FINISH
+    }
+
+    public static class Stats {
+        /**
+         * Counts of samples by the position of their highest bit, enough to estimate percentiles within a factor of two.
+         */
+        protected final long[] histogram = new long[64];
+        public long count;
+        public long totalNanos;
+
+        public void add(long nanos) {
+            this.count++;
+            this.totalNanos += nanos;
+            this.histogram[63 - Long.numberOfLeadingZeros(Math.max(nanos, 1))]++;
+        }
+
+        public long getAverageNanos() {
+            return this.count == 0 ? 0 : this.totalNanos / this.count;
+        }
+
+        /**
+         * @return the upper bound of the histogram bucket containing the given percentile.
+         */
+        public long getPercentileNanos(double percentile) {
+            long threshold = (long) Math.ceil(this.count * percentile);
+            long seen = 0;
+            for (int i = 0; i < this.histogram.length; i++) {
+                seen += this.histogram[i];
+                if (seen >= threshold && seen > 0)
+                    return i >= 62 ? Long.MAX_VALUE : (1L << (i + 1)) - 1;
+            }
+            return 0;
+        }
+    }
+
+    public static class BowlStats {
+        public final Stats tick = new Stats();
+        public ResourceLocation recipe;
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * MIT License
+ *
+ * Copyright 2024 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.klikli_dev.occultism.common.ritual;
+
+import com.klikli_dev.occultism.crafting.recipe.RitualRecipe;
+import com.klikli_dev.occultism.registry.OccultismRecipes;
+import it.unimi.dsi.fastutil.objects.Object2BooleanOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.crafting.RecipeHolder;
+import net.minecraft.world.item.crafting.RecipeManager;
+import net.minecraft.world.level.Level;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index of all ritual recipes by activation item, so identifying a ritual only checks the recipes that can be started
+ * with the given item, instead of all of them.
+ * <p>
+ * The index is built lazily from the recipe manager of the level it is requested for and rebuilt when the recipe
+ * manager changes or tags are reloaded, as tag based activation items are resolved at build time.
+ */
+public class RitualRecipeIndex {
+
+    @Nullable
+    private static RitualRecipeIndex instance;
+
+    @Nullable
+    protected final RecipeManager recipeManager;
+    protected final Map<Item, List<Candidate>> byActivationItem = new Reference2ObjectOpenHashMap<>();
+    /**
+     * Recipes with custom activation ingredients, we cannot know which items they accept so they are always checked.
+     */
+    protected final List<Candidate> unindexed = new ArrayList<>();
+    protected final List<ResourceLocation> pentacleIds;
+    @Nullable
+    protected Map<ResourceLocation, PentacleFingerprint> fingerprints;
+
+    public RitualRecipeIndex(RecipeManager recipeManager) {
+        this(recipeManager, recipeManager.getAllRecipesFor(OccultismRecipes.RITUAL_TYPE.get()));
+    }
+
+    /**
+     * @param recipeManager the recipe manager the recipes come from, may be null for recipes that are not loaded from one.
+     * @param recipes       the ritual recipes, in recipe manager order.
+     */
+    public RitualRecipeIndex(@Nullable RecipeManager recipeManager, List<RecipeHolder<RitualRecipe>> recipes) {
+        this.recipeManager = recipeManager;
+
+        Set<ResourceLocation> pentacleIds = new LinkedHashSet<>();
+        int order = 0;
+        for (var recipe : recipes) {
+            var candidate = new Candidate(order++, recipe);
+            pentacleIds.add(recipe.value().getPentacleId());
+
+            var activationItem = recipe.value().getActivationItem();
+            if (!activationItem.isSimple()) {
+                this.unindexed.add(candidate);
+                continue;
+            }
+
+            for (ItemStack stack : activationItem.getItems()) {
+                var candidates = this.byActivationItem.computeIfAbsent(stack.getItem(), k -> new ArrayList<>());
+                //an ingredient may list the same item multiple times, e.g. via overlapping tags
+                if (candidates.isEmpty() || candidates.get(candidates.size() - 1) != candidate)
+                    candidates.add(candidate);
+            }
+        }
+        this.pentacleIds = List.copyOf(pentacleIds);
+    }
+
+    public static RitualRecipeIndex get(Level level) {
+        var recipeManager = level.getRecipeManager();
+        var index = instance;
+        if (index == null || index.recipeManager != recipeManager) {
+            index = new RitualRecipeIndex(recipeManager);
+            instance = index;
+        }
+        return index;
+    }
+
+    public static void invalidate() {
+        instance = null;
+    }
+
+    /**
+     * @return the ids of all pentacles used by ritual recipes, without duplicates.
+     */
+    public List<ResourceLocation> getPentacleIds() {
+        return this.pentacleIds;
+    }
+
+    /**
+     * Gets the fingerprints of all pentacles used by ritual recipes, built on first use after each reload.
+     *
+     * @return the fingerprints by pentacle id, in the order of {@link #getPentacleIds()}.
+     */
+    public Map<ResourceLocation, PentacleFingerprint> getFingerprints(Level level) {
+        if (this.fingerprints == null)
+            this.fingerprints = PentacleFingerprint.build(level, this.pentacleIds);
+        return this.fingerprints;
+    }
+
+    /**
+     * Gets all recipes that may be started with the given activation item, in recipe manager order.
+     */
+    public List<RecipeHolder<RitualRecipe>> getCandidates(ItemStack activationItem) {
+        var indexed = this.byActivationItem.getOrDefault(activationItem.getItem(), List.of());
+
+        //merge both lists by recipe order, so the first match is the same as with a linear scan over all recipes
+        List<RecipeHolder<RitualRecipe>> result = new ArrayList<>(indexed.size() + this.unindexed.size());
+        int i = 0;
+        int j = 0;
+        while (i < indexed.size() || j < this.unindexed.size()) {
+            if (j >= this.unindexed.size() || (i < indexed.size() && indexed.get(i).order() < this.unindexed.get(j).order()))
+                result.add(indexed.get(i++).recipe());
+            else
+                result.add(this.unindexed.get(j++).recipe());
+        }
+        return result;
+    }
+
+    /**
+     * Identifies the ritual started by the given activation item at the given golden bowl.
+     * Equivalent to the first recipe for which {@link RitualRecipe#matches(Level, BlockPos, ItemStack)} is true, but
+     * each pentacle is validated and the items on its sacrificial bowls are collected only once.
+     *
+     * @return the first matching recipe, or null if none matches.
+     */
+    @Nullable
+    public RecipeHolder<RitualRecipe> identify(Level level, BlockPos goldenBowlPosition, ItemStack activationItem) {
+        Object2BooleanOpenHashMap<ResourceLocation> validPentacles = new Object2BooleanOpenHashMap<>();
+        //the bowl range depends on the pentacle size, so the items are collected per pentacle
+        Map<ResourceLocation, List<ItemStack>> bowlItems = new Object2ObjectOpenHashMap<>();
+
+        for (var recipe : this.getCandidates(activationItem)) {
+            var pentacle = recipe.value().getPentacle();
+            if (pentacle == null || !recipe.value().getActivationItem().test(activationItem))
+                continue;
+
+            var pentacleId = recipe.value().getPentacleId();
+            var ritual = recipe.value().getRitual();
+            var items = bowlItems.computeIfAbsent(pentacleId, id -> ritual.getItemsOnSacrificialBowls(level, goldenBowlPosition));
+            if (!ritual.matchesAdditionalIngredients(recipe.value().getIngredients(), items))
+                continue;
+
+            if (!validPentacles.containsKey(pentacleId))
+                validPentacles.put(pentacleId, pentacle.validate(level, goldenBowlPosition) != null);
+            if (validPentacles.getBoolean(pentacleId))
+                return recipe;
+        }
+        return null;
+    }
+
+    protected record Candidate(int order, RecipeHolder<RitualRecipe> recipe) {
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * MIT License
+ *
+ * Copyright 2024 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.klikli_dev.occultism.common.ritual;
+
+import jdk.jfr.*;
+
+@Name("occultism.SlowRitualTick")
+@Label("Slow Ritual Tick")
+@Category({"Occultism", "Rituals"})
+@Description("A golden sacrificial bowl tick that exceeded the ritual profiler threshold.")
+@StackTrace(false)
+public class SlowRitualTickEvent extends Event {
+    @Label("Recipe")
+    public String recipe;
+    @Label("Dimension")
+    public String dimension;
+    @Label("X")
+    public int x;
+    @Label("Y")
+    public int y;
+    @Label("Z")
+    public int z;
+    @Label("Tick Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    public long tickNanos;
+}
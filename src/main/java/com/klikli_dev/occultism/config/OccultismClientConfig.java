@@ -181,6 +181,7 @@ public class OccultismClientConfig {
         public final BooleanValue divinationRodHighlightAllResults;
         public final IntValue divinationRodScanRange;
         public final BooleanValue disableSpiritFireSuccessSound;
+        public final BooleanValue storageServerSideView;
 
         public MiscSettings(ModConfigSpec.Builder builder) {
             builder.comment("Misc Settings").push("misc");
@@ -197,6 +198,10 @@ public class OccultismClientConfig {
                             "Disables the sound played when a spirit fire successfully crafted an item."
                     )
                     .define("disableSpiritFireSuccessSound", false);
+            this.storageServerSideView = builder.comment(
+                            "If true, the storage actuator gui requests only the displayed page from the server, already searched and sorted.",
+                            "Recommended for very large storages on slow clients. Name search and sorting then use the server language.")
+                    .define("storageServerSideView", false);
             builder.pop();
         }
     }
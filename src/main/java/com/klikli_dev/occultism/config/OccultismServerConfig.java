@@ -80,6 +80,7 @@ public class OccultismServerConfig {
         public final IntValue blacksmithFamiliarUpgradeCost;
         public final IntValue blacksmithFamiliarUpgradeCooldown;
         public final DoubleValue blacksmithFamiliarRepairChance;
+        public final IntValue spiritAiTickBudgetMicros;
 
         public SpiritJobSettings(ModConfigSpec.Builder builder) {
             builder.comment("Spirit Job Settings").push("spirit_job");
@@ -140,6 +141,11 @@ public class OccultismServerConfig {
                                     "The cooldown for a blacksmith familiar to upgrade another familiar.")
                             .defineInRange("blacksmithFamiliarUpgradeCooldown", 20 * 20, 0, Integer.MAX_VALUE);
 
+            this.spiritAiTickBudgetMicros =
+                    builder.comment(
+                                    "The time in microseconds all spirits of a dimension may spend on job updates and scans per tick. Work over budget is deferred to the next tick, timed work such as crushing, trading and weather or time changes always runs. 0 disables the budget.")
+                            .defineInRange("spiritAiTickBudgetMicros", 2000, 0, Integer.MAX_VALUE);
+
 
             builder.pop();
         }
@@ -202,6 +208,8 @@ public class OccultismServerConfig {
         public final IntValue controllerMaxItemTypes;
         public final LongValue controllerMaxTotalItemCount;
         public final BooleanValue unlinkWormholeOnBreak;
+        public final BooleanValue enableStorageNetworks;
+        public final BooleanValue shareActuatorSlotViews;
 
         public StorageSettings(ModConfigSpec.Builder builder) {
             builder.comment("Storage Settings").push("storage");
@@ -242,6 +250,19 @@ public class OccultismServerConfig {
                                             "item type (such as 16 for ender pearls, 64 for iron ingot). WARNING: Setting this to " +
                                             "false may have a negative impact on performance.")
                             .define("unlinkWormholeOnBreak", false);
+
+            this.enableStorageNetworks =
+                    builder.comment(
+                                    "True to join storage actuators that touch each other into one storage network that shares its contents. " +
+                                            "If false, each storage actuator keeps to its own contents.")
+                            .define("enableStorageNetworks", false);
+
+            this.shareActuatorSlotViews =
+                    builder.comment(
+                                    "True to let storage actuators hand the same stack instance to every slot read, instead of a new copy per read. " +
+                                            "This speeds up pipes and other automation scanning the actuator, but requires that no mod modifies the stacks it reads. " +
+                                            "WARNING: Enabling this with a mod that does can show wrong stacks to other mods reading the actuator.")
+                            .define("shareActuatorSlotViews", false);
             builder.pop();
         }
     }
@@ -25,6 +25,7 @@ package com.klikli_dev.occultism.crafting.recipe;
 import com.klikli_dev.modonomicon.api.ModonomiconAPI;
 import com.klikli_dev.modonomicon.api.multiblock.Multiblock;
 import com.klikli_dev.occultism.common.ritual.Ritual;
+import com.klikli_dev.occultism.common.ritual.RitualIngredientMatcher;
 import com.klikli_dev.occultism.registry.OccultismRecipes;
 import com.klikli_dev.occultism.registry.OccultismRituals;
 import com.klikli_dev.occultism.util.OccultismExtraStreamCodecs;
@@ -101,6 +102,8 @@ public class RitualRecipe implements Recipe<SingleRecipeInput> {
     private final Supplier<Ritual> ritual;
     @Nullable
     private final String command;
+    @Nullable
+    private RitualIngredientMatcher ingredientMatcher;
 
     public RitualRecipe(ResourceLocation ritualType, RitualRequirementSettings ritualRequirementSettings, RitualStartSettings ritualStartSettings, @Nullable EntityToSummonSettings entityToSummonSettings, ItemStack ritualDummy, ItemStack result, String command) {
         this.ritualType = ritualType;
@@ -165,6 +168,15 @@ public class RitualRecipe implements Recipe<SingleRecipeInput> {
         return this.ritualRequirementSettings.durationPerIngredient();
     }
 
+    /**
+     * Gets the matcher for the additional ingredients, rebuilt after tag reloads.
+     */
+    public RitualIngredientMatcher getIngredientMatcher() {
+        if (this.ingredientMatcher == null || !this.ingredientMatcher.isValid())
+            this.ingredientMatcher = new RitualIngredientMatcher(this.getIngredients());
+        return this.ingredientMatcher;
+    }
+
     @Override
     public @NotNull RecipeSerializer<?> getSerializer() {
         return SERIALIZER;
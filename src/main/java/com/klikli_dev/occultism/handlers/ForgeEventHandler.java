@@ -23,11 +23,27 @@
 package com.klikli_dev.occultism.handlers;
 
 import com.klikli_dev.occultism.Occultism;
+import com.klikli_dev.occultism.common.entity.ai.ItemEntityIndex;
+import com.klikli_dev.occultism.common.entity.ai.LogIndex;
+import com.klikli_dev.occultism.common.entity.ai.SpiritAIScheduler;
+import com.klikli_dev.occultism.common.entity.ai.SpiritRouteCache;
+import com.klikli_dev.occultism.common.misc.MapItemStackHandler;
+import com.klikli_dev.occultism.common.misc.SacrificialBowlRegistry;
+import com.klikli_dev.occultism.common.ritual.RitualEventDispatcher;
+import com.klikli_dev.occultism.common.ritual.RitualIngredientMatcher;
+import com.klikli_dev.occultism.common.ritual.RitualRecipeIndex;
 import com.klikli_dev.occultism.registry.OccultismCommands;
+import net.minecraft.world.level.Level;
 import net.neoforged.bus.api.SubscribeEvent;
 import net.neoforged.fml.common.EventBusSubscriber;
 import net.neoforged.fml.common.Mod;
 import net.neoforged.neoforge.event.RegisterCommandsEvent;
+import net.neoforged.neoforge.event.TagsUpdatedEvent;
+import net.neoforged.neoforge.event.entity.living.LivingDeathEvent;
+import net.neoforged.neoforge.event.entity.player.PlayerInteractEvent;
+import net.neoforged.neoforge.event.level.BlockEvent;
+import net.neoforged.neoforge.event.level.ChunkEvent;
+import net.neoforged.neoforge.event.level.LevelEvent;
 
 @EventBusSubscriber(modid = Occultism.MODID, bus = EventBusSubscriber.Bus.GAME)
 public class ForgeEventHandler {
@@ -38,5 +54,53 @@ public class ForgeEventHandler {
     public static void registerCommands(RegisterCommandsEvent event) {
         OccultismCommands.register(event.getDispatcher());
     }
+
+    @SubscribeEvent
+    public static void onTagsUpdated(TagsUpdatedEvent event) {
+        MapItemStackHandler.invalidateTagIndex();
+        //activation items are indexed by their resolved tag contents
+        RitualRecipeIndex.invalidate();
+        RitualIngredientMatcher.invalidateAll();
+        //the log and item entity indices belong to server levels and are only used on the server thread, but the event also fires on the client thread.
+        if (event.getUpdateCause() == TagsUpdatedEvent.UpdateCause.SERVER_DATA_LOAD) {
+            LogIndex.invalidateAll();
+            ItemEntityIndex.invalidateItemSets();
+        }
+    }
+
+    @SubscribeEvent
+    public static void onLevelUnload(LevelEvent.Unload event) {
+        if (event.getLevel() instanceof Level level) {
+            SacrificialBowlRegistry.remove(level);
+            RitualEventDispatcher.remove(level);
+            SpiritRouteCache.remove(level);
+            LogIndex.remove(level);
+            ItemEntityIndex.remove(level);
+            SpiritAIScheduler.remove(level);
+        }
+    }
+
+    @SubscribeEvent
+    public static void onChunkUnload(ChunkEvent.Unload event) {
+        if (event.getLevel() instanceof Level level && !level.isClientSide())
+            LogIndex.onChunkUnload(level, event.getChunk().getPos());
+    }
+
+    @SubscribeEvent
+    public static void onLivingDeath(LivingDeathEvent event) {
+        RitualEventDispatcher.onLivingDeath(event);
+    }
+
+    @SubscribeEvent
+    public static void onRightClickItem(PlayerInteractEvent.RightClickItem event) {
+        RitualEventDispatcher.onRightClickItem(event);
+    }
+
+    @SubscribeEvent
+    public static void onNeighborNotify(BlockEvent.NeighborNotifyEvent event) {
+        RitualEventDispatcher.onNeighborNotify(event);
+        if (event.getLevel() instanceof Level level)
+            LogIndex.onBlockChanged(level, event.getPos());
+    }
     //endregion Static Methods
 }
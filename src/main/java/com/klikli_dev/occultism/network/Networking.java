@@ -44,6 +44,7 @@ public class Networking {
         registrar.playToServer(MessageOpenStorageRemote.TYPE, MessageOpenStorageRemote.STREAM_CODEC, MessageHandler::handle);
         registrar.playToServer(MessageRequestOrder.TYPE, MessageRequestOrder.STREAM_CODEC, MessageHandler::handle);
         registrar.playToServer(MessageRequestStacks.TYPE, MessageRequestStacks.STREAM_CODEC, MessageHandler::handle);
+        registrar.playToServer(MessageRequestStorageView.TYPE, MessageRequestStorageView.STREAM_CODEC, MessageHandler::handle);
         registrar.playToServer(MessageSetDivinationResult.TYPE, MessageSetDivinationResult.STREAM_CODEC, MessageHandler::handle);
         registrar.playToServer(MessageSetFilterMode.TYPE, MessageSetFilterMode.STREAM_CODEC, MessageHandler::handle);
         registrar.playToServer(MessageSetItemMode.TYPE, MessageSetItemMode.STREAM_CODEC, MessageHandler::handle);
@@ -69,6 +70,7 @@ public class Networking {
         registrar.playToClient(MessageUpdateLinkedMachines.TYPE, MessageUpdateLinkedMachines.STREAM_CODEC, MessageHandler::handle);
         registrar.playToClient(MessageUpdateMouseHeldItem.TYPE, MessageUpdateMouseHeldItem.STREAM_CODEC, MessageHandler::handle);
         registrar.playToClient(MessageUpdateStacks.TYPE, MessageUpdateStacks.STREAM_CODEC, MessageHandler::handle);
+        registrar.playToClient(MessageUpdateStorageView.TYPE, MessageUpdateStorageView.STREAM_CODEC, MessageHandler::handle);
     }
 
     public static <T extends IMessage> void sendTo(ServerPlayer player, T message) {
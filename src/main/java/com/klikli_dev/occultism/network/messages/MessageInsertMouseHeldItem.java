@@ -88,7 +88,7 @@ public class MessageInsertMouseHeldItem implements IMessage {
             Networking.sendTo(player, new MessageUpdateMouseHeldItem(result));
 
             //update the storage controller
-            Networking.sendTo(player, storageController.getMessageUpdateStacks());
+            ((IStorageControllerContainer) player.containerMenu).syncStacks(player, false);
             player.containerMenu.broadcastChanges();
         }
     }
@@ -55,7 +55,8 @@ public class MessageRequestStacks implements IMessage {
             IStorageController storageController = ((IStorageControllerContainer) player.containerMenu)
                     .getStorageController();
             if (storageController != null) {
-                Networking.sendTo(player, storageController.getMessageUpdateStacks());
+                //the client requests stacks on open, or if it missed a delta, so we always send a full snapshot
+                ((IStorageControllerContainer) player.containerMenu).syncStacks(player, true);
                 Networking
                         .sendTo(player, new MessageUpdateLinkedMachines(storageController.getLinkedMachines()));
                 player.containerMenu.broadcastChanges();
@@ -0,0 +1,107 @@
+/*
+ * MIT License
+ *
+ * Copyright 2024 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.klikli_dev.occultism.network.messages;
+
+import com.klikli_dev.occultism.Occultism;
+import com.klikli_dev.occultism.api.common.blockentity.IStorageController;
+import com.klikli_dev.occultism.api.common.container.IStorageControllerContainer;
+import com.klikli_dev.occultism.api.common.data.SortDirection;
+import com.klikli_dev.occultism.api.common.data.SortType;
+import com.klikli_dev.occultism.network.IMessage;
+import com.klikli_dev.occultism.network.Networking;
+import net.minecraft.network.RegistryFriendlyByteBuf;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.util.Mth;
+
+/**
+ * Requests one page of the filtered and sorted contents of the currently opened storage controller.
+ */
+public class MessageRequestStorageView implements IMessage {
+
+    public static final ResourceLocation ID = ResourceLocation.fromNamespaceAndPath(Occultism.MODID, "request_storage_view");
+    public static final Type<MessageRequestStorageView> TYPE = new Type<>(ID);
+    public static final StreamCodec<RegistryFriendlyByteBuf, MessageRequestStorageView> STREAM_CODEC = CustomPacketPayload.codec(MessageRequestStorageView::encode, MessageRequestStorageView::new);
+
+    /**
+     * Upper bound for the page size, so clients cannot request the entire storage in one page.
+     */
+    private static final int MAX_PAGE_SIZE = 256;
+    private static final int MAX_SEARCH_LENGTH = 64;
+
+    private String search;
+    private SortType sortType;
+    private SortDirection sortDirection;
+    private int offset;
+    private int count;
+
+    public MessageRequestStorageView(RegistryFriendlyByteBuf buf) {
+        this.decode(buf);
+    }
+
+    public MessageRequestStorageView(String search, SortType sortType, SortDirection sortDirection, int offset, int count) {
+        this.search = search;
+        this.sortType = sortType;
+        this.sortDirection = sortDirection;
+        this.offset = offset;
+        this.count = count;
+    }
+
+    @Override
+    public void onServerReceived(MinecraftServer minecraftServer, ServerPlayer player) {
+        if (player.containerMenu instanceof IStorageControllerContainer container) {
+            IStorageController storageController = container.getStorageController();
+            if (storageController != null) {
+                var page = storageController.getStorageViewPage(this.search, this.sortType, this.sortDirection,
+                        Math.max(0, this.offset), Mth.clamp(this.count, 0, MAX_PAGE_SIZE));
+                Networking.sendTo(player, new MessageUpdateStorageView(page.stacks(), page.totalMatches(), this.offset));
+            }
+        }
+    }
+
+    @Override
+    public void encode(RegistryFriendlyByteBuf buf) {
+        buf.writeUtf(this.search, MAX_SEARCH_LENGTH);
+        SortType.STREAM_CODEC.encode(buf, this.sortType);
+        SortDirection.STREAM_CODEC.encode(buf, this.sortDirection);
+        buf.writeVarInt(this.offset);
+        buf.writeVarInt(this.count);
+    }
+
+    @Override
+    public void decode(RegistryFriendlyByteBuf buf) {
+        this.search = buf.readUtf(MAX_SEARCH_LENGTH);
+        this.sortType = SortType.STREAM_CODEC.decode(buf);
+        this.sortDirection = SortDirection.STREAM_CODEC.decode(buf);
+        this.offset = buf.readVarInt();
+        this.count = buf.readVarInt();
+    }
+
+    @Override
+    public Type<? extends CustomPacketPayload> type() {
+        return TYPE;
+    }
+}
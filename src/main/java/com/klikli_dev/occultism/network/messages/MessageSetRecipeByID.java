@@ -25,7 +25,6 @@ import com.google.common.base.Preconditions;
 import com.klikli_dev.occultism.api.common.blockentity.IStorageController;
 import com.klikli_dev.occultism.api.common.container.IStorageControllerContainer;
 import com.klikli_dev.occultism.network.IMessage;
-import com.klikli_dev.occultism.network.Networking;
 import com.klikli_dev.occultism.util.StorageUtil;
 import net.minecraft.core.NonNullList;
 import net.minecraft.network.RegistryFriendlyByteBuf;
@@ -100,7 +99,7 @@ public class MessageSetRecipeByID implements IMessage {
         //sync to client
         container.updateCraftingSlots(true);
         //finally update controller content for client
-        Networking.sendTo(player, storageController.getMessageUpdateStacks());
+        container.syncStacks(player, false);
     }
 
     @Override
@@ -30,7 +30,6 @@ import com.klikli_dev.occultism.api.common.container.IStorageControllerContainer
 import com.klikli_dev.occultism.integration.emi.impl.EmiHelper;
 import com.klikli_dev.occultism.integration.emi.impl.StorageControllerEMIRecipeHandler;
 import com.klikli_dev.occultism.network.IMessage;
-import com.klikli_dev.occultism.network.Networking;
 import com.klikli_dev.occultism.util.StorageUtil;
 import net.minecraft.core.NonNullList;
 import net.minecraft.network.FriendlyByteBuf;
@@ -112,7 +111,7 @@ public class MessageSetRecipeByTemplate implements IMessage {
         //sync to client
         container.updateCraftingSlots(true);
         //finally update controller content for client
-        Networking.sendTo(player, storageController.getMessageUpdateStacks());
+        container.syncStacks(player, false);
     }
 
     @Override
@@ -112,7 +112,7 @@ public class MessageTakeItem implements IMessage {
             }
 
             //finally, update the storage controller stacks
-            Networking.sendTo(player, storageController.getMessageUpdateStacks());
+            ((IStorageControllerContainer) player.containerMenu).syncStacks(player, false);
             player.containerMenu.broadcastChanges();
         }
     }
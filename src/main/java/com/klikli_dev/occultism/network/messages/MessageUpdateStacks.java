@@ -25,6 +25,7 @@ package com.klikli_dev.occultism.network.messages;
 import com.klikli_dev.occultism.Occultism;
 import com.klikli_dev.occultism.api.client.gui.IStorageControllerGui;
 import com.klikli_dev.occultism.network.IMessage;
+import com.klikli_dev.occultism.network.Networking;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import net.minecraft.client.Minecraft;
@@ -46,6 +47,7 @@ import java.util.zip.Inflater;
 
 /**
  * This message sends the stacks in the currently opened storage controller.
+ * Either a full snapshot, or a delta containing only the entries that changed since the version the client last received.
  */
 public class MessageUpdateStacks implements IMessage {
 
@@ -55,7 +57,23 @@ public class MessageUpdateStacks implements IMessage {
 
     private static final int DEFAULT_BUFFER_SIZE = 2 * 1024;
 
+    /**
+     * The full list of stacks for a snapshot, or the added/changed stacks for a delta.
+     */
     private List<ItemStack> stacks;
+    /**
+     * The stacks that were removed entirely, only used for deltas.
+     */
+    private List<ItemStack> removedStacks;
+    private boolean isDelta;
+    /**
+     * The version a delta applies to. Unused for snapshots.
+     */
+    private long baseVersion;
+    /**
+     * The version of the storage contents after applying this message.
+     */
+    private long version;
     private int maxItemTypes;
     private int usedItemTypes;
     private long maxTotalItemCount;
@@ -66,8 +84,29 @@ public class MessageUpdateStacks implements IMessage {
         this.decode(buf);
     }
 
-    public MessageUpdateStacks(List<ItemStack> stacks, int maxItemTypes, int usedItemTypes, long maxTotalItemCount, long usedTotalItemCount, RegistryAccess registryAccess) {
+    /**
+     * Creates a full snapshot.
+     */
+    public MessageUpdateStacks(List<ItemStack> stacks, long version, int maxItemTypes, int usedItemTypes, long maxTotalItemCount, long usedTotalItemCount, RegistryAccess registryAccess) {
+        this(stacks, List.of(), false, -1, version, maxItemTypes, usedItemTypes, maxTotalItemCount, usedTotalItemCount, registryAccess);
+    }
+
+    /**
+     * Creates a delta that brings a client from baseVersion to version.
+     *
+     * @param changedStacks the stacks that were added or changed count, with their new count.
+     * @param removedStacks the stacks that were removed entirely.
+     */
+    public MessageUpdateStacks(List<ItemStack> changedStacks, List<ItemStack> removedStacks, long baseVersion, long version, int maxItemTypes, int usedItemTypes, long maxTotalItemCount, long usedTotalItemCount, RegistryAccess registryAccess) {
+        this(changedStacks, removedStacks, true, baseVersion, version, maxItemTypes, usedItemTypes, maxTotalItemCount, usedTotalItemCount, registryAccess);
+    }
+
+    private MessageUpdateStacks(List<ItemStack> stacks, List<ItemStack> removedStacks, boolean isDelta, long baseVersion, long version, int maxItemTypes, int usedItemTypes, long maxTotalItemCount, long usedTotalItemCount, RegistryAccess registryAccess) {
         this.stacks = stacks;
+        this.removedStacks = removedStacks;
+        this.isDelta = isDelta;
+        this.baseVersion = baseVersion;
+        this.version = version;
         this.maxItemTypes = maxItemTypes;
         this.usedItemTypes = usedItemTypes;
         this.maxTotalItemCount = maxTotalItemCount;
@@ -75,21 +114,42 @@ public class MessageUpdateStacks implements IMessage {
         this.compress(registryAccess);
     }
 
+    public long getVersion() {
+        return this.version;
+    }
+
+    public boolean isDelta() {
+        return this.isDelta;
+    }
+
     @Override
     public void onClientReceived(Minecraft minecraft, Player player) {
-        this.uncompress(player.registryAccess());
         if (minecraft.screen instanceof IStorageControllerGui gui) {
-            if (gui != null) {
-                gui.setStacks(this.stacks);
-                gui.setUsedStorageSize(this.usedItemTypes, this.usedTotalItemCount);
-                gui.setMaxStorageSize(this.maxItemTypes, this.maxTotalItemCount);
-                gui.markDirty();
+            if (this.isDelta) {
+                var cache = gui.getClientStorageCache();
+                if (!cache.canApplyDelta(this.baseVersion)) {
+                    //we missed an update (or have not received the initial snapshot yet), so we ask for a full snapshot.
+                    if (cache.markAwaitingSnapshot())
+                        Networking.sendToServer(new MessageRequestStacks());
+                    return;
+                }
+                this.uncompress(player.registryAccess());
+                gui.updateStacks(this.stacks, this.removedStacks, this.version);
+            } else {
+                this.uncompress(player.registryAccess());
+                gui.setStacks(this.stacks, this.version);
             }
+            gui.setUsedStorageSize(this.usedItemTypes, this.usedTotalItemCount);
+            gui.setMaxStorageSize(this.maxItemTypes, this.maxTotalItemCount);
+            gui.markDirty();
         }
     }
 
     @Override
     public void encode(RegistryFriendlyByteBuf buf) {
+        buf.writeBoolean(this.isDelta);
+        buf.writeVarLong(this.baseVersion + 1); //+1 because snapshots use -1, which is inefficient as var long.
+        buf.writeVarLong(this.version);
         buf.writeVarInt(this.usedItemTypes);
         buf.writeVarLong(this.usedTotalItemCount);
         buf.writeVarInt(this.maxItemTypes);
@@ -102,6 +162,9 @@ public class MessageUpdateStacks implements IMessage {
 
     @Override
     public void decode(RegistryFriendlyByteBuf buf) {
+        this.isDelta = buf.readBoolean();
+        this.baseVersion = buf.readVarLong() - 1;
+        this.version = buf.readVarLong();
         this.usedItemTypes = buf.readVarInt();
         this.usedTotalItemCount = buf.readVarLong();
         this.maxItemTypes = buf.readVarInt();
@@ -137,6 +200,16 @@ public class MessageUpdateStacks implements IMessage {
             stack.setCount(uncompressed.readInt());
             this.stacks.add(stack);
         }
+
+        if (this.isDelta) {
+            int removedSize = uncompressed.readInt();
+            this.removedStacks = new ArrayList<>(removedSize);
+            for (int i = 0; i < removedSize; i++) {
+                this.removedStacks.add(ItemStack.OPTIONAL_STREAM_CODEC.decode(uncompressed));
+            }
+        } else {
+            this.removedStacks = List.of();
+        }
     }
 
     public void compress(RegistryAccess registryAccess) {
@@ -145,7 +218,7 @@ public class MessageUpdateStacks implements IMessage {
 
         // Give the compressor the data to compress
         //create buffer with reasonable size (will increase automatically as needed
-        var uncompressed = RegistryFriendlyByteBuf.decorator(registryAccess).apply(new FriendlyByteBuf(Unpooled.buffer(DEFAULT_BUFFER_SIZE * this.stacks.size())));
+        var uncompressed = RegistryFriendlyByteBuf.decorator(registryAccess).apply(new FriendlyByteBuf(Unpooled.buffer(DEFAULT_BUFFER_SIZE * Math.max(1, this.stacks.size() + this.removedStacks.size()))));
         uncompressed.writeInt(this.stacks.size());
 
         for (ItemStack stack : this.stacks) {
@@ -153,6 +226,14 @@ public class MessageUpdateStacks implements IMessage {
             uncompressed.writeInt(stack.getCount());
         }
 
+        if (this.isDelta) {
+            //removed stacks are sent with a count of 1, the count would make them empty stacks which lose their item.
+            uncompressed.writeInt(this.removedStacks.size());
+            for (ItemStack stack : this.removedStacks) {
+                ItemStack.OPTIONAL_STREAM_CODEC.encode(uncompressed, stack);
+            }
+        }
+
         compressor.setInput(uncompressed.array(), 0, uncompressed.readableBytes());
         compressor.finish();
 
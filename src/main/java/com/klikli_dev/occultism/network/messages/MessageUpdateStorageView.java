@@ -0,0 +1,97 @@
+/*
+ * MIT License
+ *
+ * Copyright 2024 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.klikli_dev.occultism.network.messages;
+
+import com.klikli_dev.occultism.Occultism;
+import com.klikli_dev.occultism.api.client.gui.IStorageControllerGui;
+import com.klikli_dev.occultism.network.IMessage;
+import net.minecraft.client.Minecraft;
+import net.minecraft.network.RegistryFriendlyByteBuf;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.item.ItemStack;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This message sends one page of the filtered and sorted contents of the currently opened storage controller.
+ */
+public class MessageUpdateStorageView implements IMessage {
+
+    public static final ResourceLocation ID = ResourceLocation.fromNamespaceAndPath(Occultism.MODID, "update_storage_view");
+    public static final Type<MessageUpdateStorageView> TYPE = new Type<>(ID);
+    public static final StreamCodec<RegistryFriendlyByteBuf, MessageUpdateStorageView> STREAM_CODEC = CustomPacketPayload.codec(MessageUpdateStorageView::encode, MessageUpdateStorageView::new);
+
+    private List<ItemStack> stacks;
+    private int totalMatches;
+    private int offset;
+
+    public MessageUpdateStorageView(RegistryFriendlyByteBuf buf) {
+        this.decode(buf);
+    }
+
+    public MessageUpdateStorageView(List<ItemStack> stacks, int totalMatches, int offset) {
+        this.stacks = stacks;
+        this.totalMatches = totalMatches;
+        this.offset = offset;
+    }
+
+    @Override
+    public void onClientReceived(Minecraft minecraft, Player player) {
+        if (minecraft.screen instanceof IStorageControllerGui gui) {
+            gui.setStorageViewPage(this.stacks, this.totalMatches, this.offset);
+        }
+    }
+
+    @Override
+    public void encode(RegistryFriendlyByteBuf buf) {
+        buf.writeVarInt(this.totalMatches);
+        buf.writeVarInt(this.offset);
+        buf.writeVarInt(this.stacks.size());
+        for (ItemStack stack : this.stacks) {
+            ItemStack.OPTIONAL_STREAM_CODEC.encode(buf, stack);
+            buf.writeInt(stack.getCount());
+        }
+    }
+
+    @Override
+    public void decode(RegistryFriendlyByteBuf buf) {
+        this.totalMatches = buf.readVarInt();
+        this.offset = buf.readVarInt();
+        int size = buf.readVarInt();
+        this.stacks = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            ItemStack stack = ItemStack.OPTIONAL_STREAM_CODEC.decode(buf);
+            stack.setCount(buf.readInt());
+            this.stacks.add(stack);
+        }
+    }
+
+    @Override
+    public Type<? extends CustomPacketPayload> type() {
+        return TYPE;
+    }
+}
@@ -24,6 +24,8 @@ package com.klikli_dev.occultism.registry;
 
 import com.klikli_dev.occultism.Occultism;
 import com.klikli_dev.occultism.common.command.DebugAICommand;
+import com.klikli_dev.occultism.common.command.DebugRitualsCommand;
+import com.klikli_dev.occultism.common.command.DebugSpiritsCommand;
 import com.mojang.brigadier.CommandDispatcher;
 import com.mojang.brigadier.tree.LiteralCommandNode;
 import net.minecraft.commands.CommandSourceStack;
@@ -37,6 +39,8 @@ public class OccultismCommands {
         LiteralCommandNode<CommandSourceStack> debugCommand = dispatcher.register(
                 Commands.literal("debug")
                         .then(DebugAICommand.register(dispatcher))
+                        .then(DebugRitualsCommand.register(dispatcher))
+                        .then(DebugSpiritsCommand.register(dispatcher))
         );
 
         //register dispatcher for subcommands of /occultism
@@ -24,7 +24,6 @@ package com.klikli_dev.occultism.util;
 
 import com.klikli_dev.occultism.api.common.blockentity.IStorageController;
 import com.klikli_dev.occultism.api.common.container.IStorageControllerContainer;
-import com.klikli_dev.occultism.network.Networking;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.server.level.ServerPlayer;
@@ -90,7 +89,7 @@ public class StorageUtil {
 
             //finally if requested, send the updated storage controller contents to the player.
             if (sendStackUpdate) {
-                Networking.sendTo(player, storageController.getMessageUpdateStacks());
+                container.syncStacks(player, false);
                 ((AbstractContainerMenu) container).broadcastChanges();
             }
 
@@ -130,7 +129,7 @@ public class StorageUtil {
 
             //finally if requested, send the updated storage controller contents to the player.
             if (sendStackUpdate) {
-                Networking.sendTo(player, storageController.getMessageUpdateStacks());
+                container.syncStacks(player, false);
                 ((AbstractContainerMenu) container).broadcastChanges();
             }
         }